@@ -0,0 +1,132 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Compares ways of sorting rows stored as parallel arrays, an Integer key column and
+ * long and double value columns, by the key.
+ *
+ * "zip" copies each row into an object, sorts the objects with
+ * SortingAlgorithms.mergeSort() and copies them back into the columns. "argsort" and
+ * "parallelArgsort" sort the indices of the keys and reorder every column with
+ * SortingAlgorithms.applyPermutation().
+ *
+ * Each operation sorts fresh copies of the same columns, made in setUp() so they
+ * aren't included in the time.
+ *
+ * Usage: ArgsortBenchmark [size...]
+ */
+public class ArgsortBenchmark {
+    private static final int[] SIZES = {10_000, 1_000_000};
+    private static final Comparator<Row> BY_KEY = Comparator.comparing(row -> row.key);
+
+    /**
+     * A row of the columns, for the zip sort.
+     */
+    private static class Row {
+        private final Integer key;
+        private final long value;
+        private final double weight;
+
+        Row(Integer key, long value, double weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * The columns being sorted.
+     */
+    private static class Columns {
+        private final Integer[] keys;
+        private final long[] values;
+        private final double[] weights;
+
+        Columns(int size) {
+            this.keys = new Integer[size];
+            this.values = new long[size];
+            this.weights = new double[size];
+        }
+
+        void copyFrom(Columns other) {
+            System.arraycopy(other.keys, 0, this.keys, 0, this.keys.length);
+            System.arraycopy(other.values, 0, this.values, 0, this.values.length);
+            System.arraycopy(other.weights, 0, this.weights, 0, this.weights.length);
+        }
+    }
+
+    /**
+     * A way of sorting the columns by key.
+     */
+    private interface ColumnSorter {
+        void sort(Columns columns);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = SIZES;
+        if (args.length > 0) {
+            sizes = Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        }
+
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (int size : sizes) {
+            Columns source = new Columns(size);
+            Random random = new Random(3506);
+            for (int i = 0; i < size; i++) {
+                source.keys[i] = random.nextInt();
+                source.values[i] = random.nextLong();
+                source.weights[i] = random.nextDouble();
+            }
+            String prefix = "argsort." + size + ".";
+
+            run(benchmark, prefix + "zip", source, ArgsortBenchmark::zipSort);
+            run(benchmark, prefix + "argsort", source,
+                    columns -> applyAll(columns, SortingAlgorithms.argsort(columns.keys, false)));
+            run(benchmark, prefix + "parallelArgsort", source,
+                    columns -> applyAll(columns, SortingAlgorithms.parallelArgsort(columns.keys, false)));
+        }
+        benchmark.finish();
+    }
+
+    private static void run(MicroBenchmark benchmark, String name, Columns source,
+            ColumnSorter sorter) {
+        Columns working = new Columns(source.keys.length);
+        benchmark.run(name, new MicroBenchmark.Workload() {
+            @Override
+            public void setUp() {
+                working.copyFrom(source);
+            }
+
+            @Override
+            public long run(int operations) {
+                for (int i = 0; i < operations; i++) {
+                    if (i > 0) {
+                        working.copyFrom(source);
+                    }
+                    sorter.sort(working);
+                }
+                return working.values[working.values.length / 2];
+            }
+        });
+    }
+
+    private static void zipSort(Columns columns) {
+        Row[] rows = new Row[columns.keys.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Row(columns.keys[i], columns.values[i], columns.weights[i]);
+        }
+        SortingAlgorithms.mergeSort(rows, BY_KEY);
+        for (int i = 0; i < rows.length; i++) {
+            columns.keys[i] = rows[i].key;
+            columns.values[i] = rows[i].value;
+            columns.weights[i] = rows[i].weight;
+        }
+    }
+
+    private static void applyAll(Columns columns, int[] permutation) {
+        SortingAlgorithms.applyPermutation(columns.keys, permutation);
+        SortingAlgorithms.applyPermutation(columns.values, permutation);
+        SortingAlgorithms.applyPermutation(columns.weights, permutation);
+    }
+}
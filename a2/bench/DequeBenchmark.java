@@ -0,0 +1,226 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compares the throughput and allocation rate of the SimpleDeque implementations
+ * against java.util.ArrayDeque.
+ *
+ * Every benchmark operates on a deque that already holds size elements, so pushes
+ * and pops happen in a steady state rather than on an empty deque. Running main()
+ * with no arguments measures each implementation in its own JVM. Passing "array",
+ * "linked" or "jdk" measures only that implementation in the current JVM.
+ */
+public class DequeBenchmark {
+    private static final String[] IMPLEMENTATIONS = {"array", "linked", "jdk"};
+    private static final int[] SIZES = {16, 1024, 65536};
+    /* Outside of the small Integer cache so that boxing can't hide allocations. */
+    private static final Integer ELEMENT = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            MicroBenchmark.fork(DequeBenchmark.class, IMPLEMENTATIONS);
+            return;
+        }
+
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (String implementation : args) {
+            for (int size : SIZES) {
+                run(benchmark, implementation, size);
+            }
+        }
+        benchmark.finish();
+    }
+
+    private static void run(MicroBenchmark benchmark, String implementation, int size) {
+        String prefix = "deque." + implementation + "." + size + ".";
+        SimpleDeque<Integer> deque = filledDeque(implementation, size);
+        ReversibleDeque<Integer> reversible = new ReversibleDeque<>(filledDeque(implementation, size));
+        InstrumentedDeque<Integer> instrumented = new InstrumentedDeque<>(filledDeque(implementation, size));
+
+        benchmark.run(prefix + "pushPopLeft", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                deque.pushLeft(ELEMENT);
+                sum += deque.popLeft();
+            }
+            return sum;
+        });
+
+        benchmark.run(prefix + "pushPopRight", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                deque.pushRight(ELEMENT);
+                sum += deque.popRight();
+            }
+            return sum;
+        });
+
+        // A FIFO queue moving through the deque, so both ends keep wrapping around.
+        benchmark.run(prefix + "queueSteadyState", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                deque.pushRight(ELEMENT);
+                sum += deque.popLeft();
+            }
+            return sum;
+        });
+
+        // The same queue through an InstrumentedDeque, to measure the cost of the metrics.
+        benchmark.run(prefix + "instrumentedQueueSteadyState", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                instrumented.pushRight(ELEMENT);
+                sum += instrumented.popLeft();
+            }
+            return sum + instrumented.snapshot().getPushesRight();
+        });
+
+        // A LIFO stack that grows and shrinks by a burst of eight elements at a time.
+        benchmark.run(prefix + "stackSteadyState", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                for (int j = 0; j < 8; j++) {
+                    deque.pushLeft(ELEMENT);
+                }
+                for (int j = 0; j < 8; j++) {
+                    sum += deque.popLeft();
+                }
+            }
+            return sum;
+        });
+
+        benchmark.run(prefix + "iterate", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                Iterator<Integer> iterator = deque.iterator();
+                while (iterator.hasNext()) {
+                    sum += iterator.next();
+                }
+            }
+            return sum;
+        });
+
+        benchmark.run(prefix + "reverseIterate", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                Iterator<Integer> iterator = deque.reverseIterator();
+                while (iterator.hasNext()) {
+                    sum += iterator.next();
+                }
+            }
+            return sum;
+        });
+
+        // Flips the direction of the deque around every queue operation.
+        benchmark.run(prefix + "reverseHeavy", operations -> {
+            long sum = 0;
+            for (int i = 0; i < operations; i++) {
+                reversible.reverse();
+                reversible.pushRight(ELEMENT);
+                reversible.reverse();
+                sum += reversible.popLeft();
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * Creates a deque of the given implementation holding size elements, with room
+     * for up to twice that many.
+     */
+    private static SimpleDeque<Integer> filledDeque(String implementation, int size) {
+        SimpleDeque<Integer> deque;
+        switch (implementation) {
+            case "array":
+                deque = new SimpleArrayDeque<>(2 * size);
+                break;
+            case "linked":
+                deque = new SimpleLinkedDeque<>();
+                break;
+            case "jdk":
+                deque = new JdkDeque<>();
+                break;
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+
+        for (int i = 0; i < size; i++) {
+            deque.pushRight(i);
+        }
+        return deque;
+    }
+
+    /**
+     * Presents java.util.ArrayDeque as a SimpleDeque, so it goes through the same
+     * interface calls as the deques it is compared against.
+     */
+    private static class JdkDeque<T> implements SimpleDeque<T> {
+        private final ArrayDeque<T> deque = new ArrayDeque<>();
+
+        @Override
+        public boolean isEmpty() {
+            return deque.isEmpty();
+        }
+
+        @Override
+        public boolean isFull() {
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return deque.size();
+        }
+
+        @Override
+        public void pushLeft(T e) {
+            deque.addFirst(e);
+        }
+
+        @Override
+        public void pushRight(T e) {
+            deque.addLast(e);
+        }
+
+        @Override
+        public T peekLeft() throws NoSuchElementException {
+            return deque.getFirst();
+        }
+
+        @Override
+        public T peekRight() throws NoSuchElementException {
+            return deque.getLast();
+        }
+
+        @Override
+        public T popLeft() throws NoSuchElementException {
+            return deque.removeFirst();
+        }
+
+        @Override
+        public T popRight() throws NoSuchElementException {
+            return deque.removeLast();
+        }
+
+        @Override
+        public T get(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T set(int index, T e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return deque.iterator();
+        }
+
+        @Override
+        public Iterator<T> reverseIterator() {
+            return deque.descendingIterator();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Compares IncrementalSorter with re-running SortingAlgorithms.mergeSort() on
+ * everything received so far, for a stream of random Integers that is read in sorted
+ * order after every batch of appends.
+ *
+ * Each operation appends size elements and, after every BATCH of them, walks the
+ * whole sorted sequence, summing it so the reads can't be removed.
+ *
+ * Usage: IncrementalSorterBenchmark [size...]
+ */
+public class IncrementalSorterBenchmark {
+    private static final int[] SIZES = {10_000, 100_000};
+    /* The number of elements appended between reads. */
+    private static final int BATCH = 1000;
+    private static final Comparator<Integer> NATURAL = Comparator.naturalOrder();
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = SIZES;
+        if (args.length > 0) {
+            sizes = Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        }
+
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (int size : sizes) {
+            Integer[] source = new Integer[size];
+            Random random = new Random(3506);
+            for (int i = 0; i < size; i++) {
+                source[i] = random.nextInt();
+            }
+            String prefix = "incremental." + size + ".";
+
+            benchmark.run(prefix + "incrementalSorter", new MicroBenchmark.Workload() {
+                @Override
+                public long run(int operations) {
+                    long checksum = 0;
+                    for (int operation = 0; operation < operations; operation++) {
+                        IncrementalSorter<Integer> sorter = new IncrementalSorter<>(NATURAL);
+                        for (int i = 0; i < size; i++) {
+                            sorter.add(source[i]);
+                            if ((i + 1) % BATCH == 0) {
+                                for (Integer value : sorter) {
+                                    checksum += value;
+                                }
+                            }
+                        }
+                    }
+                    return checksum;
+                }
+            });
+
+            benchmark.run(prefix + "mergeSortOnRead", new MicroBenchmark.Workload() {
+                @Override
+                public long run(int operations) {
+                    long checksum = 0;
+                    for (int operation = 0; operation < operations; operation++) {
+                        Integer[] received = new Integer[size];
+                        for (int i = 0; i < size; i++) {
+                            received[i] = source[i];
+                            if ((i + 1) % BATCH == 0) {
+                                Integer[] sorted = Arrays.copyOf(received, i + 1);
+                                SortingAlgorithms.mergeSort(sorted, NATURAL);
+                                for (Integer value : sorted) {
+                                    checksum += value;
+                                }
+                            }
+                        }
+                    }
+                    return checksum;
+                }
+            });
+        }
+        benchmark.finish();
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small harness for measuring the throughput of a piece of code.
+ *
+ * Each benchmark is warmed up before it is measured so that the JIT has compiled it,
+ * and is then timed over several iterations with System.nanoTime(). The harness reports
+ * the throughput, its spread between iterations, percentiles of the time per operation
+ * and the number of bytes allocated per operation.
+ *
+ * The harness can be configured with the following system properties:
+ * bench.warmup (warmup iterations, default 5), bench.iterations (measured iterations,
+ * default 10), bench.time (milliseconds per iteration, default 500), bench.filter
+ * (only run benchmarks whose name contains this) and bench.csv (a file to write
+ * the results to in CSV form).
+ */
+public class MicroBenchmark {
+    /**
+     * The code being measured.
+     */
+    public interface Workload {
+        /**
+         * Called before every timed call to run(). Time spent and memory allocated
+         * here are not included in the results.
+         */
+        default void setUp() {
+        }
+
+        /**
+         * Performs the given number of operations.
+         *
+         * @param operations number of operations to perform
+         * @return a value computed from the operations, which stops the JIT from
+         *      removing them as dead code.
+         */
+        long run(int operations);
+    }
+
+    /**
+     * The measurements taken for a single benchmark.
+     */
+    public static class Result {
+        private final String name;
+        private final long operations;
+        private final double opsPerSecond;
+        private final double relativeError;
+        private final double[] percentiles;
+        private final double bytesPerOp;
+
+        private Result(String name, long operations, double opsPerSecond, double relativeError,
+                double[] percentiles, double bytesPerOp) {
+            this.name = name;
+            this.operations = operations;
+            this.opsPerSecond = opsPerSecond;
+            this.relativeError = relativeError;
+            this.percentiles = percentiles;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public double getOpsPerSecond() {
+            return this.opsPerSecond;
+        }
+
+        public double getBytesPerOp() {
+            return this.bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-60s %14.1f ops/s +-%5.1f%%  p50 %10.1f ns  p99 %10.1f ns  %10.1f B/op",
+                    this.name, this.opsPerSecond, 100 * this.relativeError,
+                    this.percentiles[0], this.percentiles[2], this.bytesPerOp);
+        }
+
+        private String toCsv() {
+            return String.format("%s,%d,%f,%f,%f,%f,%f,%f,%f", this.name, this.operations,
+                    this.opsPerSecond, this.relativeError, this.percentiles[0], this.percentiles[1],
+                    this.percentiles[2], this.percentiles[3], this.bytesPerOp);
+        }
+    }
+
+    /* The percentiles of the time per operation that are reported. */
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    /* Calls to run() are batched until a single call takes at least this long. */
+    private static final long MIN_INVOCATION_NANOS = 10_000;
+
+    private final int warmupIterations = Integer.getInteger("bench.warmup", 5);
+    private final int measurementIterations = Integer.getInteger("bench.iterations", 10);
+    private final long iterationNanos = Long.getLong("bench.time", 500) * 1_000_000;
+    private final String filter = System.getProperty("bench.filter", "");
+    private final String csvFile = System.getProperty("bench.csv");
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<Result> results = new ArrayList<>();
+    /* Results of every workload are folded into this so the JIT can't discard them. */
+    private volatile long sink;
+
+    /**
+     * Warms up and measures the given workload, printing its result.
+     *
+     * @param name name to report the benchmark under
+     * @param workload code to measure
+     * @return the measurements, or null if the benchmark was excluded by bench.filter
+     */
+    public Result run(String name, Workload workload) {
+        if (!name.contains(this.filter)) {
+            return null;
+        }
+
+        int batch = 1;
+        for (int i = 0; i < this.warmupIterations; i++) {
+            long end = System.nanoTime() + this.iterationNanos;
+            while (System.nanoTime() < end) {
+                workload.setUp();
+                long start = System.nanoTime();
+                this.sink ^= workload.run(batch);
+                if (System.nanoTime() - start < MIN_INVOCATION_NANOS && batch < (1 << 24)) {
+                    batch *= 2;
+                }
+            }
+        }
+
+        double[] throughputs = new double[this.measurementIterations];
+        long[] samples = new long[1024];
+        int numSamples = 0;
+        long totalOperations = 0;
+        long totalBytes = 0;
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < this.measurementIterations; i++) {
+            long iterationOperations = 0;
+            long iterationTime = 0;
+            long sum = 0;
+            while (iterationTime < this.iterationNanos) {
+                workload.setUp();
+                long bytesBefore = this.threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                sum ^= workload.run(batch);
+                long elapsed = System.nanoTime() - start;
+                totalBytes += this.threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+                if (numSamples == samples.length) {
+                    samples = Arrays.copyOf(samples, 2 * samples.length);
+                }
+                samples[numSamples++] = elapsed;
+                iterationTime += elapsed;
+                iterationOperations += batch;
+            }
+
+            this.sink ^= sum;
+            throughputs[i] = iterationOperations * 1e9 / iterationTime;
+            totalOperations += iterationOperations;
+        }
+
+        Arrays.sort(samples, 0, numSamples);
+        double[] percentiles = new double[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            int index = (int) Math.min(numSamples - 1, Math.floor(PERCENTILES[i] * numSamples));
+            percentiles[i] = (double) samples[index] / batch;
+        }
+
+        double mean = 0;
+        for (double throughput : throughputs) {
+            mean += throughput;
+        }
+        mean /= throughputs.length;
+        double variance = 0;
+        for (double throughput : throughputs) {
+            variance += (throughput - mean) * (throughput - mean);
+        }
+        double deviation = Math.sqrt(variance / Math.max(1, throughputs.length - 1));
+
+        Result result = new Result(name, totalOperations, mean, deviation / mean, percentiles,
+                (double) totalBytes / totalOperations);
+        this.results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Appends every result measured so far to the file given by bench.csv, if it was set.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void finish() throws IOException {
+        if (this.csvFile == null) {
+            return;
+        }
+
+        // Forked JVMs share the same file, so results are appended after a single header.
+        Path path = Paths.get(this.csvFile);
+        boolean newFile = !Files.exists(path);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (newFile) {
+                writer.println("benchmark,operations,ops_per_second,relative_error,"
+                        + "p50_ns,p90_ns,p99_ns,p999_ns,bytes_per_op");
+            }
+            for (Result result : this.results) {
+                writer.println(result.toCsv());
+            }
+        }
+    }
+
+    /**
+     * Returns whether this JVM was started by fork(), so that output printed once per
+     * run, such as a header, can be left to the parent.
+     */
+    public static boolean isForked() {
+        return Boolean.getBoolean("bench.forked");
+    }
+
+    /**
+     * Runs the main method of the given class once in a new JVM for each of the given
+     * arguments, waiting for each JVM to exit before starting the next.
+     *
+     * Running each configuration in a fresh JVM stops the JIT's profile of one
+     * configuration from affecting how the code is compiled for the next, e.g. a call
+     * site seeing several SimpleDeque implementations and no longer being inlined.
+     * The child JVMs inherit the classpath, output and bench.* and sorting.* system
+     * properties of this one, and the jdk.incubator.vector module if this JVM was
+     * started with it. They are also given bench.forked=true, see isForked().
+     *
+     * @param mainClass class to run
+     * @param arguments the argument to give each child JVM
+     * @throws IOException if a JVM can't be started
+     * @throws InterruptedException if interrupted while waiting for a JVM
+     */
+    public static void fork(Class<?> mainClass, String... arguments)
+            throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (String argument : arguments) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            for (String property : System.getProperties().stringPropertyNames()) {
+                if (property.startsWith("bench.") || property.startsWith("sorting.")) {
+                    command.add("-D" + property + "=" + System.getProperty(property));
+                }
+            }
+            command.add("-Dbench.forked=true");
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                command.add("--add-modules=jdk.incubator.vector");
+            }
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(mainClass.getName());
+            command.add(argument);
+
+            int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exitCode != 0) {
+                throw new IllegalStateException(mainClass.getName() + " " + argument
+                        + " exited with " + exitCode);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how many elements per second several producer threads can move to a single
+ * consumer through MpscRingQueue, compared with a SimpleArrayDeque guarded by a lock.
+ *
+ * The consumer drains in batches and the producers spin when the queue is full, so the
+ * result is the throughput of the queue itself rather than of the work around it.
+ * Each configuration runs a few warmup rounds before the measured rounds.
+ *
+ * Usage: MpscRingQueueBenchmark [producers] [seconds per round]
+ */
+public class MpscRingQueueBenchmark {
+    private static final int CAPACITY = 1 << 16;
+    private static final int BATCH = 256;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final Integer ELEMENT = 1_000_000;
+
+    /**
+     * A queue that producers can offer to and the consumer can drain from.
+     */
+    private interface Channel {
+        boolean offer(Integer e);
+
+        int drain(int limit);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0])
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        long roundMillis = args.length > 1 ? (long) (Double.parseDouble(args[1]) * 1000) : 1000;
+
+        MpscRingQueue<Integer> ring = new MpscRingQueue<>(CAPACITY);
+        Channel ringChannel = new Channel() {
+            private long sum;
+
+            @Override
+            public boolean offer(Integer e) {
+                return ring.offer(e);
+            }
+
+            @Override
+            public int drain(int limit) {
+                return ring.drain(e -> sum += e, limit);
+            }
+        };
+
+        SimpleArrayDeque<Integer> deque = new SimpleArrayDeque<>(CAPACITY);
+        Channel lockedChannel = new Channel() {
+            private long sum;
+
+            @Override
+            public boolean offer(Integer e) {
+                synchronized (deque) {
+                    if (deque.isFull()) {
+                        return false;
+                    }
+                    deque.pushRight(e);
+                    return true;
+                }
+            }
+
+            @Override
+            public int drain(int limit) {
+                synchronized (deque) {
+                    int drained = 0;
+                    while (drained < limit && !deque.isEmpty()) {
+                        sum += deque.popLeft();
+                        drained++;
+                    }
+                    return drained;
+                }
+            }
+        };
+
+        report("mpsc.ring." + producers, ringChannel, producers, roundMillis);
+        report("mpsc.lockedArrayDeque." + producers, lockedChannel, producers, roundMillis);
+    }
+
+    private static void report(String name, Channel channel, int producers, long roundMillis)
+            throws InterruptedException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runRound(channel, producers, roundMillis);
+        }
+
+        double[] throughputs = new double[MEASURED_ROUNDS];
+        double mean = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            throughputs[i] = runRound(channel, producers, roundMillis);
+            mean += throughputs[i] / MEASURED_ROUNDS;
+        }
+        double variance = 0;
+        for (double throughput : throughputs) {
+            variance += (throughput - mean) * (throughput - mean) / Math.max(1, MEASURED_ROUNDS - 1);
+        }
+
+        System.out.printf("%-40s %14.1f ops/s +-%5.1f%%%n", name, mean,
+                100 * Math.sqrt(variance) / mean);
+    }
+
+    /**
+     * Runs the producers and the consumer on the channel for the given time.
+     *
+     * @return the number of elements consumed per second
+     */
+    private static double runRound(Channel channel, int producers, long roundMillis)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(() -> {
+                while (running.get()) {
+                    if (!channel.offer(ELEMENT)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        long consumed = 0;
+        long start = System.nanoTime();
+        long end = start + roundMillis * 1_000_000;
+        while (System.nanoTime() < end) {
+            int drained = channel.drain(BATCH);
+            if (drained == 0) {
+                Thread.onSpinWait();
+            }
+            consumed += drained;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Leave the channel empty for the next round.
+        while (channel.drain(BATCH) > 0) {
+        }
+
+        return consumed * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares SortingAlgorithms.parallelMergeSort() and parallelSampleSort() with
+ * Arrays.parallelSort() and the sequential SortingAlgorithms.mergeSort() on arrays of
+ * random Integers.
+ *
+ * Each operation sorts a fresh copy of the same random array. The copy is made in
+ * setUp(), so it isn't included in the time. The sorts are large enough that the
+ * harness never batches more than one sort into a timed call.
+ *
+ * Usage: ParallelSortBenchmark [size...]
+ */
+public class ParallelSortBenchmark {
+    private static final int[] SIZES = {100_000, 1_000_000, 10_000_000};
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = SIZES;
+        if (args.length > 0) {
+            sizes = Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        }
+
+        System.out.println("Parallelism: " + ForkJoinPool.getCommonPoolParallelism());
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (int size : sizes) {
+            Integer[] source = new Integer[size];
+            Random random = new Random(3506);
+            for (int i = 0; i < size; i++) {
+                source[i] = random.nextInt();
+            }
+            Integer[] working = new Integer[size];
+            Runnable copy = () -> System.arraycopy(source, 0, working, 0, size);
+            String prefix = "sort.random." + size + ".";
+
+            benchmark.run(prefix + "parallelMergeSort", new Workload(copy) {
+                @Override
+                public long run(int operations) {
+                    for (int i = 0; i < operations; i++) {
+                        SortingAlgorithms.parallelMergeSort(working, false);
+                    }
+                    return working[size / 2];
+                }
+            });
+
+            benchmark.run(prefix + "parallelSampleSort", new Workload(copy) {
+                @Override
+                public long run(int operations) {
+                    for (int i = 0; i < operations; i++) {
+                        SortingAlgorithms.parallelSampleSort(working, false);
+                    }
+                    return working[size / 2];
+                }
+            });
+
+            benchmark.run(prefix + "arraysParallelSort", new Workload(copy) {
+                @Override
+                public long run(int operations) {
+                    for (int i = 0; i < operations; i++) {
+                        Arrays.parallelSort(working);
+                    }
+                    return working[size / 2];
+                }
+            });
+
+            benchmark.run(prefix + "mergeSort", new Workload(copy) {
+                @Override
+                public long run(int operations) {
+                    for (int i = 0; i < operations; i++) {
+                        SortingAlgorithms.mergeSort(working, false);
+                    }
+                    return working[size / 2];
+                }
+            });
+        }
+        benchmark.finish();
+    }
+
+    /**
+     * A workload whose setUp() restores the unsorted array.
+     */
+    private abstract static class Workload implements MicroBenchmark.Workload {
+        private final Runnable setUp;
+
+        Workload(Runnable setUp) {
+            this.setUp = setUp;
+        }
+
+        @Override
+        public void setUp() {
+            this.setUp.run();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.NoSuchElementException;
+
+/**
+ * Compares ReversibleDeque, which swaps between two prebuilt views on reverse(),
+ * against the previous design that branched on a direction field in every operation.
+ *
+ * Running main() with no arguments measures each wrapped implementation in its own
+ * JVM. Passing "array" or "linked" measures only that implementation.
+ */
+public class ReversibleDequeBenchmark {
+    private static final String[] IMPLEMENTATIONS = {"array", "linked"};
+    private static final int SIZE = 1024;
+    /* Outside of the small Integer cache so that boxing can't hide allocations. */
+    private static final Integer ELEMENT = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            MicroBenchmark.fork(ReversibleDequeBenchmark.class, IMPLEMENTATIONS);
+            return;
+        }
+
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (String implementation : args) {
+            ReversibleDeque<Integer> views = new ReversibleDeque<>(filledDeque(implementation));
+            BranchingReversibleDeque<Integer> branching =
+                    new BranchingReversibleDeque<>(filledDeque(implementation));
+
+            String prefix = "reversible." + implementation + ".";
+            benchmark.run(prefix + "views.queue", operations -> {
+                long sum = 0;
+                for (int i = 0; i < operations; i++) {
+                    views.pushRight(ELEMENT);
+                    sum += views.popLeft();
+                }
+                return sum;
+            });
+            benchmark.run(prefix + "branching.queue", operations -> {
+                long sum = 0;
+                for (int i = 0; i < operations; i++) {
+                    branching.pushRight(ELEMENT);
+                    sum += branching.popLeft();
+                }
+                return sum;
+            });
+
+            // Reversing every few operations makes the direction unpredictable for the
+            // branching design, which is where the prebuilt views should gain the most.
+            benchmark.run(prefix + "views.reverseEvery3", operations -> {
+                long sum = 0;
+                for (int i = 0; i < operations; i++) {
+                    if (i % 3 == 0) {
+                        views.reverse();
+                    }
+                    views.pushRight(ELEMENT);
+                    sum += views.popLeft();
+                }
+                return sum;
+            });
+            benchmark.run(prefix + "branching.reverseEvery3", operations -> {
+                long sum = 0;
+                for (int i = 0; i < operations; i++) {
+                    if (i % 3 == 0) {
+                        branching.reverse();
+                    }
+                    branching.pushRight(ELEMENT);
+                    sum += branching.popLeft();
+                }
+                return sum;
+            });
+        }
+        benchmark.finish();
+    }
+
+    private static SimpleDeque<Integer> filledDeque(String implementation) {
+        SimpleDeque<Integer> deque;
+        if (implementation.equals("array")) {
+            deque = new SimpleArrayDeque<>(2 * SIZE);
+        } else if (implementation.equals("linked")) {
+            deque = new SimpleLinkedDeque<>();
+        } else {
+            throw new IllegalArgumentException(implementation);
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            deque.pushRight(i);
+        }
+        return deque;
+    }
+
+    /**
+     * The previous ReversibleDeque design, which checks the direction in every
+     * operation before calling the wrapped deque. Only the operations used by the
+     * benchmark are included.
+     */
+    private static class BranchingReversibleDeque<T> {
+        private final SimpleDeque<T> data;
+        private boolean backwards;
+
+        private BranchingReversibleDeque(SimpleDeque<T> data) {
+            this.data = data;
+        }
+
+        private void reverse() {
+            this.backwards = !this.backwards;
+        }
+
+        private void pushRight(T e) {
+            if (!this.backwards) {
+                this.data.pushRight(e);
+            } else {
+                this.data.pushLeft(e);
+            }
+        }
+
+        private T popLeft() throws NoSuchElementException {
+            if (!this.backwards) {
+                return this.data.popLeft();
+            } else {
+                return this.data.popRight();
+            }
+        }
+    }
+}
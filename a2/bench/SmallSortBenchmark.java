@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Compares the small-range kernels SortingAlgorithms uses as the base case of its
+ * recursive sorts: insertion sort, sentinel insertion sort, binary insertion sort and
+ * the sorting networks.
+ *
+ * Each operation copies the next slice of a large pool of Integers into a small array
+ * and sorts it, so the branch predictor can't learn a single input. The copy costs the
+ * same for every kernel. The networks are only measured up to
+ * SORTING_NETWORK_THRESHOLD elements.
+ *
+ * Usage: SmallSortBenchmark [size...]
+ */
+public class SmallSortBenchmark {
+    private static final int[] SIZES = {4, 8, 12, 16, 24, 32, 48};
+    private static final int POOL_SIZE = 1 << 16;
+    private static final Comparator<Integer> NATURAL = Comparator.naturalOrder();
+
+    /**
+     * Sorts the range [leftBound, rightBound) of an array.
+     */
+    private interface Kernel {
+        void sort(Integer[] input, int leftBound, int rightBound, Comparator<? super Integer> comparator);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = SIZES;
+        if (args.length > 0) {
+            sizes = Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        }
+
+        Random random = new Random(3506);
+        Integer[] randomPool = new Integer[POOL_SIZE];
+        Integer[] fewUniquePool = new Integer[POOL_SIZE];
+        Integer[] ascendingPool = new Integer[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            randomPool[i] = random.nextInt();
+            fewUniquePool[i] = random.nextInt(4);
+            ascendingPool[i] = i;
+        }
+
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (int size : sizes) {
+            for (String distribution : new String[] {"random", "fewUnique", "ascending"}) {
+                Integer[] pool = distribution.equals("random") ? randomPool
+                        : distribution.equals("fewUnique") ? fewUniquePool : ascendingPool;
+                String prefix = "small." + distribution + "." + size + ".";
+
+                run(benchmark, prefix + "insertionSort", pool, size, SortingAlgorithms::insertionSort);
+                run(benchmark, prefix + "sentinelInsertionSort", pool, size,
+                        SortingAlgorithms::sentinelInsertionSort);
+                run(benchmark, prefix + "binaryInsertionSort", pool, size,
+                        (input, leftBound, rightBound, comparator) -> SortingAlgorithms.binaryInsertionSort(
+                                input, leftBound, rightBound, leftBound + 1, comparator));
+                if (size <= SortingAlgorithms.SORTING_NETWORK_THRESHOLD) {
+                    run(benchmark, prefix + "networkSort", pool, size, SortingAlgorithms::networkSort);
+                }
+            }
+        }
+        benchmark.finish();
+    }
+
+    /**
+     * Measures the given kernel sorting slices of the given size taken from the pool.
+     */
+    private static void run(MicroBenchmark benchmark, String name, Integer[] pool, int size,
+            Kernel kernel) {
+        Integer[] working = new Integer[size];
+        benchmark.run(name, new MicroBenchmark.Workload() {
+            private int offset = 0;
+
+            @Override
+            public long run(int operations) {
+                long checksum = 0;
+                for (int i = 0; i < operations; i++) {
+                    System.arraycopy(pool, this.offset, working, 0, size);
+                    this.offset += size;
+                    if (this.offset + size > pool.length) {
+                        this.offset = 0;
+                    }
+                    kernel.sort(working, 0, size, NATURAL);
+                    checksum += working[0];
+                }
+                return checksum;
+            }
+        });
+    }
+}
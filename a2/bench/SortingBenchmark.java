@@ -0,0 +1,353 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures every sort in SortingAlgorithms, and QuaternaryHeapsort from a3 when it is
+ * on the classpath, across a range of sizes and input distributions.
+ *
+ * Each benchmark operation sorts a fresh copy of the same input, and the copy made
+ * before the first sort of each timed call is excluded from the time. Results are
+ * reported by MicroBenchmark, including the throughput in sorts per second, the time
+ * percentiles and the bytes allocated per sort, and can be written as CSV with
+ * -Dbench.csv=file.
+ *
+ * Running main() with no arguments measures each algorithm in its own JVM, so the JIT
+ * profile of one sort can't affect another. Passing algorithm names measures only
+ * those, in the current JVM. The sizes default to 10^3 to 10^6 and can be changed with
+ * -Dbench.sizes=1000,100000000. Sizes of 10^8 need a heap of around 8GB, e.g. -Xmx8g,
+ * which the forked JVMs don't inherit, so pass the algorithm names directly for those.
+ * The quadratic sorts are only run up to QUADRATIC_LIMIT elements.
+ *
+ * With -Dbench.stats=true, each sort is instead run once per input after a short warmup,
+ * and SortingStats reports its time, comparisons per n log2 n, moves per element and
+ * bytes allocated per element. Moves are only counted if -Dsorting.instrument=true is
+ * passed as well. The comparisons of QuaternaryHeapsort are counted by wrapping each
+ * element, and the primitive sorts report neither comparisons nor moves.
+ *
+ * vectorQuickSort.int is only measured when the SIMD kernels in simd/ are on the
+ * classpath and the JVM is started with --add-modules jdk.incubator.vector.
+ */
+public class SortingBenchmark {
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final String[] DISTRIBUTIONS = {
+            "random", "ascending", "descending", "fewUnique", "sawtooth", "organPipe"};
+    /* The largest size selection and insertion sort are run on. */
+    private static final int QUADRATIC_LIMIT = 10_000;
+    /* The number of unmeasured sorts of each input before its stats are taken. */
+    private static final int STATS_WARMUP = 5;
+    private static final Comparator<Integer> NATURAL = Comparator.naturalOrder();
+
+    /**
+     * A sort of an int[].
+     */
+    private interface PrimitiveSorter {
+        void sort(int[] input);
+    }
+
+    /**
+     * A sort of an Integer[] by a comparator.
+     */
+    private interface ObjectSorter {
+        void sort(Integer[] input, Comparator<? super Integer> comparator);
+    }
+
+    public static void main(String[] args) throws Exception {
+        // The forked JVMs print their rows under the header of the parent.
+        boolean stats = Boolean.getBoolean("bench.stats");
+        if (stats && !MicroBenchmark.isForked()) {
+            System.out.printf("%-40s %12s %12s %10s %12s%n",
+                    "name", "ms", "cmp/nlogn", "moves/n", "bytes/n");
+        }
+
+        if (args.length == 0) {
+            MicroBenchmark.fork(SortingBenchmark.class, algorithmNames().toArray(new String[0]));
+            return;
+        }
+
+        int[] sizes = DEFAULT_SIZES;
+        String sizesProperty = System.getProperty("bench.sizes");
+        if (sizesProperty != null) {
+            sizes = Arrays.stream(sizesProperty.split(",")).mapToInt(Integer::parseInt).toArray();
+        }
+
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (String algorithm : args) {
+            // Each algorithm works on either an int[] or an Integer[], never both.
+            PrimitiveSorter primitiveSorter = primitiveSorter(algorithm);
+            ObjectSorter objectSorter = primitiveSorter == null ? objectSorter(algorithm) : null;
+            for (int size : sizes) {
+                if ((algorithm.equals("selectionSort") || algorithm.equals("insertionSort"))
+                        && size > QUADRATIC_LIMIT) {
+                    continue;
+                }
+                for (String distribution : DISTRIBUTIONS) {
+                    String name = "sort." + algorithm + "." + distribution + "." + size;
+                    int[] values = generate(distribution, size);
+                    if (primitiveSorter != null && stats) {
+                        printStats(name, primitiveSorter, values);
+                    } else if (primitiveSorter != null) {
+                        run(benchmark, name, primitiveSorter, values);
+                    } else if (stats) {
+                        printStats(name, algorithm, objectSorter, values);
+                    } else {
+                        run(benchmark, name, objectSorter, values);
+                    }
+                }
+            }
+        }
+        if (!stats) {
+            benchmark.finish();
+        }
+    }
+
+    /**
+     * Returns the names of every algorithm that can be measured in this JVM.
+     */
+    private static List<String> algorithmNames() {
+        List<String> names = new ArrayList<>(Arrays.asList("selectionSort", "insertionSort",
+                "mergeSort", "parallelMergeSort", "parallelSampleSort", "quickSort", "heapSort", "timSort",
+                "quickSort.int", "radixSort.int", "arraysSort"));
+        if (SortingAlgorithms.hasVectorKernels()) {
+            names.add("vectorQuickSort.int");
+        }
+        if (quaternaryHeapsort() != null) {
+            names.add("quaternaryHeapsort");
+        }
+        return names;
+    }
+
+    /**
+     * Returns the sort of an int[] with the given name, or null if the algorithm sorts
+     * an Integer[].
+     */
+    private static PrimitiveSorter primitiveSorter(String algorithm) {
+        switch (algorithm) {
+            case "quickSort.int":
+                return input -> SortingAlgorithms.quickSort(input, false);
+            case "radixSort.int":
+                return input -> SortingAlgorithms.radixSort(input, false);
+            case "vectorQuickSort.int":
+                return input -> SortingAlgorithms.vectorQuickSort(input, false);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the sort of an Integer[] with the given name.
+     *
+     * @throws IllegalArgumentException if there is no such algorithm
+     */
+    private static ObjectSorter objectSorter(String algorithm) {
+        switch (algorithm) {
+            case "selectionSort":
+                return SortingAlgorithms::selectionSort;
+            case "insertionSort":
+                return SortingAlgorithms::insertionSort;
+            case "mergeSort":
+                return SortingAlgorithms::mergeSort;
+            case "parallelMergeSort":
+                return SortingAlgorithms::parallelMergeSort;
+            case "parallelSampleSort":
+                return SortingAlgorithms::parallelSampleSort;
+            case "quickSort":
+                return SortingAlgorithms::quickSort;
+            case "heapSort":
+                return SortingAlgorithms::heapSort;
+            case "timSort":
+                return SortingAlgorithms::timSort;
+            case "arraysSort":
+                return Arrays::sort;
+            case "quaternaryHeapsort":
+                Method method = quaternaryHeapsort();
+                if (method == null) {
+                    throw new IllegalArgumentException("QuaternaryHeapsort is not on the classpath");
+                }
+                return (input, comparator) -> invoke(method, input);
+            default:
+                throw new IllegalArgumentException(algorithm);
+        }
+    }
+
+    /**
+     * Returns QuaternaryHeapsort.quaternaryHeapsort(), or null if a3's classes aren't on
+     * the classpath. It is looked up by name as a3 is a separate module.
+     */
+    private static Method quaternaryHeapsort() {
+        try {
+            return Class.forName("QuaternaryHeapsort").getMethod("quaternaryHeapsort", Comparable[].class);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sorts the given array with QuaternaryHeapsort.quaternaryHeapsort().
+     */
+    private static void invoke(Method quaternaryHeapsort, Comparable[] input) {
+        try {
+            quaternaryHeapsort.invoke(null, (Object) input);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void run(MicroBenchmark benchmark, String name, PrimitiveSorter sorter,
+            int[] values) {
+        int size = values.length;
+        int[] working = new int[size];
+        benchmark.run(name, new MicroBenchmark.Workload() {
+            @Override
+            public void setUp() {
+                System.arraycopy(values, 0, working, 0, size);
+            }
+
+            @Override
+            public long run(int operations) {
+                for (int i = 0; i < operations; i++) {
+                    if (i > 0) {
+                        System.arraycopy(values, 0, working, 0, size);
+                    }
+                    sorter.sort(working);
+                }
+                return working[size / 2];
+            }
+        });
+    }
+
+    private static void run(MicroBenchmark benchmark, String name, ObjectSorter sorter,
+            int[] values) {
+        int size = values.length;
+        Integer[] source = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            source[i] = values[i];
+        }
+        Integer[] working = new Integer[size];
+        benchmark.run(name, new MicroBenchmark.Workload() {
+            @Override
+            public void setUp() {
+                System.arraycopy(source, 0, working, 0, size);
+            }
+
+            @Override
+            public long run(int operations) {
+                for (int i = 0; i < operations; i++) {
+                    if (i > 0) {
+                        System.arraycopy(source, 0, working, 0, size);
+                    }
+                    sorter.sort(working, NATURAL);
+                }
+                return working[size / 2];
+            }
+        });
+    }
+
+    /**
+     * Sorts copies of the given input STATS_WARMUP times, then measures one more sort
+     * with SortingStats and prints its results.
+     */
+    private static void printStats(String name, PrimitiveSorter sorter, int[] values) {
+        SortingStats stats = null;
+        for (int i = 0; i <= STATS_WARMUP; i++) {
+            int[] working = values.clone();
+            stats = SortingStats.measure(values.length, null, null, () -> sorter.sort(working));
+        }
+        printStats(name, stats, values.length);
+    }
+
+    /**
+     * Sorts copies of the given input STATS_WARMUP times, then measures one more sort
+     * with SortingStats and prints its results. The comparisons of quaternaryHeapsort
+     * are counted by its elements, as it takes no comparator.
+     */
+    private static void printStats(String name, String algorithm, ObjectSorter sorter, int[] values) {
+        int size = values.length;
+        SortingStats stats = null;
+        for (int i = 0; i <= STATS_WARMUP; i++) {
+            if (algorithm.equals("quaternaryHeapsort")) {
+                CountedInteger[] working = new CountedInteger[size];
+                for (int j = 0; j < size; j++) {
+                    working[j] = new CountedInteger(values[j]);
+                }
+                stats = SortingStats.measure(size, () -> CountedInteger.comparisons, null,
+                        () -> invoke(quaternaryHeapsort(), working));
+            } else {
+                Integer[] working = new Integer[size];
+                for (int j = 0; j < size; j++) {
+                    working[j] = values[j];
+                }
+                stats = SortingStats.<Integer>measure(working, NATURAL, sorter::sort);
+            }
+        }
+        printStats(name, stats, size);
+    }
+
+    /**
+     * Prints one row of the stats table.
+     */
+    private static void printStats(String name, SortingStats stats, int size) {
+        System.out.printf("%-40s %12.3f %12.3f %10.2f %12.2f%n", name,
+                stats.getElapsedNanos() / 1e6, stats.getComparisonsPerNLogN(),
+                stats.getMoves() < 0 ? Double.NaN : (double) stats.getMoves() / size,
+                (double) stats.getAllocatedBytes() / size);
+    }
+
+    /**
+     * An Integer that counts the calls to its compareTo(), for measuring sorts that take
+     * Comparable elements rather than a comparator.
+     */
+    private static class CountedInteger implements Comparable<CountedInteger> {
+        /* The number of calls to compareTo() on any CountedInteger. */
+        private static long comparisons;
+        private final int value;
+
+        CountedInteger(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(CountedInteger other) {
+            comparisons++;
+            return Integer.compare(this.value, other.value);
+        }
+    }
+
+    /**
+     * Returns size values with the given distribution. The same seed is used every
+     * time, so every algorithm sorts the same input.
+     */
+    private static int[] generate(String distribution, int size) {
+        Random random = new Random(3506);
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            switch (distribution) {
+                case "random":
+                    values[i] = random.nextInt();
+                    break;
+                case "ascending":
+                    values[i] = i;
+                    break;
+                case "descending":
+                    values[i] = size - i;
+                    break;
+                case "fewUnique":
+                    values[i] = random.nextInt(16);
+                    break;
+                case "sawtooth":
+                    // Ascending runs of a thousand elements.
+                    values[i] = i % 1000;
+                    break;
+                case "organPipe":
+                    values[i] = Math.min(i, size - i);
+                    break;
+                default:
+                    throw new IllegalArgumentException(distribution);
+            }
+        }
+        return values;
+    }
+}
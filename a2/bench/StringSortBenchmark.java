@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares SortingAlgorithms.multikeyQuickSort() and msdRadixSort() with the
+ * comparison sorts SortingAlgorithms.quickSort(), mergeSort() and Arrays.sort() on
+ * arrays of strings.
+ *
+ * The "url" input has a long prefix shared by every string, which comparison sorts
+ * rescan on every call to compareTo(). The "id" input is random base-36 strings that
+ * usually differ in the first few characters.
+ *
+ * Each operation sorts a fresh copy of the same array, made in setUp() so it isn't
+ * included in the time.
+ *
+ * Usage: StringSortBenchmark [size...]
+ */
+public class StringSortBenchmark {
+    private static final int[] SIZES = {10_000, 1_000_000};
+
+    /**
+     * A sort of a String[].
+     */
+    private interface StringSorter {
+        void sort(String[] input);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = SIZES;
+        if (args.length > 0) {
+            sizes = Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        }
+
+        MicroBenchmark benchmark = new MicroBenchmark();
+        for (int size : sizes) {
+            for (String distribution : new String[] {"url", "id"}) {
+                String[] source = generate(distribution, size);
+                String prefix = "sort.string." + distribution + "." + size + ".";
+
+                run(benchmark, prefix + "multikeyQuickSort", source,
+                        input -> SortingAlgorithms.multikeyQuickSort(input, false));
+                run(benchmark, prefix + "msdRadixSort", source,
+                        input -> SortingAlgorithms.msdRadixSort(input, false));
+                run(benchmark, prefix + "quickSort", source,
+                        input -> SortingAlgorithms.quickSort(input, false));
+                run(benchmark, prefix + "mergeSort", source,
+                        input -> SortingAlgorithms.mergeSort(input, false));
+                run(benchmark, prefix + "arraysSort", source, Arrays::sort);
+            }
+        }
+        benchmark.finish();
+    }
+
+    private static void run(MicroBenchmark benchmark, String name, String[] source,
+            StringSorter sorter) {
+        String[] working = new String[source.length];
+        benchmark.run(name, new MicroBenchmark.Workload() {
+            @Override
+            public void setUp() {
+                System.arraycopy(source, 0, working, 0, source.length);
+            }
+
+            @Override
+            public long run(int operations) {
+                for (int i = 0; i < operations; i++) {
+                    if (i > 0) {
+                        System.arraycopy(source, 0, working, 0, source.length);
+                    }
+                    sorter.sort(working);
+                }
+                return working[working.length / 2].length();
+            }
+        });
+    }
+
+    /**
+     * Returns size strings with the given distribution, from the same seed every time.
+     */
+    private static String[] generate(String distribution, int size) {
+        Random random = new Random(3506);
+        String[] strings = new String[size];
+        for (int i = 0; i < size; i++) {
+            if (distribution.equals("url")) {
+                strings[i] = "https://www.example.com/catalogue/products/item?id=" + random.nextInt(size);
+            } else {
+                strings[i] = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            }
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,210 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The IntSortKernels of SortingAlgorithms.vectorQuickSort(), written with the
+ * incubating Vector API (JDK 16 or later) so that the JIT compiles them to SIMD
+ * instructions such as AVX2 or AVX-512.
+ *
+ * Build and run with --add-modules jdk.incubator.vector, on the classpath next to the
+ * classes of src/:
+ *
+ *     javac --add-modules jdk.incubator.vector -cp out -d out simd/*.java
+ *
+ * partition() compares a vector of elements with the pivot at once and packs the
+ * lanes on each side to the front of the vector with a precomputed shuffle, indexed by
+ * the bits of the comparison mask. The packed vector is written whole and the output
+ * position only advances by the number of lanes on that side, so no element is
+ * branched on. The lesser elements are written back over the input, behind the vector
+ * being read, and the rest to the buffer.
+ *
+ * sortBlock() sorts each vector of the block with a bitonic sorting network and
+ * merges the two. Each step of the network pairs every lane with another by a shuffle
+ * and keeps the min or max of the pair, selected by a mask. A partial block is padded
+ * with Integer.MAX_VALUE in the buffer.
+ *
+ * The vectors are 256 bits, eight ints, so the shuffle table has 256 entries. This
+ * needs AVX2 or better on x86. The JIT of JDK 17 doesn't compile VectorMask.toLong()
+ * or masked loads and stores to SIMD instructions, and stops inlining after about a
+ * dozen shuffles in one method, boxing every vector it can't compile. So the mask bits
+ * are summed from a vector of lane weights, and only one vector is sorted by the
+ * network at a time.
+ */
+class VectorIntSortKernels implements IntSortKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_256;
+    private static final int LANES = SPECIES.length();
+    /* The mask bits of a vector with every lane set. */
+    private static final int ALL_LANES = (1 << LANES) - 1;
+    /* Lane i holds 1 << i, so the bits of a mask are the sum of the lanes it selects. */
+    private static final IntVector LANE_BITS = IntVector.fromArray(SPECIES,
+            IntStream.range(0, LANES).map(lane -> 1 << lane).toArray(), 0);
+    /* COMPRESS[bits] moves the lanes set in bits to the front of a vector, in order. */
+    private static final VectorShuffle<Integer>[] COMPRESS = buildCompressShuffles();
+    /* PARTNERS[s] pairs each lane with the one it is compared with at step s of the network. */
+    private static final VectorShuffle<Integer>[] PARTNERS;
+    /* TAKE_MAX[s] selects the lanes that keep the max of their pair at step s. */
+    private static final VectorMask<Integer>[] TAKE_MAX;
+    /* The first step of the last merge of the network, which sorts a bitonic vector. */
+    private static final int MERGE_STEP;
+    /* Reverses the order of the lanes. */
+    private static final VectorShuffle<Integer> REVERSE =
+            VectorShuffle.fromOp(SPECIES, lane -> LANES - 1 - lane);
+
+    static {
+        List<VectorShuffle<Integer>> partners = new ArrayList<>();
+        List<VectorMask<Integer>> takeMax = new ArrayList<>();
+
+        // Lane i is compared with lane i ^ j. It keeps the max if it is the upper of the
+        // pair in an ascending run or the lower in a descending run, where runs of
+        // length k are ascending when bit k of i is clear.
+        for (int k = 2; k <= LANES; k *= 2) {
+            for (int j = k / 2; j > 0; j /= 2) {
+                int[] partner = new int[LANES];
+                boolean[] max = new boolean[LANES];
+                for (int lane = 0; lane < LANES; lane++) {
+                    partner[lane] = lane ^ j;
+                    max[lane] = ((lane & j) == 0) != ((lane & k) == 0);
+                }
+                partners.add(VectorShuffle.fromArray(SPECIES, partner, 0));
+                takeMax.add(VectorMask.fromArray(SPECIES, max, 0));
+            }
+        }
+        @SuppressWarnings("unchecked")
+        VectorShuffle<Integer>[] partnerArray = partners.toArray(new VectorShuffle[0]);
+        @SuppressWarnings("unchecked")
+        VectorMask<Integer>[] takeMaxArray = takeMax.toArray(new VectorMask[0]);
+        PARTNERS = partnerArray;
+        TAKE_MAX = takeMaxArray;
+        MERGE_STEP = PARTNERS.length - Integer.numberOfTrailingZeros(LANES);
+    }
+
+    /**
+     * Creates the kernels.
+     *
+     * @throws UnsupportedOperationException if the platform has no 256-bit vectors
+     */
+    VectorIntSortKernels() {
+        if (IntVector.SPECIES_PREFERRED.vectorBitSize() < SPECIES.vectorBitSize()) {
+            throw new UnsupportedOperationException("256-bit vectors are not supported");
+        }
+    }
+
+    @Override
+    public int blockSize() {
+        return 2 * LANES;
+    }
+
+    @Override
+    public int partition(int[] input, int leftBound, int rightBound, int pivot, boolean inclusive,
+            int[] buffer) {
+        // Elements <= pivot are those < pivot + 1, so both cases use the same comparison.
+        if (inclusive && pivot == Integer.MAX_VALUE) {
+            return rightBound;
+        }
+        int bound = inclusive ? pivot + 1 : pivot;
+        IntVector bounds = IntVector.broadcast(SPECIES, bound);
+        IntVector zero = IntVector.zero(SPECIES);
+
+        // store <= i, so a whole vector written at store only overwrites elements that
+        // have already been read.
+        int store = leftBound;
+        int greater = 0;
+        int i = leftBound;
+        for (int end = rightBound - LANES; i <= end; i += LANES) {
+            IntVector vector = IntVector.fromArray(SPECIES, input, i);
+            VectorMask<Integer> lesser = vector.compare(VectorOperators.LT, bounds);
+            int bits = zero.blend(LANE_BITS, lesser).reduceLanes(VectorOperators.ADD);
+            vector.rearrange(COMPRESS[bits]).intoArray(input, store);
+            vector.rearrange(COMPRESS[bits ^ ALL_LANES]).intoArray(buffer, greater);
+            int count = Integer.bitCount(bits);
+            store += count;
+            greater += LANES - count;
+        }
+        for (; i < rightBound; i++) {
+            int element = input[i];
+            if (element < bound) {
+                input[store++] = element;
+            } else {
+                buffer[greater++] = element;
+            }
+        }
+        System.arraycopy(buffer, 0, input, store, greater);
+        return store;
+    }
+
+    @Override
+    public void sortBlock(int[] input, int leftBound, int rightBound, int[] buffer) {
+        int length = rightBound - leftBound;
+        if (length < 2) {
+            return;
+        }
+        // Masked loads aren't compiled to SIMD instructions by JDK 17, so the block is
+        // padded with Integer.MAX_VALUE in the buffer instead.
+        int vectors = length > LANES ? 2 : 1;
+        System.arraycopy(input, leftBound, buffer, 0, length);
+        Arrays.fill(buffer, length, vectors * LANES, Integer.MAX_VALUE);
+        for (int offset = 0; offset < vectors * LANES; offset += LANES) {
+            sortVector(buffer, offset, 0);
+        }
+        if (vectors == 2) {
+            // The first run followed by the second reversed is bitonic, so the min and
+            // max of each pair of lanes are the lower and upper halves of the block,
+            // each of them bitonic. Sorting those takes the last steps of the network.
+            IntVector first = IntVector.fromArray(SPECIES, buffer, 0);
+            IntVector second = IntVector.fromArray(SPECIES, buffer, LANES).rearrange(REVERSE);
+            first.min(second).intoArray(buffer, 0);
+            first.max(second).intoArray(buffer, LANES);
+            for (int offset = 0; offset < 2 * LANES; offset += LANES) {
+                sortVector(buffer, offset, MERGE_STEP);
+            }
+        }
+        System.arraycopy(buffer, 0, input, leftBound, length);
+    }
+
+    /**
+     * Runs the bitonic network from the given step on the LANES elements of the given
+     * array starting at the given index. From step 0, this sorts them. From MERGE_STEP,
+     * it sorts them if they are bitonic.
+     */
+    private static void sortVector(int[] input, int offset, int firstStep) {
+        IntVector vector = IntVector.fromArray(SPECIES, input, offset);
+        for (int step = firstStep; step < PARTNERS.length; step++) {
+            IntVector other = vector.rearrange(PARTNERS[step]);
+            vector = vector.min(other).blend(vector.max(other), TAKE_MAX[step]);
+        }
+        vector.intoArray(input, offset);
+    }
+
+    /**
+     * Returns a shuffle for every mask of LANES bits that moves the set lanes to the
+     * front, followed by the rest.
+     */
+    @SuppressWarnings("unchecked")
+    private static VectorShuffle<Integer>[] buildCompressShuffles() {
+        VectorShuffle<Integer>[] shuffles = new VectorShuffle[1 << LANES];
+        int[] indices = new int[LANES];
+        for (int bits = 0; bits < shuffles.length; bits++) {
+            int next = 0;
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((bits & (1 << lane)) != 0) {
+                    indices[next++] = lane;
+                }
+            }
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((bits & (1 << lane)) == 0) {
+                    indices[next++] = lane;
+                }
+            }
+            shuffles[bits] = VectorShuffle.fromArray(SPECIES, indices, 0);
+        }
+        return shuffles;
+    }
+}
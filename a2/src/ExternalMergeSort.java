@@ -0,0 +1,412 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts files of fixed-width records that are too large to sort in memory.
+ *
+ * The input file is read in chunks that fit in the memory budget. Each chunk is decoded
+ * through a small memory-mapped window, sorted in memory with SortingAlgorithms.timSort()
+ * and written to a temporary run file through another window.
+ * The runs are then merged k at a time through a loser tree, reading each run through a
+ * small memory-mapped window, until a single run remains. If there are too many runs to
+ * give each of them a window within the budget, groups of runs are merged into longer
+ * runs first. Records with equal keys keep their order from the input file, so the sort
+ * is stable.
+ *
+ * Files are read and written through memory-mapped FileChannel windows of at most
+ * MAX_WINDOW_BYTES. The records in the files are stored back-to-back in the format of
+ * the given RecordCodec, with no header.
+ *
+ * @param <T> Type of the value stored in each record.
+ */
+public class ExternalMergeSort<T> {
+    /* The largest number of bytes mapped by a single window. */
+    private static final int MAX_WINDOW_BYTES = 1 << 30;
+    /*
+     * An estimate of the heap used per record on top of its encoded size, for the
+     * reference to it and the header of the decoded object.
+     */
+    private static final int RECORD_OVERHEAD = 32;
+    /* The heap used per record by the merge buffer of timSort(), n / 2 references. */
+    private static final int SORT_BUFFER_OVERHEAD = 4;
+    /*
+     * The fraction of the budget, as a divisor, given to the windows that read the input
+     * and write each run while runs are created. The rest holds the decoded records.
+     */
+    private static final int CHUNK_WINDOW_DIVISOR = 8;
+    /* The fewest records read or written by a single window while merging. */
+    private static final int MIN_WINDOW_RECORDS = 16;
+
+    /* Encodes and decodes the records being sorted. */
+    private RecordCodec<T> codec;
+    /* The order to sort the records into. */
+    private Comparator<? super T> comparator;
+    /* The number of bytes of heap and mapped memory the sort may use at once. */
+    private long memoryBudget;
+    /* The directory the temporary run files are created in. */
+    private Path temporaryDirectory;
+    /* The size of a record in bytes. */
+    private int recordSize;
+
+    /**
+     * Creates an external sort of records in the given codec's format.
+     *
+     * @param codec the codec used to convert records to and from values
+     * @param comparator the order to sort the records into
+     * @param memoryBudget the number of bytes of memory the sort may use at once
+     * @param temporaryDirectory the directory to create run files in
+     * @throws IllegalArgumentException if the budget can't hold at least two merge windows
+     */
+    public ExternalMergeSort(RecordCodec<T> codec, Comparator<? super T> comparator,
+            long memoryBudget, Path temporaryDirectory) throws IllegalArgumentException {
+        if (codec.recordSize() <= 0
+                || memoryBudget < 3L * MIN_WINDOW_RECORDS * (codec.recordSize() + RECORD_OVERHEAD)) {
+            throw new IllegalArgumentException();
+        }
+
+        this.codec = codec;
+        this.comparator = comparator;
+        this.memoryBudget = memoryBudget;
+        this.temporaryDirectory = temporaryDirectory;
+        this.recordSize = codec.recordSize();
+    }
+
+    /**
+     * Sorts the records in the input file into the output file. The output file is
+     * replaced if it already exists, and may be the same as the input file.
+     *
+     * This method has a time complexity of O(n log n) and O(n log_k r) bytes of I/O,
+     * where r is the number of runs and k the number merged at once. The decoded
+     * records, the sort buffer and the mapped windows in use at any time fit in the
+     * memory budget. Windows that have been moved past are unmapped when they are
+     * garbage collected, so the mapped memory the process holds can briefly exceed it.
+     *
+     * @param input the file of records to sort
+     * @param output the file to write the sorted records to
+     * @throws IllegalArgumentException if the input's size isn't a multiple of the
+     *      record size
+     * @throws IOException if a file can't be read or written
+     */
+    public void sort(Path input, Path output) throws IllegalArgumentException, IOException {
+        List<Path> runs = new ArrayList<>();
+        try {
+            this.createRuns(input, runs);
+
+            int fanIn = this.maxFanIn();
+            while (runs.size() > 1) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(runs.size(), i + fanIn));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+
+                    Path run = Files.createTempFile(this.temporaryDirectory, "run", ".tmp");
+                    merged.add(run);
+                    this.merge(group, run);
+                    for (Path mergedRun : group) {
+                        Files.delete(mergedRun);
+                    }
+                }
+                runs = merged;
+            }
+
+            if (runs.isEmpty()) {
+                Files.deleteIfExists(output);
+                Files.createFile(output);
+            } else {
+                copy(runs.get(0), output);
+                Files.delete(runs.get(0));
+            }
+            runs.clear();
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Reads the input file in chunks that fit in the memory budget, sorts each chunk and
+     * writes it to a new run file.
+     *
+     * @param input the file of records to sort
+     * @param runs the list to add the run files to, in the order of the input
+     */
+    @SuppressWarnings("unchecked")
+    private void createRuns(Path input, List<Path> runs) throws IOException {
+        if (Files.size(input) % this.recordSize != 0) {
+            throw new IllegalArgumentException();
+        }
+
+        // The input and the run being written each have a window of windowRecords, and
+        // each decoded record also costs its share of the sort buffer.
+        long windowBytes = Math.min(MAX_WINDOW_BYTES, this.memoryBudget / CHUNK_WINDOW_DIVISOR);
+        int windowRecords = (int) Math.max(MIN_WINDOW_RECORDS, windowBytes / this.recordSize);
+        long recordsPerRun = (this.memoryBudget - 2L * windowRecords * this.recordSize)
+                / (this.recordSize + RECORD_OVERHEAD + SORT_BUFFER_OVERHEAD);
+        recordsPerRun = Math.max(1, Math.min(recordsPerRun, Integer.MAX_VALUE - 8));
+
+        try (RunReader reader = new RunReader(input, windowRecords)) {
+            while (reader.hasNext()) {
+                int count = (int) Math.min(recordsPerRun, reader.numRecords - reader.next);
+                Object[] records = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    records[i] = reader.next();
+                }
+
+                SortingAlgorithms.timSort((T[]) records, this.comparator);
+
+                Path run = Files.createTempFile(this.temporaryDirectory, "run", ".tmp");
+                runs.add(run);
+                try (RunWriter writer = new RunWriter(run, windowRecords)) {
+                    for (Object record : records) {
+                        writer.write((T) record);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how many runs can be merged at once, given that each run being read and
+     * the output being written need a window of at least MIN_WINDOW_RECORDS records.
+     */
+    private int maxFanIn() {
+        long windows = this.memoryBudget / ((long) MIN_WINDOW_RECORDS * (this.recordSize + RECORD_OVERHEAD));
+        return (int) Math.max(2, Math.min(Integer.MAX_VALUE, windows - 1));
+    }
+
+    /**
+     * Returns the number of records read or written by each window when merging the
+     * given number of runs, sharing the budget between the runs and the output.
+     */
+    private int windowRecords(int numRuns) {
+        long records = this.memoryBudget / ((long) (numRuns + 1) * (this.recordSize + RECORD_OVERHEAD));
+        return (int) Math.max(1, Math.min(records, MAX_WINDOW_BYTES / this.recordSize));
+    }
+
+    /**
+     * Merges the given sorted runs into a single sorted run in the output file.
+     *
+     * @param runs the runs to merge, in the order of the input
+     * @param output the file to write the merged run to
+     */
+    private void merge(List<Path> runs, Path output) throws IOException {
+        int windowRecords = this.windowRecords(runs.size());
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            long total = 0;
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run, windowRecords);
+                readers.add(reader);
+                total += reader.numRecords;
+            }
+
+            LoserTree tree = new LoserTree(readers);
+            try (RunWriter writer = new RunWriter(output, windowRecords)) {
+                for (long i = 0; i < total; i++) {
+                    writer.write(tree.pop());
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Copies the source file to the target file through a FileChannel.
+     */
+    private static void copy(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    /**
+     * Reads the records of a run in order through a memory-mapped window that is moved
+     * along the file as the records are used up.
+     */
+    private class RunReader implements Closeable {
+        private final FileChannel channel;
+        private final long numRecords;
+        private final int windowRecords;
+        private MappedByteBuffer window;
+        /* The index of the first record in the window and the next record to read. */
+        private long windowStart;
+        private long next;
+
+        RunReader(Path run, int windowRecords) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.numRecords = this.channel.size() / recordSize;
+            this.windowRecords = windowRecords;
+            this.windowStart = 0;
+            this.next = 0;
+        }
+
+        boolean hasNext() {
+            return this.next < this.numRecords;
+        }
+
+        T next() throws IOException {
+            if (this.window == null || this.next - this.windowStart == this.windowRecords) {
+                this.windowStart = this.next;
+                long count = Math.min(this.windowRecords, this.numRecords - this.windowStart);
+                this.window = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                        this.windowStart * recordSize, count * recordSize);
+            }
+
+            T record = codec.decode(this.window, (int) (this.next - this.windowStart) * recordSize);
+            this.next++;
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Writes records one after another into a file through a memory-mapped window that
+     * is moved along the file as it fills up.
+     */
+    private class RunWriter implements Closeable {
+        private final FileChannel channel;
+        private final int windowRecords;
+        private MappedByteBuffer window;
+        /* The index of the first record in the window and the number written so far. */
+        private long windowStart;
+        private long written;
+
+        RunWriter(Path run, int windowRecords) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.windowRecords = windowRecords;
+            this.windowStart = 0;
+            this.written = 0;
+        }
+
+        void write(T record) throws IOException {
+            if (this.window == null || this.written - this.windowStart == this.windowRecords) {
+                this.windowStart = this.written;
+                this.window = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                        this.windowStart * recordSize, (long) this.windowRecords * recordSize);
+            }
+
+            codec.encode(record, this.window, (int) (this.written - this.windowStart) * recordSize);
+            this.written++;
+        }
+
+        /**
+         * Trims the space mapped past the last record and closes the file.
+         */
+        @Override
+        public void close() throws IOException {
+            this.window = null;
+            this.channel.truncate(this.written * recordSize);
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Selects the smallest of the next records of several runs with log k comparisons
+     * per record, where k is the number of runs.
+     *
+     * Each internal node of the tree stores the run that lost the comparison played
+     * there, and tree[0] stores the overall winner. When the winner's run moves on to its
+     * next record, only the comparisons on the path from its leaf to the root have to be
+     * replayed, against the losers stored along it. Ties are won by the earlier run, so
+     * records with equal keys come out in the order of the input.
+     */
+    private class LoserTree {
+        private final List<RunReader> runs;
+        /* The current record of each run, or null once a run is exhausted. */
+        private final Object[] heads;
+        private final int[] tree;
+
+        LoserTree(List<RunReader> runs) throws IOException {
+            int k = runs.size();
+            this.runs = runs;
+            this.heads = new Object[k];
+            this.tree = new int[k];
+            for (int i = 0; i < k; i++) {
+                this.heads[i] = runs.get(i).hasNext() ? runs.get(i).next() : null;
+            }
+
+            // Play every match bottom up. The leaves are nodes k to 2k - 1 of the tree.
+            int[] winners = new int[2 * k];
+            for (int i = 0; i < k; i++) {
+                winners[k + i] = i;
+            }
+            for (int node = k - 1; node >= 1; node--) {
+                int left = winners[2 * node];
+                int right = winners[2 * node + 1];
+                if (this.beats(left, right)) {
+                    winners[node] = left;
+                    this.tree[node] = right;
+                } else {
+                    winners[node] = right;
+                    this.tree[node] = left;
+                }
+            }
+            this.tree[0] = k == 1 ? 0 : winners[1];
+        }
+
+        /**
+         * Returns whether the current record of run a comes before that of run b.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean beats(int a, int b) {
+            if (this.heads[b] == null) {
+                return true;
+            }
+            if (this.heads[a] == null) {
+                return false;
+            }
+
+            int comparison = comparator.compare((T) this.heads[a], (T) this.heads[b]);
+            return comparison < 0 || (comparison == 0 && a < b);
+        }
+
+        /**
+         * Removes and returns the smallest current record, and replaces it with the next
+         * record of its run.
+         */
+        @SuppressWarnings("unchecked")
+        T pop() throws IOException {
+            int winner = this.tree[0];
+            T record = (T) this.heads[winner];
+            RunReader run = this.runs.get(winner);
+            this.heads[winner] = run.hasNext() ? run.next() : null;
+
+            int candidate = winner;
+            for (int node = (winner + this.heads.length) / 2; node >= 1; node /= 2) {
+                if (this.beats(this.tree[node], candidate)) {
+                    int loser = candidate;
+                    candidate = this.tree[node];
+                    this.tree[node] = loser;
+                }
+            }
+            this.tree[0] = candidate;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A collection of elements that arrive over time and can be iterated in sorted order
+ * at any time, without ever re-sorting everything that has been added.
+ *
+ * Appended elements are collected in a small buffer. When it fills, the buffer is
+ * insertion sorted into a run. The runs are kept in levels, like the levels of an
+ * LSM tree: level i is either empty or holds one sorted run of BUFFER_SIZE * 2^i
+ * elements. A new run is merged with the run in level 0, the result with the run in
+ * level 1 and so on until it reaches an empty level, like a carry through the bits of
+ * a binary counter. Merges use SortingAlgorithms.mergeRuns(), so each element is merged
+ * at most log2(n / BUFFER_SIZE) times.
+ *
+ * Iteration merges the runs and the buffer lazily, as the elements are read, rather
+ * than combining them into one array. The higher levels hold the older elements, and
+ * ties go to the older element in merges and iteration, so equal elements are
+ * iterated in the order they were added.
+ *
+ * Has an O(n) memory complexity, as each element is in exactly one run or the buffer.
+ *
+ * @param <T> Type of the elements being sorted.
+ */
+public class IncrementalSorter<T> implements Iterable<T> {
+    /* The number of appended elements collected before they are sorted into a run. */
+    private static final int BUFFER_SIZE = 32;
+    /* Enough levels to hold Integer.MAX_VALUE elements. */
+    private static final int MAX_LEVELS = Integer.SIZE - 1 - Integer.numberOfTrailingZeros(BUFFER_SIZE);
+
+    /* The order the elements are iterated in. */
+    private final Comparator<? super T> comparator;
+    /* levels[i] is null or a sorted run of BUFFER_SIZE << i elements, added before those of lower levels. */
+    private final T[][] levels;
+    /* The most recently added elements, sorted only when an iterator is created. */
+    private T[] buffer;
+    private int bufferSize;
+    /* The number of elements added since the last clear(). */
+    private int size;
+    /* The number of adds and clears so far. Used by iterators to detect modification. */
+    private int modCount;
+
+    /**
+     * Creates an empty sorter that iterates its elements in the given order.
+     *
+     * @param comparator the order to iterate the elements in
+     * @throws IllegalArgumentException if comparator is null
+     */
+    @SuppressWarnings("unchecked")
+    public IncrementalSorter(Comparator<? super T> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException();
+        }
+        this.comparator = comparator;
+        this.levels = (T[][]) new Object[MAX_LEVELS][];
+        this.buffer = (T[]) new Object[BUFFER_SIZE];
+    }
+
+    /**
+     * Adds the given element.
+     *
+     * This method has an amortized time complexity of O(log n), as each element is
+     * moved once into the buffer and then once per merge, and there are at most
+     * log2(n / BUFFER_SIZE) merges per element. A single call may take O(n) time when it
+     * merges every level.
+     *
+     * @param element the element to add
+     * @throws RuntimeException if the sorter already holds Integer.MAX_VALUE elements
+     */
+    public void add(T element) {
+        if (this.size == Integer.MAX_VALUE) {
+            throw new RuntimeException();
+        }
+        this.buffer[this.bufferSize++] = element;
+        this.size++;
+        this.modCount++;
+        if (this.bufferSize == BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Adds every element of the given iterable, in the order it iterates them.
+     *
+     * @param elements the elements to add
+     */
+    public void addAll(Iterable<? extends T> elements) {
+        for (T element : elements) {
+            add(element);
+        }
+    }
+
+    /**
+     * Sorts the full buffer into a run and carries it up through the levels, merging it
+     * with each run it meets.
+     */
+    @SuppressWarnings("unchecked")
+    private void flush() {
+        SortingAlgorithms.insertionSort(this.buffer, 0, BUFFER_SIZE, this.comparator);
+        T[] run = this.buffer;
+        this.buffer = (T[]) new Object[BUFFER_SIZE];
+        this.bufferSize = 0;
+
+        int level = 0;
+        while (this.levels[level] != null) {
+            T[] older = this.levels[level];
+            T[] merged = (T[]) new Object[older.length + run.length];
+            SortingAlgorithms.mergeRuns(older, 0, older.length, run, 0, run.length, merged, 0,
+                    this.comparator);
+            this.levels[level] = null;
+            run = merged;
+            level++;
+        }
+        this.levels[level] = run;
+    }
+
+    /**
+     * Removes every element.
+     */
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        for (int level = 0; level < MAX_LEVELS; level++) {
+            this.levels[level] = null;
+        }
+        this.buffer = (T[]) new Object[BUFFER_SIZE];
+        this.bufferSize = 0;
+        this.size = 0;
+        this.modCount++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the number of sorted runs the elements are split between, not counting
+     * the buffer. This is at most log2(n / BUFFER_SIZE) + 1.
+     */
+    int runCount() {
+        int runs = 0;
+        for (T[] run : this.levels) {
+            if (run != null) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Returns an iterator over the elements in sorted order. Equal elements are returned
+     * in the order they were added. The iterator is fail-fast: it throws a
+     * ConcurrentModificationException if the sorter is modified after it is created.
+     *
+     * Creating the iterator sorts the buffer, which takes O(BUFFER_SIZE^2) time at
+     * worst. Each call to next() has a time complexity of O(log n), as it compares the
+     * next element of every run.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        SortingAlgorithms.insertionSort(this.buffer, 0, this.bufferSize, this.comparator);
+        return new SortedIterator();
+    }
+
+    /**
+     * Merges the runs and the buffer as it is iterated.
+     */
+    private class SortedIterator implements Iterator<T> {
+        /* The runs to merge from oldest to newest, ending with the buffer. */
+        private final T[][] runs;
+        private final int[] lengths;
+        /* The index of the next element of each run. */
+        private final int[] cursors;
+        private int remaining = size;
+        private final int expectedModCount = modCount;
+
+        @SuppressWarnings("unchecked")
+        SortedIterator() {
+            int count = runCount() + 1;
+            this.runs = (T[][]) new Object[count][];
+            this.lengths = new int[count];
+            this.cursors = new int[count];
+
+            int run = 0;
+            for (int level = MAX_LEVELS - 1; level >= 0; level--) {
+                if (levels[level] != null) {
+                    this.runs[run] = levels[level];
+                    this.lengths[run] = levels[level].length;
+                    run++;
+                }
+            }
+            this.runs[run] = buffer;
+            this.lengths[run] = bufferSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            // Only a strictly smaller element replaces the current choice, so ties go to
+            // the older run.
+            int smallest = -1;
+            for (int run = 0; run < this.runs.length; run++) {
+                if (this.cursors[run] < this.lengths[run] && (smallest < 0
+                        || comparator.compare(this.runs[run][this.cursors[run]],
+                                this.runs[smallest][this.cursors[smallest]]) < 0)) {
+                    smallest = run;
+                }
+            }
+            this.remaining--;
+            return this.runs[smallest][this.cursors[smallest]++];
+        }
+    }
+}
@@ -0,0 +1,370 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A deque that records how another deque is used, for monitoring it in production.
+ *
+ * Like ReversibleDeque, it wraps a deque that must not be used externally once the
+ * InstrumentedDeque is created, and forwards every operation to it. Along the way it
+ * counts the pushes and pops at each end, the pushes rejected because the deque was
+ * full, the largest size the deque has reached and the average size weighted by the
+ * time spent at each size. snapshot() returns a copy of these metrics for export.
+ *
+ * The counters are LongAdders, so a snapshot can be taken from another thread without
+ * slowing down the thread using the deque. The deque itself is no more thread safe
+ * than the deque it wraps.
+ *
+ * To keep the cost per operation low, the clock is only read every CLOCK_INTERVAL
+ * operations that change the size. The sizes in between are averaged over the time
+ * between the two readings, as if the operations were evenly spread over it. The
+ * result is published with a single volatile write of an immutable Occupancy, so a
+ * snapshot never sees the total of one interval with the time of another.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public class InstrumentedDeque<T> implements SimpleDeque<T> {
+    /* The number of size changes between readings of the clock. */
+    private static final int CLOCK_INTERVAL = 64;
+
+    /* The deque every operation is forwarded to. */
+    private SimpleDeque<T> data;
+    /* Returns the current time in nanoseconds, System.nanoTime() unless testing. */
+    private LongSupplier clock;
+
+    /* The number of successful pushes and pops at each end. */
+    private LongAdder pushesLeft = new LongAdder();
+    private LongAdder pushesRight = new LongAdder();
+    private LongAdder popsLeft = new LongAdder();
+    private LongAdder popsRight = new LongAdder();
+    /* The number of pushes at either end that failed because the deque was full. */
+    private LongAdder rejectedPushes = new LongAdder();
+    /* The largest size of the deque so far. */
+    private LongAccumulator maxSize = new LongAccumulator(Math::max, 0);
+
+    /* The number of size changes between readings of the clock. */
+    private int clockInterval;
+    /* The time the deque was wrapped at. */
+    private long startTime;
+    /* The occupancy up to the last reading of the clock. */
+    private volatile Occupancy occupancy;
+    /*
+     * The sum of the sizes before each change since the last reading, and the number of
+     * changes. Only used by the thread using the deque.
+     */
+    private long pendingSizes;
+    private int pendingChanges;
+
+    /**
+     * Constructs a new instrumented deque that records the usage of the given deque.
+     * The data deque must not be used externally once this InstrumentedDeque is created.
+     *
+     * This constructor has an O(1) time and memory complexity.
+     *
+     * @param data the deque to record the usage of
+     */
+    public InstrumentedDeque(SimpleDeque<T> data) {
+        this(data, System::nanoTime, CLOCK_INTERVAL);
+    }
+
+    /**
+     * Constructs a new instrumented deque that reads the given clock every clockInterval
+     * size changes.
+     *
+     * This constructor has an O(1) time and memory complexity.
+     *
+     * @param data the deque to record the usage of
+     * @param clock returns the current time in nanoseconds
+     * @param clockInterval the number of size changes between readings of the clock
+     */
+    InstrumentedDeque(SimpleDeque<T> data, LongSupplier clock, int clockInterval) {
+        this.data = data;
+        this.clock = clock;
+        this.clockInterval = clockInterval;
+        this.startTime = clock.getAsLong();
+        this.occupancy = new Occupancy(this.startTime, 0);
+        this.maxSize.accumulate(data.size());
+    }
+
+    /**
+     * Returns the metrics recorded so far.
+     *
+     * The average size counts the time since the last reading of the clock as spent at
+     * the current size, so it is approximate until the next reading. When called from
+     * another thread, the counters and sizes are each up to date but may not all be
+     * from the same moment.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return a copy of the metrics that isn't affected by later operations
+     */
+    public Snapshot snapshot() {
+        Occupancy last = this.occupancy;
+        long now = this.clock.getAsLong();
+        long elapsed = now - this.startTime;
+        double occupancy = last.sizeNanos + (double) this.data.size() * (now - last.time);
+
+        return new Snapshot(this.pushesLeft.sum(), this.pushesRight.sum(), this.popsLeft.sum(),
+                this.popsRight.sum(), this.rejectedPushes.sum(), this.data.size(), this.maxSize.get(),
+                elapsed == 0 ? this.data.size() : occupancy / elapsed);
+    }
+
+    /**
+     * Records the size before a change, and every clockInterval changes reads the clock
+     * and publishes the occupancy up to now. Must be called after every operation that
+     * changes the size of the deque.
+     *
+     * @param previousSize the size of the deque before the operation
+     */
+    private void recordSizeChange(int previousSize) {
+        this.pendingSizes += previousSize;
+        if (++this.pendingChanges == this.clockInterval) {
+            long now = this.clock.getAsLong();
+            Occupancy last = this.occupancy;
+            double averageSize = (double) this.pendingSizes / this.pendingChanges;
+            this.occupancy = new Occupancy(now, last.sizeNanos + averageSize * (now - last.time));
+            this.pendingSizes = 0;
+            this.pendingChanges = 0;
+        }
+        this.maxSize.accumulate(this.data.size());
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its isEmpty() Big-O bounds.
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.data.isEmpty();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its isFull() Big-O bounds.
+     */
+    @Override
+    public boolean isFull() {
+        return this.data.isFull();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its size() Big-O bounds.
+     */
+    @Override
+    public int size() {
+        return this.data.size();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its pushLeft() Big-O bounds.
+     * Recording the push adds O(1) time.
+     */
+    @Override
+    public void pushLeft(T e) throws RuntimeException {
+        if (this.data.isFull()) {
+            this.rejectedPushes.increment();
+        }
+
+        int previousSize = this.data.size();
+        this.data.pushLeft(e);
+        this.pushesLeft.increment();
+        this.recordSizeChange(previousSize);
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its pushRight() Big-O bounds.
+     * Recording the push adds O(1) time.
+     */
+    @Override
+    public void pushRight(T e) throws RuntimeException {
+        if (this.data.isFull()) {
+            this.rejectedPushes.increment();
+        }
+
+        int previousSize = this.data.size();
+        this.data.pushRight(e);
+        this.pushesRight.increment();
+        this.recordSizeChange(previousSize);
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its peekLeft() Big-O bounds.
+     */
+    @Override
+    public T peekLeft() throws NoSuchElementException {
+        return this.data.peekLeft();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its peekRight() Big-O bounds.
+     */
+    @Override
+    public T peekRight() throws NoSuchElementException {
+        return this.data.peekRight();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its popLeft() Big-O bounds.
+     * Recording the pop adds O(1) time.
+     */
+    @Override
+    public T popLeft() throws NoSuchElementException {
+        int previousSize = this.data.size();
+        T poppedElement = this.data.popLeft();
+        this.popsLeft.increment();
+        this.recordSizeChange(previousSize);
+        return poppedElement;
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its popRight() Big-O bounds.
+     * Recording the pop adds O(1) time.
+     */
+    @Override
+    public T popRight() throws NoSuchElementException {
+        int previousSize = this.data.size();
+        T poppedElement = this.data.popRight();
+        this.popsRight.increment();
+        this.recordSizeChange(previousSize);
+        return poppedElement;
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its get() Big-O bounds.
+     */
+    @Override
+    public T get(int index) throws IndexOutOfBoundsException {
+        return this.data.get(index);
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its set() Big-O bounds.
+     */
+    @Override
+    public T set(int index, T e) throws IndexOutOfBoundsException {
+        return this.data.set(index, e);
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its iterator() Big-O bounds.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return this.data.iterator();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its reverseIterator() Big-O bounds.
+     */
+    @Override
+    public Iterator<T> reverseIterator() {
+        return this.data.reverseIterator();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its snapshotIterator() Big-O bounds.
+     */
+    @Override
+    public Iterator<T> snapshotIterator() {
+        return this.data.snapshotIterator();
+    }
+
+    /**
+     * The occupancy of the deque at a reading of the clock.
+     */
+    private static class Occupancy {
+        /* The time of the reading. */
+        private final long time;
+        /* The sum of the size of the deque times the nanoseconds spent at that size. */
+        private final double sizeNanos;
+
+        private Occupancy(long time, double sizeNanos) {
+            this.time = time;
+            this.sizeNanos = sizeNanos;
+        }
+    }
+
+    /**
+     * The metrics of an InstrumentedDeque at the time snapshot() was called.
+     */
+    public static class Snapshot {
+        private final long pushesLeft;
+        private final long pushesRight;
+        private final long popsLeft;
+        private final long popsRight;
+        private final long rejectedPushes;
+        private final int size;
+        private final long maxSize;
+        private final double averageSize;
+
+        private Snapshot(long pushesLeft, long pushesRight, long popsLeft, long popsRight,
+                long rejectedPushes, int size, long maxSize, double averageSize) {
+            this.pushesLeft = pushesLeft;
+            this.pushesRight = pushesRight;
+            this.popsLeft = popsLeft;
+            this.popsRight = popsRight;
+            this.rejectedPushes = rejectedPushes;
+            this.size = size;
+            this.maxSize = maxSize;
+            this.averageSize = averageSize;
+        }
+
+        public long getPushesLeft() {
+            return this.pushesLeft;
+        }
+
+        public long getPushesRight() {
+            return this.pushesRight;
+        }
+
+        public long getPopsLeft() {
+            return this.popsLeft;
+        }
+
+        public long getPopsRight() {
+            return this.popsRight;
+        }
+
+        public long getRejectedPushes() {
+            return this.rejectedPushes;
+        }
+
+        public int getSize() {
+            return this.size;
+        }
+
+        public long getMaxSize() {
+            return this.maxSize;
+        }
+
+        /**
+         * Returns the average size of the deque, weighted by the time spent at each size
+         * since the deque was wrapped.
+         */
+        public double getAverageSize() {
+            return this.averageSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pushesLeft=%d pushesRight=%d popsLeft=%d popsRight=%d "
+                    + "rejectedPushes=%d size=%d maxSize=%d averageSize=%.2f",
+                    this.pushesLeft, this.pushesRight, this.popsLeft, this.popsRight,
+                    this.rejectedPushes, this.size, this.maxSize, this.averageSize);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * An array based deque of primitive ints with a fixed capacity.
+ *
+ * This uses the same circular buffer layout as SimpleArrayDeque but stores the
+ * elements in an int[] rather than an Object[], so no element is ever boxed.
+ * It has an O(n) memory complexity where n is the capacity of the deque.
+ */
+public class IntArrayDeque implements SimpleIntDeque {
+    /* The array used to store the elements of the deque. */
+    private int[] deque;
+    /* The positions of the leftmost and rightmost elements in the deque. */
+    private int leftIndex;
+    private int rightIndex;
+    /* The maximum number of items that can be stored in the deque. */
+    private int capacity;
+    /* The current number of items in the deque. */
+    private int numItems;
+
+    /**
+     * Constructs a new array based deque with limited capacity.
+     *
+     * This constructor has an O(n) time and memory complexity where n is
+     * the capacity of the deque as an int[] of length n is allocated.
+     *
+     * @param capacity the capacity
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public IntArrayDeque(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        // These values are used to make sure the first element pushed from either side is pushed
+        // to the same element in the deque array. The right index wraps so that a capacity of
+        // one still starts with both indices inside the array.
+        this.leftIndex = capacity/2;
+        this.rightIndex = (this.leftIndex == 0) ? capacity - 1 : this.leftIndex - 1;
+
+        this.capacity = capacity;
+        this.numItems = 0;
+        this.deque = new int[capacity];
+    }
+
+    /**
+     * Constructs a new array based deque with limited capacity, and initially populates the deque
+     * with the elements of another SimpleIntDeque.
+     *
+     * This has an O(n) time and memory complexity where n is the capacity.
+     *
+     * @param otherDeque the other deque to copy elements from. otherDeque should be left intact.
+     * @param capacity the capacity
+     * @throws IllegalArgumentException if capacity <= 0 or size of otherDeque is > capacity
+     */
+    public IntArrayDeque(int capacity, SimpleIntDeque otherDeque) throws IllegalArgumentException {
+        this(capacity);
+        if (otherDeque.size() > capacity) {
+            throw new IllegalArgumentException();
+        }
+
+        this.pushAllRight(otherDeque.toArray());
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.numItems == 0;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public boolean isFull() {
+        return this.numItems >= this.capacity;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public int size() {
+        return this.numItems;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1) for the same
+     * reasons as SimpleArrayDeque.pushLeft().
+     */
+    @Override
+    public void pushLeft(int e) throws RuntimeException {
+        if (this.isFull()) {
+            throw new RuntimeException();
+        }
+
+        if (this.leftIndex == 0) {
+            this.leftIndex = this.capacity - 1;
+        } else {
+            this.leftIndex--;
+        }
+
+        this.deque[this.leftIndex] = e;
+        this.numItems++;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1) for the same
+     * reasons as SimpleArrayDeque.pushRight().
+     */
+    @Override
+    public void pushRight(int e) throws RuntimeException {
+        if (this.isFull()) {
+            throw new RuntimeException();
+        }
+
+        if (this.rightIndex == this.capacity - 1) {
+            this.rightIndex = 0;
+        } else {
+            this.rightIndex++;
+        }
+
+        this.deque[this.rightIndex] = e;
+        this.numItems++;
+    }
+
+    /**
+     * This method has a time complexity of O(m) where m is the number of values
+     * pushed. The values end up in reverse order in the array so they are written
+     * one at a time. Memory complexity is O(1).
+     */
+    @Override
+    public void pushAllLeft(int[] values) throws RuntimeException {
+        if (values.length > this.capacity - this.numItems) {
+            throw new RuntimeException();
+        }
+
+        int index = this.leftIndex;
+        for (int value : values) {
+            index = (index == 0) ? this.capacity - 1 : index - 1;
+            this.deque[index] = value;
+        }
+
+        this.leftIndex = index;
+        this.numItems += values.length;
+    }
+
+    /**
+     * This method has a time complexity of O(m) where m is the number of values
+     * pushed. The values are copied into the circular buffer with at most two calls
+     * to System.arraycopy, one for each side of the wrap-around point. Memory
+     * complexity is O(1).
+     */
+    @Override
+    public void pushAllRight(int[] values) throws RuntimeException {
+        if (values.length > this.capacity - this.numItems) {
+            throw new RuntimeException();
+        }
+
+        if (values.length == 0) {
+            return;
+        }
+
+        int start = (this.rightIndex == this.capacity - 1) ? 0 : this.rightIndex + 1;
+        int firstSegment = Math.min(values.length, this.capacity - start);
+        System.arraycopy(values, 0, this.deque, start, firstSegment);
+        System.arraycopy(values, firstSegment, this.deque, 0, values.length - firstSegment);
+
+        this.rightIndex = (start + values.length - 1) % this.capacity;
+        this.numItems += values.length;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public int peekLeft() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.deque[this.leftIndex];
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public int peekRight() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.deque[this.rightIndex];
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public int popLeft() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        int poppedElement = this.deque[this.leftIndex];
+        if (this.leftIndex == this.capacity - 1) {
+            this.leftIndex = 0;
+        } else {
+            this.leftIndex++;
+        }
+
+        this.numItems--;
+        return poppedElement;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public int popRight() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        int poppedElement = this.deque[this.rightIndex];
+        if (this.rightIndex == 0) {
+            this.rightIndex = this.capacity - 1;
+        } else {
+            this.rightIndex--;
+        }
+
+        this.numItems--;
+        return poppedElement;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(n) where n is the number
+     * of items in the deque. At most two calls to System.arraycopy are made.
+     */
+    @Override
+    public int[] toArray() {
+        int[] result = new int[this.numItems];
+        int firstSegment = Math.min(this.numItems, this.capacity - this.leftIndex);
+        System.arraycopy(this.deque, this.leftIndex, result, 0, firstSegment);
+        System.arraycopy(this.deque, 0, result, firstSegment, this.numItems - firstSegment);
+        return result;
+    }
+
+    /**
+     * This method has both time and memory complexity O(1).
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int currentIndex = leftIndex;
+            private int remaining = numItems;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                int next = deque[currentIndex];
+                currentIndex = (currentIndex == capacity - 1) ? 0 : currentIndex + 1;
+                remaining--;
+                return next;
+            }
+        };
+    }
+
+    /**
+     * This method has both time and memory complexity O(1).
+     */
+    @Override
+    public PrimitiveIterator.OfInt reverseIterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int currentIndex = rightIndex;
+            private int remaining = numItems;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                int next = deque[currentIndex];
+                currentIndex = (currentIndex == 0) ? capacity - 1 : currentIndex - 1;
+                remaining--;
+                return next;
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * The building blocks SortingAlgorithms.vectorQuickSort() sorts int arrays with.
+ *
+ * The implementation in simd/ uses the incubating Vector API, which needs
+ * --add-modules jdk.incubator.vector at compile and run time. It is kept out of src/
+ * so that the rest of the project builds without the module. SortingAlgorithms loads
+ * it by name and uses the scalar sorts when it can't.
+ */
+interface IntSortKernels {
+    /**
+     * Returns the largest range sortBlock() sorts.
+     */
+    int blockSize();
+
+    /**
+     * Partitions the range [leftBound, rightBound) of the given array into the elements
+     * less than the pivot followed by the rest, keeping the order of both parts. When
+     * inclusive, the elements equal to the pivot go in the first part.
+     *
+     * @param input Array to partition
+     * @param leftBound Index to start partitioning from
+     * @param rightBound Index to partition until
+     * @param pivot Value to partition around
+     * @param inclusive If true, elements equal to the pivot go in the first part
+     * @param buffer Scratch space of at least rightBound - leftBound elements
+     * @return the index of the first element of the second part
+     */
+    int partition(int[] input, int leftBound, int rightBound, int pivot, boolean inclusive,
+            int[] buffer);
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array in ascending order.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until, at most blockSize() after leftBound
+     * @param buffer Scratch space of at least blockSize() elements
+     */
+    void sortBlock(int[] input, int leftBound, int rightBound, int[] buffer);
+}
@@ -0,0 +1,402 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A deque of fixed-width records stored off-heap in a memory-mapped file.
+ *
+ * The records are kept in the same kind of circular buffer as SimpleArrayDeque, but
+ * the buffer lives in the file rather than in an Object[]. Only the mapped buffers and
+ * a handful of counters are stored on the heap, so the heap usage is O(1) with respect
+ * to both the capacity and the number of items in the deque. The position of the
+ * leftmost element and the number of items are stored in a header at the start of
+ * the file, so reopening the same file restores the deque.
+ *
+ * Files larger than 2GB are supported by mapping the data in several segments, each
+ * holding a whole number of records.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public class MappedRecordDeque<T> implements SimpleDeque<T>, Closeable {
+    /* Identifies a file created by a MappedRecordDeque. */
+    private static final int MAGIC = 0x52444551;
+    /* Layout of the header at the start of the file. */
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int RECORD_SIZE_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int LEFT_INDEX_OFFSET = 12;
+    private static final int NUM_ITEMS_OFFSET = 16;
+    /* The largest number of bytes mapped by a single segment. */
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+    /* The file channel the deque is mapped from. */
+    private FileChannel channel;
+    /* Encodes and decodes the elements of the deque. */
+    private RecordCodec<T> codec;
+    /* The mapped header storing the state of the deque. */
+    private MappedByteBuffer header;
+    /* The mapped segments storing the records of the deque. */
+    private MappedByteBuffer[] segments;
+    /* The number of bytes in each record and the number of records in each segment. */
+    private int recordSize;
+    private int recordsPerSegment;
+
+    /* The position of the leftmost element in the circular buffer. */
+    private int leftIndex;
+    /* The maximum number of items that can be stored in the deque. */
+    private int capacity;
+    /* The current number of items in the deque. */
+    private int numItems;
+    /* The number of pushes and pops so far. Used by iterators to detect modification. */
+    private int modCount;
+
+    /**
+     * Opens the deque stored in the given file, creating the file if it doesn't exist yet.
+     * If the file already stores a deque, its elements are restored.
+     *
+     * This constructor has an O(1) heap memory complexity. Creating a new file reserves
+     * capacity * recordSize bytes on disk.
+     *
+     * @param file the file to store the deque in
+     * @param capacity the capacity
+     * @param codec the codec used to convert elements to and from records
+     * @throws IllegalArgumentException if capacity <= 0 or the file stores a deque with a
+     *      different capacity or record size
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public MappedRecordDeque(Path file, int capacity, RecordCodec<T> codec)
+            throws IllegalArgumentException, IOException {
+        if (capacity <= 0 || codec.recordSize() <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.codec = codec;
+        this.capacity = capacity;
+        this.recordSize = codec.recordSize();
+        this.recordsPerSegment = Math.max(1, MAX_SEGMENT_BYTES / this.recordSize);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            boolean existing = this.channel.size() > 0;
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (existing) {
+                this.restoreHeader();
+            } else {
+                this.leftIndex = 0;
+                this.numItems = 0;
+                this.header.putInt(RECORD_SIZE_OFFSET, this.recordSize);
+                this.header.putInt(CAPACITY_OFFSET, this.capacity);
+                this.writeHeader();
+                this.header.putInt(MAGIC_OFFSET, MAGIC);
+            }
+
+            this.mapSegments();
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the state of the deque from a previously created file.
+     *
+     * @throws IllegalArgumentException if the file doesn't match this deque
+     */
+    private void restoreHeader() throws IllegalArgumentException {
+        if (this.header.getInt(MAGIC_OFFSET) != MAGIC
+                || this.header.getInt(RECORD_SIZE_OFFSET) != this.recordSize
+                || this.header.getInt(CAPACITY_OFFSET) != this.capacity) {
+            throw new IllegalArgumentException();
+        }
+
+        this.leftIndex = this.header.getInt(LEFT_INDEX_OFFSET);
+        this.numItems = this.header.getInt(NUM_ITEMS_OFFSET);
+    }
+
+    /**
+     * Maps the data section of the file into segments of at most MAX_SEGMENT_BYTES.
+     *
+     * @throws IOException if a segment can't be mapped
+     */
+    private void mapSegments() throws IOException {
+        int numSegments = (int) (((long) this.capacity + this.recordsPerSegment - 1)
+                / this.recordsPerSegment);
+        this.segments = new MappedByteBuffer[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            long firstRecord = (long) i * this.recordsPerSegment;
+            long records = Math.min(this.recordsPerSegment, this.capacity - firstRecord);
+            this.segments[i] = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + firstRecord * this.recordSize, records * this.recordSize);
+        }
+    }
+
+    /**
+     * Stores the position of the leftmost element and the number of items in the header.
+     * This is only a write to mapped memory, so it takes O(1) time.
+     */
+    private void writeHeader() {
+        this.header.putInt(LEFT_INDEX_OFFSET, this.leftIndex);
+        this.header.putInt(NUM_ITEMS_OFFSET, this.numItems);
+    }
+
+    /**
+     * Flushes every change made to the deque to the underlying file.
+     *
+     * @throws IOException if the file can't be written to
+     */
+    public void force() throws IOException {
+        for (MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+        this.header.force();
+    }
+
+    /**
+     * Flushes the deque to its file and closes the file. The deque must not be used
+     * once it has been closed.
+     *
+     * @throws IOException if the file can't be written to or closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.force();
+        this.channel.close();
+    }
+
+    /**
+     * Converts a position in the circular buffer into the slot it is stored in and
+     * reads the record stored there.
+     */
+    private T readSlot(int slot) {
+        return this.codec.decode(this.segments[slot / this.recordsPerSegment],
+                (slot % this.recordsPerSegment) * this.recordSize);
+    }
+
+    /**
+     * Encodes the given element into the given slot of the circular buffer.
+     */
+    private void writeSlot(int slot, T e) {
+        this.codec.encode(e, this.segments[slot / this.recordsPerSegment],
+                (slot % this.recordsPerSegment) * this.recordSize);
+    }
+
+    /**
+     * Returns the slot in the circular buffer that is the given distance to the right
+     * of the leftmost element.
+     */
+    private int slotAt(int index) {
+        int slot = this.leftIndex + index;
+        if (slot >= this.capacity || slot < 0) {
+            slot -= this.capacity;
+        }
+        return slot;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.numItems == 0;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public boolean isFull() {
+        return this.numItems >= this.capacity;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public int size() {
+        return this.numItems;
+    }
+
+    /**
+     * This method has a time complexity of O(1) as a single record is encoded into
+     * the mapped file. Memory complexity is also O(1).
+     */
+    @Override
+    public void pushLeft(T e) throws RuntimeException {
+        if (this.isFull()) {
+            throw new RuntimeException();
+        }
+
+        int slot = (this.leftIndex == 0) ? this.capacity - 1 : this.leftIndex - 1;
+        this.writeSlot(slot, e);
+        this.leftIndex = slot;
+        this.numItems++;
+        this.modCount++;
+        this.writeHeader();
+    }
+
+    /**
+     * This method has a time complexity of O(1) as a single record is encoded into
+     * the mapped file. Memory complexity is also O(1).
+     */
+    @Override
+    public void pushRight(T e) throws RuntimeException {
+        if (this.isFull()) {
+            throw new RuntimeException();
+        }
+
+        this.writeSlot(this.slotAt(this.numItems), e);
+        this.numItems++;
+        this.modCount++;
+        this.writeHeader();
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T peekLeft() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.readSlot(this.leftIndex);
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T peekRight() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.readSlot(this.slotAt(this.numItems - 1));
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T popLeft() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        T poppedElement = this.readSlot(this.leftIndex);
+        this.leftIndex = (this.leftIndex == this.capacity - 1) ? 0 : this.leftIndex + 1;
+        this.numItems--;
+        this.modCount++;
+        this.writeHeader();
+        return poppedElement;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T popRight() throws NoSuchElementException {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        T poppedElement = this.readSlot(this.slotAt(this.numItems - 1));
+        this.numItems--;
+        this.modCount++;
+        this.writeHeader();
+        return poppedElement;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T get(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.numItems) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return this.readSlot(this.slotAt(index));
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T set(int index, T e) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.numItems) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int slot = this.slotAt(index);
+        T previous = this.readSlot(slot);
+        this.writeSlot(slot, e);
+        return previous;
+    }
+
+    /**
+     * This method has both time and memory complexity O(1). Records are only
+     * decoded as the iterator reaches them.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int index = 0;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return index < numItems;
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return readSlot(slotAt(index++));
+            }
+        };
+    }
+
+    /**
+     * This method has both time and memory complexity O(1). Records are only
+     * decoded as the iterator reaches them.
+     */
+    @Override
+    public Iterator<T> reverseIterator() {
+        return new Iterator<T>() {
+            private int index = numItems - 1;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return index >= 0;
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return readSlot(slotAt(index--));
+            }
+        };
+    }
+}
@@ -0,0 +1,301 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A bounded queue for many producer threads feeding a single consumer thread.
+ *
+ * The elements are stored in a circular array like SimpleArrayDeque, but rather than
+ * taking a lock, producers claim a slot by advancing the tail counter with a
+ * compare-and-set. Each slot has a sequence number which tells the owner of the slot
+ * whether it is free to write (producers) or holds a published element (the consumer).
+ * The head and tail counters only ever increase, and are mapped onto the array by
+ * masking, so the capacity is always rounded up to a power of two.
+ *
+ * The head and tail counters are separated by padding fields declared in the
+ * superclasses below, so that producers updating the tail and the consumer updating
+ * the head don't keep invalidating each other's cache line.
+ *
+ * Only the producer side is thread safe for multiple threads. offer() and pushRight()
+ * may be called from any thread, but poll(), popLeft() and drain() must only ever be
+ * called from one thread at a time.
+ *
+ * @param <T> Element stored inside this queue.
+ */
+public class MpscRingQueue<T> extends MpscRingQueuePaddedHead {
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /* The elements of the queue. A slot is only read after its sequence is published. */
+    private final Object[] buffer;
+    /*
+     * The sequence number of each slot. A slot at index i is free for the producer
+     * claiming tail position t when its sequence is t, and holds the element for head
+     * position h when its sequence is h + 1.
+     */
+    private final long[] sequences;
+    /* capacity - 1, used to map a head or tail position onto a slot. */
+    private final int mask;
+
+    /**
+     * Constructs a new queue that can hold at least the given number of elements.
+     *
+     * This constructor has an O(n) time and memory complexity where n is the capacity
+     * rounded up to the next power of two, and to at least two.
+     *
+     * @param capacity the minimum capacity
+     * @throws IllegalArgumentException if capacity <= 0 or capacity > 2^30
+     */
+    public MpscRingQueue(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException();
+        }
+
+        // At least two slots are needed, otherwise the sequence of a published element
+        // (h + 1) would equal the sequence of a free slot for the next tail position.
+        int roundedCapacity = Math.max(2, Integer.highestOneBit(capacity));
+        if (roundedCapacity < capacity) {
+            roundedCapacity <<= 1;
+        }
+
+        this.buffer = new Object[roundedCapacity];
+        this.sequences = new long[roundedCapacity];
+        this.mask = roundedCapacity - 1;
+        for (int i = 0; i < roundedCapacity; i++) {
+            this.sequences[i] = i;
+        }
+        // Publish the initial sequences before the queue is shared with other threads.
+        VarHandle.releaseFence();
+    }
+
+    /**
+     * Returns the maximum number of elements the queue can hold.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the capacity of the queue
+     */
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * Returns the number of elements in the queue. When producers or the consumer
+     * are running concurrently this is only an estimate.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        long head = (long) HEAD.getVolatile(this);
+        long tail = (long) TAIL.getVolatile(this);
+        long size = tail - head;
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, this.buffer.length);
+    }
+
+    /**
+     * Returns whether the queue is empty. When producers or the consumer are running
+     * concurrently this is only an estimate.
+     *
+     * @return true if the queue is empty, otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Adds an element to the tail of the queue if there is space for it. Safe to call
+     * from any number of threads.
+     *
+     * This method is lock-free and has an O(1) time complexity when uncontended. A
+     * producer only has to retry when another producer claimed the same slot first.
+     * Memory complexity is O(1).
+     *
+     * @param e Element to add
+     * @return true if the element was added, false if the queue was full
+     * @throws NullPointerException if e is null
+     */
+    public boolean offer(T e) throws NullPointerException {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+
+        long tail;
+        int index;
+        while (true) {
+            tail = (long) TAIL.getVolatile(this);
+            index = (int) tail & this.mask;
+            long difference = (long) SEQUENCE.getAcquire(this.sequences, index) - tail;
+            if (difference == 0) {
+                if (TAIL.compareAndSet(this, tail, tail + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                // The consumer hasn't freed this slot since the previous lap.
+                return false;
+            }
+            // Otherwise another producer has already claimed this position, so retry.
+        }
+
+        this.buffer[index] = e;
+        SEQUENCE.setRelease(this.sequences, index, tail + 1);
+        return true;
+    }
+
+    /**
+     * Adds an element to the tail of the queue. Safe to call from any number of threads.
+     *
+     * This method has the same complexity as offer().
+     *
+     * @param e Element to add
+     * @throws RuntimeException if the queue is full
+     * @throws NullPointerException if e is null
+     */
+    public void pushRight(T e) throws RuntimeException {
+        if (!this.offer(e)) {
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue. Must only be called
+     * by the consumer thread.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the element at the head, or null if no element has been published
+     */
+    public T poll() {
+        long head = (long) HEAD.get(this);
+        T element = this.take(head);
+        if (element != null) {
+            HEAD.setRelease(this, head + 1);
+        }
+        return element;
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue. Must only be called
+     * by the consumer thread.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the element at the head
+     * @throws NoSuchElementException if no element has been published
+     */
+    public T popLeft() throws NoSuchElementException {
+        T element = this.poll();
+        if (element == null) {
+            throw new NoSuchElementException();
+        }
+        return element;
+    }
+
+    /**
+     * Removes up to limit elements from the head of the queue, passing each of them to
+     * the given consumer in order. Must only be called by the consumer thread.
+     *
+     * The head counter is only published once for the whole batch, so draining is
+     * cheaper per element than calling poll() repeatedly. If the consumer throws, the
+     * element it was passed counts as removed, and the head is published for it and
+     * every element before it before the exception propagates.
+     *
+     * This method has a time complexity of O(m) where m is the number of elements
+     * drained, ignoring the cost of the consumer. Memory complexity is O(1).
+     *
+     * @param consumer called with each element removed from the queue
+     * @param limit the maximum number of elements to remove
+     * @return the number of elements removed
+     */
+    public int drain(Consumer<? super T> consumer, int limit) {
+        long head = (long) HEAD.get(this);
+        // take() has already freed the slot when the consumer runs, so the head must
+        // be published for every slot taken, even if the consumer throws.
+        int drained = 0;
+        try {
+            while (drained < limit) {
+                T element = this.take(head + drained);
+                if (element == null) {
+                    break;
+                }
+                drained++;
+                consumer.accept(element);
+            }
+        } finally {
+            if (drained > 0) {
+                HEAD.setRelease(this, head + drained);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Takes the element for the given head position out of its slot and frees the slot
+     * for the producers of the next lap.
+     *
+     * @param head the head position to take the element from
+     * @return the element, or null if it hasn't been published yet
+     */
+    @SuppressWarnings("unchecked")
+    private T take(long head) {
+        int index = (int) head & this.mask;
+        if ((long) SEQUENCE.getAcquire(this.sequences, index) != head + 1) {
+            return null;
+        }
+
+        T element = (T) this.buffer[index];
+        this.buffer[index] = null;
+        SEQUENCE.setRelease(this.sequences, index, head + this.buffer.length);
+        return element;
+    }
+}
+
+/* Padding before the tail counter, so it doesn't share a cache line with the object header. */
+abstract class MpscRingQueuePad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+}
+
+/* The tail counter, claimed by producers with a compare-and-set. */
+abstract class MpscRingQueueTail extends MpscRingQueuePad0 {
+    static final VarHandle TAIL;
+    static {
+        try {
+            TAIL = MethodHandles.lookup().findVarHandle(MpscRingQueueTail.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    volatile long tail;
+}
+
+/* Padding between the tail and head counters. */
+abstract class MpscRingQueuePad1 extends MpscRingQueueTail {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+    long p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+}
+
+/* The head counter, only written by the consumer. */
+abstract class MpscRingQueueHead extends MpscRingQueuePad1 {
+    static final VarHandle HEAD;
+    static {
+        try {
+            HEAD = MethodHandles.lookup().findVarHandle(MpscRingQueueHead.class, "head", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    volatile long head;
+}
+
+/* Padding after the head counter, so it doesn't share a cache line with the fields below. */
+abstract class MpscRingQueuePaddedHead extends MpscRingQueueHead {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p28, p29, p2a, p2b, p2c, p2d, p2e, p2f;
+}
@@ -0,0 +1,39 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values to and from fixed-width binary records.
+ *
+ * Every record produced by a codec must be exactly recordSize() bytes long so that
+ * records can be addressed directly by their index in a file or buffer.
+ *
+ * @param <T> Type of the value stored in each record.
+ */
+public interface RecordCodec<T> {
+    /**
+     * Returns the number of bytes used by every record.
+     *
+     * @return the size of a record in bytes, always > 0.
+     */
+    int recordSize();
+
+    /**
+     * Writes the given value into the buffer as a record starting at the given offset.
+     * Exactly recordSize() bytes from the offset should be written. The position of
+     * the buffer must not be changed.
+     *
+     * @param value Value to encode
+     * @param buffer Buffer to write the record into
+     * @param offset Absolute index in the buffer of the first byte of the record
+     */
+    void encode(T value, ByteBuffer buffer, int offset);
+
+    /**
+     * Reads the record starting at the given offset in the buffer. The position of
+     * the buffer must not be changed.
+     *
+     * @param buffer Buffer to read the record from
+     * @param offset Absolute index in the buffer of the first byte of the record
+     * @return The decoded value
+     */
+    T decode(ByteBuffer buffer, int offset);
+}
@@ -4,20 +4,23 @@ import java.util.NoSuchElementException;
 public class ReversibleDeque<T> implements SimpleDeque<T> {
     /**
      * The deque provided to be used as an internal representation of the data.
-     * All implemented methods call methods of this deque.
+     * This is also the view used when the deque faces forwards.
      */
     private SimpleDeque<T> data;
 
     /**
-     * The current direction the deque is facing. This controls which side should
-     * be popped, pushed and peeked from. That is, peekLeft on a ReversibleDeque
-     * with direction = BACKWARDS becomes a peekRight on the internal data deque.
+     * A view of the data deque with left and right swapped. That is, peekLeft on
+     * this view is a peekRight on the internal data deque.
      */
-    private int direction;
-    /* Represents when the deque faces forwards as an integer state */
-    private final int FORWARDS = 0;
-    /* Represents when the deque faces forwards as an integer state */
-    private final int BACKWARDS = 1;
+    private SimpleDeque<T> reversed;
+
+    /**
+     * The view matching the direction the deque currently faces, either data or
+     * reversed. Every operation is a single call on this view, so no operation has
+     * to branch on the direction, and the call site only ever sees the two classes
+     * of the prebuilt views, which the JIT can inline.
+     */
+    private SimpleDeque<T> view;
 
     /**
      * Constructs a new reversible deque, using the given data deque to store
@@ -26,14 +29,14 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      * is created.
      *
      * This constructor has an O(1) time complexity and O(1) memory
-     * complexity as two allocation operations always run and no
-     * new memory is allocated.
+     * complexity as only the reversed view is allocated.
      *
      * @param data a deque to store elements in.
      */
     public ReversibleDeque(SimpleDeque<T> data) {
         this.data = data;
-        this.direction = FORWARDS; // Starting direction is forwards.
+        this.reversed = new ReversedView<>(data);
+        this.view = data; // Starting direction is forwards.
     }
 
     /**
@@ -46,15 +49,14 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      * ending back in its initial orientation.
      *
      * This method has an O(1) time complexity and memory complexity
-     * as the number of operations performed is only dependent on
-     * the current orientation of the deque and no new memory is
-     * ever allocated.
+     * as it only swaps which of the two prebuilt views is used and no
+     * new memory is ever allocated.
      */
     public void reverse() {
-        if (this.direction == FORWARDS) {
-            this.direction = BACKWARDS;
-        } else if (this.direction == BACKWARDS) {
-            this.direction = FORWARDS;
+        if (this.view == this.data) {
+            this.view = this.reversed;
+        } else {
+            this.view = this.data;
         }
     }
 
@@ -95,11 +97,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public void pushLeft(T e) throws RuntimeException {
-        if (this.direction == FORWARDS) {
-            this.data.pushLeft(e);
-        } else {
-            this.data.pushRight(e);
-        }
+        this.view.pushLeft(e);
     }
 
     /**
@@ -109,11 +107,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public void pushRight(T e) throws RuntimeException {
-        if (this.direction == FORWARDS) {
-            this.data.pushRight(e);
-        } else {
-            this.data.pushLeft(e);
-        }
+        this.view.pushRight(e);
     }
 
     /**
@@ -123,11 +117,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public T peekLeft() throws NoSuchElementException {
-        if (this.direction == FORWARDS) {
-            return this.data.peekLeft();
-        } else {
-            return this.data.peekRight();
-        }
+        return this.view.peekLeft();
     }
 
     /**
@@ -137,11 +127,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public T peekRight() throws NoSuchElementException {
-        if (this.direction == FORWARDS) {
-            return this.data.peekRight();
-        } else {
-            return this.data.peekLeft();
-        }
+        return this.view.peekRight();
     }
 
     /**
@@ -151,11 +137,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public T popLeft() throws NoSuchElementException {
-        if (this.direction == FORWARDS) {
-            return this.data.popLeft();
-        } else {
-            return this.data.popRight();
-        }
+        return this.view.popLeft();
     }
 
     /**
@@ -165,11 +147,29 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public T popRight() throws NoSuchElementException {
-        if (this.direction == FORWARDS) {
-            return this.data.popRight();
-        } else {
-            return this.data.popLeft();
-        }
+        return this.view.popRight();
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its get() Big-O bounds.
+     * When the deque faces backwards the index is counted from the other end
+     * of the wrapped deque.
+     */
+    @Override
+    public T get(int index) throws IndexOutOfBoundsException {
+        return this.view.get(index);
+    }
+
+    /**
+     * The time and memory complexity of this method is dependent on the
+     * specific implementation of SimpleDeque used and its set() Big-O bounds.
+     * When the deque faces backwards the index is counted from the other end
+     * of the wrapped deque.
+     */
+    @Override
+    public T set(int index, T e) throws IndexOutOfBoundsException {
+        return this.view.set(index, e);
     }
 
     /**
@@ -179,11 +179,7 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public Iterator<T> iterator() {
-        if (this.direction == FORWARDS) {
-            return this.data.iterator();
-        } else {
-            return this.data.reverseIterator();
-        }
+        return this.view.iterator();
     }
 
     /**
@@ -193,9 +189,96 @@ public class ReversibleDeque<T> implements SimpleDeque<T> {
      */
     @Override
     public Iterator<T> reverseIterator() {
-        if (this.direction == FORWARDS) {
+        return this.view.reverseIterator();
+    }
+
+    /**
+     * When facing forwards this has the time and memory complexity of the wrapped
+     * deque's snapshotIterator(). When facing backwards the copy is taken by the
+     * reversed view, which is O(n).
+     */
+    @Override
+    public Iterator<T> snapshotIterator() {
+        return this.view.snapshotIterator();
+    }
+
+    /**
+     * A view of another deque with its left and right ends swapped.
+     *
+     * Every method has the same time and memory complexity as the method of the
+     * wrapped deque that it calls.
+     *
+     * @param <T> Element stored inside the deque.
+     */
+    private static class ReversedView<T> implements SimpleDeque<T> {
+        private final SimpleDeque<T> data;
+
+        private ReversedView(SimpleDeque<T> data) {
+            this.data = data;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return this.data.isEmpty();
+        }
+
+        @Override
+        public boolean isFull() {
+            return this.data.isFull();
+        }
+
+        @Override
+        public int size() {
+            return this.data.size();
+        }
+
+        @Override
+        public void pushLeft(T e) throws RuntimeException {
+            this.data.pushRight(e);
+        }
+
+        @Override
+        public void pushRight(T e) throws RuntimeException {
+            this.data.pushLeft(e);
+        }
+
+        @Override
+        public T peekLeft() throws NoSuchElementException {
+            return this.data.peekRight();
+        }
+
+        @Override
+        public T peekRight() throws NoSuchElementException {
+            return this.data.peekLeft();
+        }
+
+        @Override
+        public T popLeft() throws NoSuchElementException {
+            return this.data.popRight();
+        }
+
+        @Override
+        public T popRight() throws NoSuchElementException {
+            return this.data.popLeft();
+        }
+
+        @Override
+        public T get(int index) throws IndexOutOfBoundsException {
+            return this.data.get(this.data.size() - 1 - index);
+        }
+
+        @Override
+        public T set(int index, T e) throws IndexOutOfBoundsException {
+            return this.data.set(this.data.size() - 1 - index, e);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
             return this.data.reverseIterator();
-        } else {
+        }
+
+        @Override
+        public Iterator<T> reverseIterator() {
             return this.data.iterator();
         }
     }
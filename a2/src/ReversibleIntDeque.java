@@ -0,0 +1,225 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The primitive int equivalent of ReversibleDeque. Wraps a SimpleIntDeque and allows
+ * the direction of the deque to be reversed in O(1) time.
+ */
+public class ReversibleIntDeque implements SimpleIntDeque {
+    /**
+     * The deque provided to be used as an internal representation of the data.
+     * All implemented methods call methods of this deque.
+     */
+    private SimpleIntDeque data;
+
+    /**
+     * The current direction the deque is facing. This controls which side should
+     * be popped, pushed and peeked from.
+     */
+    private int direction;
+    /* Represents when the deque faces forwards as an integer state */
+    private final int FORWARDS = 0;
+    /* Represents when the deque faces backwards as an integer state */
+    private final int BACKWARDS = 1;
+
+    /**
+     * Constructs a new reversible deque, using the given data deque to store
+     * elements.
+     * The data deque must not be used externally once this ReversibleIntDeque
+     * is created.
+     *
+     * This constructor has an O(1) time and memory complexity.
+     *
+     * @param data a deque to store elements in.
+     */
+    public ReversibleIntDeque(SimpleIntDeque data) {
+        this.data = data;
+        this.direction = FORWARDS;
+    }
+
+    /**
+     * Reverses the deque so that the leftmost element becomes the rightmost and
+     * vice versa. Calling it twice returns the deque to its initial orientation.
+     *
+     * This method has an O(1) time and memory complexity.
+     */
+    public void reverse() {
+        if (this.direction == FORWARDS) {
+            this.direction = BACKWARDS;
+        } else if (this.direction == BACKWARDS) {
+            this.direction = FORWARDS;
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's size().
+     */
+    @Override
+    public int size() {
+        return this.data.size();
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's isEmpty().
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.data.isEmpty();
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's isFull().
+     */
+    @Override
+    public boolean isFull() {
+        return this.data.isFull();
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * pushLeft() or pushRight() depending on the direction.
+     */
+    @Override
+    public void pushLeft(int e) throws RuntimeException {
+        if (this.direction == FORWARDS) {
+            this.data.pushLeft(e);
+        } else {
+            this.data.pushRight(e);
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * pushRight() or pushLeft() depending on the direction.
+     */
+    @Override
+    public void pushRight(int e) throws RuntimeException {
+        if (this.direction == FORWARDS) {
+            this.data.pushRight(e);
+        } else {
+            this.data.pushLeft(e);
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * pushAllLeft() or pushAllRight() depending on the direction.
+     */
+    @Override
+    public void pushAllLeft(int[] values) throws RuntimeException {
+        if (this.direction == FORWARDS) {
+            this.data.pushAllLeft(values);
+        } else {
+            this.data.pushAllRight(values);
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * pushAllRight() or pushAllLeft() depending on the direction.
+     */
+    @Override
+    public void pushAllRight(int[] values) throws RuntimeException {
+        if (this.direction == FORWARDS) {
+            this.data.pushAllRight(values);
+        } else {
+            this.data.pushAllLeft(values);
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * peekLeft() or peekRight() depending on the direction.
+     */
+    @Override
+    public int peekLeft() throws NoSuchElementException {
+        if (this.direction == FORWARDS) {
+            return this.data.peekLeft();
+        } else {
+            return this.data.peekRight();
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * peekRight() or peekLeft() depending on the direction.
+     */
+    @Override
+    public int peekRight() throws NoSuchElementException {
+        if (this.direction == FORWARDS) {
+            return this.data.peekRight();
+        } else {
+            return this.data.peekLeft();
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * popLeft() or popRight() depending on the direction.
+     */
+    @Override
+    public int popLeft() throws NoSuchElementException {
+        if (this.direction == FORWARDS) {
+            return this.data.popLeft();
+        } else {
+            return this.data.popRight();
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * popRight() or popLeft() depending on the direction.
+     */
+    @Override
+    public int popRight() throws NoSuchElementException {
+        if (this.direction == FORWARDS) {
+            return this.data.popRight();
+        } else {
+            return this.data.popLeft();
+        }
+    }
+
+    /**
+     * This method has the time and memory complexity of the wrapped deque's toArray(),
+     * plus O(n) time to reverse the copy when the deque faces backwards.
+     */
+    @Override
+    public int[] toArray() {
+        int[] result = this.data.toArray();
+        if (this.direction == BACKWARDS) {
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                int temp = result[i];
+                result[i] = result[j];
+                result[j] = temp;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * iterator() or reverseIterator() depending on the direction.
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        if (this.direction == FORWARDS) {
+            return this.data.iterator();
+        } else {
+            return this.data.reverseIterator();
+        }
+    }
+
+    /**
+     * The time and memory complexity of this method is that of the wrapped deque's
+     * reverseIterator() or iterator() depending on the direction.
+     */
+    @Override
+    public PrimitiveIterator.OfInt reverseIterator() {
+        if (this.direction == FORWARDS) {
+            return this.data.reverseIterator();
+        } else {
+            return this.data.iterator();
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -17,6 +19,8 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
     private int capacity;
     /* The current number of items in the deque. */
     private int numItems;
+    /* The number of pushes and pops so far. Used by iterators to detect modification. */
+    private int modCount;
 
     /**
      * Constructs a new array based deque with limited capacity.
@@ -146,6 +150,7 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
 
         this.deque[leftIndex] = e;
         this.numItems++;
+        this.modCount++;
     }
 
     /**
@@ -168,6 +173,7 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
 
         this.deque[rightIndex] = e;
         this.numItems++;
+        this.modCount++;
     }
 
     /**
@@ -217,6 +223,7 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         }
 
         this.numItems--;
+        this.modCount++;
         return poppedElement;
     }
 
@@ -241,9 +248,54 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
         }
 
         this.numItems--;
+        this.modCount++;
         return poppedElement;
     }
 
+    /**
+     * This method has a time complexity of O(1) as the position of the element
+     * in the array can be calculated directly from the leftIndex.
+     * Memory complexity is also O(1).
+     */
+    @Override
+    public T get(int index) throws IndexOutOfBoundsException {
+        return (T) this.deque[this.arrayIndex(index)];
+    }
+
+    /**
+     * This method has a time complexity of O(1) for the same reason as get().
+     * Memory complexity is also O(1).
+     */
+    @Override
+    public T set(int index, T e) throws IndexOutOfBoundsException {
+        int position = this.arrayIndex(index);
+        T previous = (T) this.deque[position];
+        this.deque[position] = e;
+        return previous;
+    }
+
+    /**
+     * Converts a position in the deque, counting from the left, into an index in
+     * the circular deque array.
+     *
+     * @param index position of the element, counting from the left
+     * @return The index in the deque array storing the element
+     * @throws IndexOutOfBoundsException if index < 0 or index >= size()
+     */
+    private int arrayIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.numItems) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // leftIndex and index are both less than capacity so this can't overflow and
+        // at most one wrap-around is needed.
+        int position = this.leftIndex + index;
+        if (position >= this.capacity) {
+            position -= this.capacity;
+        }
+        return position;
+    }
+
     /**
      * This method has both time and memory complexity O(1) as
      * initiating an object of the same type always takes the
@@ -253,41 +305,32 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
     public Iterator<T> iterator() {
         return new Iterator<T>() {
             private int currentIndex = leftIndex;
+            /* Counting the remaining elements means a full deque can't loop forever. */
+            private int remaining = numItems;
+            private final int expectedModCount = modCount;
 
             @Override
             public boolean hasNext() {
-                if (numItems == 0) {
-                    return false;
-                }
-
-                if (leftIndex < rightIndex) {
-                    if (currentIndex <= rightIndex && currentIndex >= leftIndex) {
-                        return true;
-                    }
-                }
-
-                if (rightIndex < leftIndex) {
-                    if (currentIndex <= rightIndex || currentIndex >= leftIndex) {
-                        return true;
-                    }
-                }
-
-                return false;
+                return remaining > 0;
             }
 
             @Override
             public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
 
                 T next = (T) deque[currentIndex];
-                    
+
                 if (currentIndex >= capacity - 1) {
                     currentIndex = 0;
                 } else {
                     currentIndex++;
                 }
+                remaining--;
                 return next;
             }
         };
@@ -302,30 +345,19 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
     public Iterator<T> reverseIterator() {
         return new Iterator<T>() {
             private int currentIndex = rightIndex;
+            private int remaining = numItems;
+            private final int expectedModCount = modCount;
 
             @Override
             public boolean hasNext() {
-                if (numItems == 0) {
-                    return false;
-                }
-
-                if (leftIndex < rightIndex) {
-                    if (currentIndex <= rightIndex && currentIndex >= leftIndex) {
-                        return true;
-                    }
-                }
-
-                if (rightIndex < leftIndex) {
-                    if (currentIndex <= rightIndex || currentIndex >= leftIndex) {
-                        return true;
-                    }
-                }
-
-                return false;
+                return remaining > 0;
             }
 
             @Override
             public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
@@ -337,8 +369,23 @@ public class SimpleArrayDeque<T> implements SimpleDeque<T> {
                 } else {
                     currentIndex--;
                 }
+                remaining--;
                 return next;
             }
         };
     }
+
+    /**
+     * This method has both time and memory complexity O(n) where n is the number
+     * of items in the deque. The occupied range of the circular array is copied
+     * with a single System.arraycopy, or two if it wraps around the end of the array.
+     */
+    @Override
+    public Iterator<T> snapshotIterator() {
+        Object[] snapshot = new Object[this.numItems];
+        int firstSegment = Math.min(this.numItems, this.capacity - this.leftIndex);
+        System.arraycopy(this.deque, this.leftIndex, snapshot, 0, firstSegment);
+        System.arraycopy(this.deque, 0, snapshot, firstSegment, this.numItems - firstSegment);
+        return Arrays.asList((T[]) snapshot).iterator();
+    }
 }
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -75,13 +76,37 @@ public interface SimpleDeque<T> {
      */
     T popRight() throws NoSuchElementException;
     
+    /**
+     * Returns the element at the given position in the deque, where index 0 is the
+     * leftmost element and index size() - 1 is the rightmost element.
+     *
+     * @param index position of the element, counting from the left
+     * @returns the element at the given position
+     * @throws IndexOutOfBoundsException if index < 0 or index >= size()
+     */
+    T get(int index) throws IndexOutOfBoundsException;
+
+    /**
+     * Replaces the element at the given position in the deque, where index 0 is the
+     * leftmost element and index size() - 1 is the rightmost element.
+     *
+     * @param index position of the element, counting from the left
+     * @param e Element to store at the position
+     * @returns the element previously at the given position
+     * @throws IndexOutOfBoundsException if index < 0 or index >= size()
+     */
+    T set(int index, T e) throws IndexOutOfBoundsException;
+
     /**
      * Returns an iterator for the deque in left to right sequence.
      * 
      * The methods hasNext() and next() in the Iterator should run in O(1) time.
      * The remove() method in the iterator should not be implemented.
      *
-     * You can assume that the elements in the deque will never change while the iterator is being used.
+     * The iterator is fail-fast. If an element is pushed or popped after the iterator
+     * is created, next() throws a ConcurrentModificationException rather than
+     * returning stale elements. Use snapshotIterator() to iterate while modifying
+     * the deque.
      * 
      * @returns an iterator over the elements in in order from leftmost to rightmost.
      */
@@ -93,11 +118,30 @@ public interface SimpleDeque<T> {
      * The methods hasNext() and next() in the Iterator should run in O(1) time. 
      * The remove() method in the iterator should not be implemented.
      * 
-     * You can assume that the elements in the deque will never change while the iterator is being used.
+     * The iterator is fail-fast in the same way as iterator().
      *
      * @returns an iterator over the elements in in order from rightmost to leftmost.
      */
     Iterator<T> reverseIterator();
-    
+
+    /**
+     * Returns an iterator over a copy of the deque taken when this method is called,
+     * in left to right sequence. The deque can be freely modified while the iterator
+     * is being used, and the changes are not seen by the iterator.
+     *
+     * Taking the copy has an O(n) time and memory complexity where n is the number of
+     * items in the deque. The methods hasNext() and next() run in O(1) time.
+     *
+     * @returns an iterator over a copy of the elements from leftmost to rightmost.
+     */
+    default Iterator<T> snapshotIterator() {
+        Object[] snapshot = new Object[this.size()];
+        Iterator<T> iterator = this.iterator();
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = iterator.next();
+        }
+
+        return Arrays.asList((T[]) snapshot).iterator();
+    }
 
 }
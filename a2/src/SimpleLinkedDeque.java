@@ -1,3 +1,4 @@
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -15,6 +16,8 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
     private int capacity;
     /* Current number of items in the deque */
     private int numItems;
+    /* The number of pushes and pops so far. Used by iterators to detect modification. */
+    private int modCount;
     /* A deque with this capacity has an unlimited capacity */
     private final int UNLIMITED_CAPACITY = -1;
 
@@ -189,6 +192,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         }
 
         this.numItems++;
+        this.modCount++;
     }
 
     /**
@@ -214,6 +218,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         }
 
         this.numItems++;
+        this.modCount++;
     }
 
     /**
@@ -264,6 +269,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
             this.tail = null;
         }
         this.numItems--;
+        this.modCount++;
         return (T) leftValue;
     }
 
@@ -287,9 +293,61 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
             this.head = null;
         }
         this.numItems--;
+        this.modCount++;
         return (T) rightValue;
     }
 
+    /**
+     * This method has an O(min(i, n - i)) time complexity where n is the number of
+     * items in the deque, as the list is walked from whichever end is nearer to the
+     * index. This is O(n) in the worst case. Memory complexity is O(1).
+     */
+    @Override
+    public T get(int index) throws IndexOutOfBoundsException {
+        return this.nodeAt(index).getValue();
+    }
+
+    /**
+     * This method has the same time and memory complexity as get() as the same
+     * walk is used to find the node to update.
+     */
+    @Override
+    public T set(int index, T e) throws IndexOutOfBoundsException {
+        LinkedListNode<T> node = this.nodeAt(index);
+        T previous = node.getValue();
+        node.setValue(e);
+        return previous;
+    }
+
+    /**
+     * Finds the node at the given position, walking from the head if the index is in
+     * the left half of the deque and from the tail otherwise.
+     *
+     * @param index position of the node, counting from the left
+     * @return The node at the given position
+     * @throws IndexOutOfBoundsException if index < 0 or index >= size()
+     */
+    private LinkedListNode<T> nodeAt(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.numItems) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        LinkedListNode<T> cursor;
+        if (index < this.numItems / 2) {
+            cursor = this.head;
+            for (int i = 0; i < index; i++) {
+                cursor = cursor.getNext();
+            }
+        } else {
+            cursor = this.tail;
+            for (int i = this.numItems - 1; i > index; i--) {
+                cursor = cursor.getPrevious();
+            }
+        }
+
+        return cursor;
+    }
+
     /**
      * This method has an O(1) time complexity as the number of operations taken
      * is the same no matter the number of items in the deque. This method also has
@@ -300,6 +358,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
     public Iterator<T> iterator() {
         return new Iterator<T>() {
             private LinkedListNode<T> cursor = head;
+            private final int expectedModCount = modCount;
 
             @Override
             public boolean hasNext() {
@@ -312,6 +371,9 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
 
             @Override
             public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
@@ -333,6 +395,7 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
     public Iterator<T> reverseIterator() {
         return new Iterator<T>() {
             private LinkedListNode<T> cursor = tail;
+            private final int expectedModCount = modCount;
 
             @Override
             public boolean hasNext() {
@@ -345,6 +408,9 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
 
             @Override
             public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
@@ -392,5 +458,9 @@ public class SimpleLinkedDeque<T> implements SimpleDeque<T> {
         private T getValue() {
             return this.value;
         }
+
+        private void setValue(T value) {
+            this.value = value;
+        }
     }
 }
@@ -0,0 +1,129 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A simple double-ended queue (deque) of primitive longs.
+ *
+ * This follows the same contract as SimpleDeque, but stores long values directly
+ * so that pushing and popping never boxes the elements into Longs.
+ */
+public interface SimpleLongDeque {
+    /**
+     * Returns whether the deque is empty.
+     *
+     * @return true if the deque is empty, otherwise false.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns whether the deque is full, i.e. it has a capacity and its size == capacity.
+     *
+     * @return true if the deque has reached capacity (if it has one), otherwise false.
+     */
+    boolean isFull();
+
+    /**
+     * Returns the number of elements currently stored in the deque.
+     * @return Number of elements.
+     */
+    int size();
+
+    /**
+     * Pushes an element to the left of the deque.
+     *
+     * @param e Element to push
+     * @throws RuntimeException if the deque is already full
+     */
+    void pushLeft(long e) throws RuntimeException;
+
+    /**
+     * Pushes an element to the right of the deque.
+     *
+     * @param e Element to push
+     * @throws RuntimeException if the deque is already full
+     */
+    void pushRight(long e) throws RuntimeException;
+
+    /**
+     * Pushes every element of values to the left of the deque. This is equivalent to
+     * calling pushLeft(values[i]) for each i in increasing order, so values[values.length - 1]
+     * ends up as the leftmost element.
+     *
+     * If there is not enough space for all of the values then none of them are pushed.
+     *
+     * @param values Elements to push
+     * @throws RuntimeException if the deque does not have space for all of the values
+     */
+    void pushAllLeft(long[] values) throws RuntimeException;
+
+    /**
+     * Pushes every element of values to the right of the deque. This is equivalent to
+     * calling pushRight(values[i]) for each i in increasing order, so values[values.length - 1]
+     * ends up as the rightmost element.
+     *
+     * If there is not enough space for all of the values then none of them are pushed.
+     *
+     * @param values Elements to push
+     * @throws RuntimeException if the deque does not have space for all of the values
+     */
+    void pushAllRight(long[] values) throws RuntimeException;
+
+    /**
+     * Returns the element at the left of the deque, but does not remove it.
+     *
+     * @returns the leftmost element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    long peekLeft() throws NoSuchElementException;
+
+    /**
+     * Returns the element at the right of the deque, but does not remove it.
+     *
+     * @returns the rightmost element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    long peekRight() throws NoSuchElementException;
+
+    /**
+     * Removes and returns the element at the left of the deque.
+     *
+     * @returns the leftmost element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    long popLeft() throws NoSuchElementException;
+
+    /**
+     * Removes and returns the element at the right of the deque.
+     *
+     * @returns the rightmost element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    long popRight() throws NoSuchElementException;
+
+    /**
+     * Copies the elements of the deque into a new array in left to right sequence.
+     *
+     * @returns an array containing every element from leftmost to rightmost.
+     */
+    long[] toArray();
+
+    /**
+     * Returns an iterator for the deque in left to right sequence.
+     *
+     * The methods hasNext() and nextLong() in the Iterator should run in O(1) time.
+     * The remove() method in the iterator should not be implemented.
+     *
+     * @returns an iterator over the elements in in order from leftmost to rightmost.
+     */
+    PrimitiveIterator.OfLong iterator();
+
+    /**
+     * Returns an iterator for the deque in right to left sequence.
+     *
+     * The methods hasNext() and nextLong() in the Iterator should run in O(1) time.
+     * The remove() method in the iterator should not be implemented.
+     *
+     * @returns an iterator over the elements in in order from rightmost to leftmost.
+     */
+    PrimitiveIterator.OfLong reverseIterator();
+}
@@ -0,0 +1,286 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A deque that keeps the minimum, maximum and sum of its elements up to date as
+ * elements are pushed and popped, for use as a sliding window over a stream of values.
+ *
+ * The elements are stored in a SimpleArrayDeque. Two more SimpleArrayDeques hold the
+ * monotonic sequences of candidates for the minimum and maximum. When the deque is used
+ * as a queue, i.e. with pushRight() and popLeft(), every operation including min(),
+ * max() and sum() takes amortized O(1) time. pushLeft(), popRight() and set() break the
+ * order that the candidate sequences rely on, so they rebuild them in O(n) time.
+ *
+ * Memory complexity is O(n) where n is the capacity, as all three deques are allocated
+ * with the same capacity.
+ *
+ * @param <T> Element stored inside this deque.
+ */
+public class SlidingWindowDeque<T extends Number & Comparable<? super T>> implements SimpleDeque<T> {
+    /* The elements of the window in order. */
+    private SimpleArrayDeque<T> window;
+    /*
+     * Candidates for the minimum, non-decreasing from left to right. The leftmost
+     * candidate is the minimum of the window.
+     */
+    private SimpleArrayDeque<T> minimums;
+    /*
+     * Candidates for the maximum, non-increasing from left to right. The leftmost
+     * candidate is the maximum of the window.
+     */
+    private SimpleArrayDeque<T> maximums;
+    /* The sum of every element in the window. */
+    private double sum;
+
+    /**
+     * Constructs a new sliding window deque with limited capacity.
+     *
+     * This constructor has an O(n) time and memory complexity where n is the capacity.
+     *
+     * @param capacity the capacity
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public SlidingWindowDeque(int capacity) throws IllegalArgumentException {
+        this.window = new SimpleArrayDeque<>(capacity);
+        this.minimums = new SimpleArrayDeque<>(capacity);
+        this.maximums = new SimpleArrayDeque<>(capacity);
+        this.sum = 0;
+    }
+
+    /**
+     * Returns the smallest element in the deque.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public T min() throws NoSuchElementException {
+        return this.minimums.peekLeft();
+    }
+
+    /**
+     * Returns the largest element in the deque.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the largest element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public T max() throws NoSuchElementException {
+        return this.maximums.peekLeft();
+    }
+
+    /**
+     * Returns the sum of the elements in the deque, or 0 if it is empty.
+     *
+     * The sum is kept as a running total, so it may drift slightly from the exact sum
+     * of floating point elements after many updates. Any operation that rebuilds the
+     * candidate sequences also recomputes the sum from scratch.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the sum of the elements
+     */
+    public double sum() {
+        return this.sum;
+    }
+
+    /**
+     * Returns the mean of the elements in the deque.
+     *
+     * This method has a time and memory complexity of O(1).
+     *
+     * @return the mean of the elements
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public double average() throws NoSuchElementException {
+        if (this.window.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.sum / this.window.size();
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.window.isEmpty();
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public boolean isFull() {
+        return this.window.isFull();
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public int size() {
+        return this.window.size();
+    }
+
+    /**
+     * This method has a time complexity of O(n) as the candidate sequences have to
+     * be rebuilt to include an element older than all of the others.
+     * Memory complexity is O(1).
+     */
+    @Override
+    public void pushLeft(T e) throws RuntimeException {
+        this.window.pushLeft(e);
+        this.rebuild();
+    }
+
+    /**
+     * This method has an amortized time complexity of O(1). Each element is pushed onto
+     * and popped from each candidate sequence at most once, so the total work over n
+     * pushes is O(n). Memory complexity is O(1).
+     */
+    @Override
+    public void pushRight(T e) throws RuntimeException {
+        this.window.pushRight(e);
+        this.addCandidate(e);
+        this.sum += e.doubleValue();
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T peekLeft() throws NoSuchElementException {
+        return this.window.peekLeft();
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T peekRight() throws NoSuchElementException {
+        return this.window.peekRight();
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1). The popped element is the
+     * oldest in the window, so it can only be the leftmost candidate of each sequence.
+     */
+    @Override
+    public T popLeft() throws NoSuchElementException {
+        T poppedElement = this.window.popLeft();
+
+        if (this.minimums.peekLeft().compareTo(poppedElement) == 0) {
+            this.minimums.popLeft();
+        }
+        if (this.maximums.peekLeft().compareTo(poppedElement) == 0) {
+            this.maximums.popLeft();
+        }
+
+        this.sum -= poppedElement.doubleValue();
+        return poppedElement;
+    }
+
+    /**
+     * This method has a time complexity of O(n) as candidates that were discarded
+     * because of the popped element may be needed again, so the candidate sequences
+     * are rebuilt. Memory complexity is O(1).
+     */
+    @Override
+    public T popRight() throws NoSuchElementException {
+        T poppedElement = this.window.popRight();
+        this.rebuild();
+        return poppedElement;
+    }
+
+    /**
+     * This method has a time and memory complexity of O(1).
+     */
+    @Override
+    public T get(int index) throws IndexOutOfBoundsException {
+        return this.window.get(index);
+    }
+
+    /**
+     * This method has a time complexity of O(n) as the candidate sequences are rebuilt
+     * around the new element. Memory complexity is O(1).
+     */
+    @Override
+    public T set(int index, T e) throws IndexOutOfBoundsException {
+        T previous = this.window.set(index, e);
+        this.rebuild();
+        return previous;
+    }
+
+    /**
+     * This method has the same complexity as SimpleArrayDeque.iterator().
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return this.window.iterator();
+    }
+
+    /**
+     * This method has the same complexity as SimpleArrayDeque.reverseIterator().
+     */
+    @Override
+    public Iterator<T> reverseIterator() {
+        return this.window.reverseIterator();
+    }
+
+    /**
+     * This method has the same complexity as SimpleArrayDeque.snapshotIterator().
+     */
+    @Override
+    public Iterator<T> snapshotIterator() {
+        return this.window.snapshotIterator();
+    }
+
+    /**
+     * Recomputes the candidate sequences and the sum from the elements of the window.
+     *
+     * This method has a time complexity of O(n) where n is the number of elements in the
+     * window, as each element is pushed onto and popped from each sequence at most once.
+     */
+    private void rebuild() {
+        while (!this.minimums.isEmpty()) {
+            this.minimums.popRight();
+        }
+        while (!this.maximums.isEmpty()) {
+            this.maximums.popRight();
+        }
+
+        double total = 0;
+        Iterator<T> iterator = this.window.iterator();
+        while (iterator.hasNext()) {
+            T e = iterator.next();
+            this.addCandidate(e);
+            total += e.doubleValue();
+        }
+        this.sum = total;
+    }
+
+    /**
+     * Adds the newest element of the window to the right of both candidate sequences.
+     *
+     * Any candidate that is worse than e can never be the minimum or maximum again, as
+     * e will stay in the window for at least as long. Candidates equal to e are kept so
+     * that popLeft() can match the popped element against the leftmost candidate.
+     *
+     * @param e the element that was pushed to the right of the window
+     */
+    private void addCandidate(T e) {
+        while (!this.minimums.isEmpty() && this.minimums.peekRight().compareTo(e) > 0) {
+            this.minimums.popRight();
+        }
+        this.minimums.pushRight(e);
+
+        while (!this.maximums.isEmpty() && this.maximums.peekRight().compareTo(e) < 0) {
+            this.maximums.popRight();
+        }
+        this.maximums.pushRight(e);
+    }
+}
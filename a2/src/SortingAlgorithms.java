@@ -1,4 +1,13 @@
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public class SortingAlgorithms {
     /**
@@ -11,23 +20,34 @@ public class SortingAlgorithms {
      * @requires input != null
      */
     static <T extends Comparable> void selectionSort(T[] input, boolean reversed) {
-        Comparator<T> sortingComparator = getComparator(reversed);
+        selectionSort(input, getComparator(reversed));
+    }
 
-        // Iterate through each value in the array
-        for (int i = 0; i < input.length; i++) {
+    /**
+     * Sorts the given array by the given comparator using selection sort, like
+     * selectionSort(T[], boolean).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @requires input != null && comparator != null
+     */
+    static <T> void selectionSort(T[] input, Comparator<? super T> comparator) {
+        // Iterate through each value in the array. The last is left in place
+        // once every smaller value has been moved before it.
+        for (int i = 0; i < input.length - 1; i++) {
             int minimumValueIndex = i;
             // Find the smallest input in the array after the current "i"
             for (int j = i + 1; j < input.length; j++) {
-                if (sortingComparator.compare(input[j], input[minimumValueIndex]) < 0) {
+                if (comparator.compare(input[j], input[minimumValueIndex]) < 0) {
                     minimumValueIndex = j;
                 }
             }
 
             // Swap the next smallest value in the array with the currently
-            // selected.
-            T temp = input[i];
-            input[i] = input[minimumValueIndex];
-            input[minimumValueIndex] = temp;
+            // selected, unless it is already in place.
+            if (minimumValueIndex != i) {
+                swap(input, i, minimumValueIndex);
+            }
         }
     }
 
@@ -41,204 +61,3388 @@ public class SortingAlgorithms {
      * @requires input != null
      */
     static <T extends Comparable> void insertionSort(T[] input, boolean reversed) {
-        Comparator<T> sortingComparator = getComparator(reversed);
-
-        // Iterate over each element in the array
-        for (int i = 1; i < input.length; i++) {
-            T selection = input[i];
-            // Take the current element and move it back towards the start of
-            // the array until an element that is greater than the current element
-            // is found.
-            for (int j = i - 1; j >= 0; j--) {
-                input[j + 1] = input[j];
-                if (sortingComparator.compare(selection, input[j]) >= 0) {
-                    input[j + 1] = selection;
-                    break;
-                }
-
-                if (j == 0) {
-                    input[j] = selection;
-                    break;
-                }
-            }
+        insertionSort(input, getComparator(reversed));
+    }
 
-        }
+    /**
+     * Sorts the given array by the given comparator using insertion sort, like
+     * insertionSort(T[], boolean).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @requires input != null && comparator != null
+     */
+    static <T> void insertionSort(T[] input, Comparator<? super T> comparator) {
+        insertionSort(input, 0, input.length, comparator);
     }
     
     /**
      * Sorts the given array using the merge sort algorithm.
      * This should modify the array in-place.
-     * 
+     *
+     * A single auxiliary copy of the array is allocated, and each level of the
+     * recursion merges from one array into the other, see pingPongMergeSort().
+     * Ranges of up to INSERTION_SORT_THRESHOLD elements are insertion sorted, and
+     * halves that are already in order are copied rather than merged, so sorted input
+     * takes O(n) comparisons. The sort is stable.
+     *
+     * This method has a time complexity of O(n log n) and a memory complexity of O(n).
+     *
      * @param input An array of comparable objects.
      * @param reversed If false, the array should be sorted ascending.
      *                 Otherwise, it should be sorted descending.
      * @requires input != null
      */
     static <T extends Comparable> void mergeSort(T[] input, boolean reversed) {
-        recursiveMergeSort(input, 0, input.length, reversed);
+        mergeSort(input, getComparator(reversed));
+    }
+
+    /**
+     * Sorts the given array by the given comparator using merge sort, like
+     * mergeSort(T[], boolean).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @requires input != null && comparator != null
+     */
+    static <T> void mergeSort(T[] input, Comparator<? super T> comparator) {
+        if (input.length < 2) {
+            return;
+        }
+
+        // The buffer starts as a copy of the input, see pingPongMergeSort().
+        T[] buffer = input.clone();
+        countMoves(input.length);
+        pingPongMergeSort(buffer, input, 0, input.length, comparator);
+    }
+
+    /**
+     * The default size below which parallelMergeSort() stops forking and sorts
+     * subranges on the current thread.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /* Ranges of at most this many elements are insertion sorted rather than split. */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    /* Ranges of at most this many elements are sorted with a sorting network by the unstable sorts. */
+    static final int SORTING_NETWORK_THRESHOLD = 16;
+    /* SORTING_NETWORKS[n] holds the comparators of a sorting network for n elements. */
+    private static final int[][] SORTING_NETWORKS = buildSortingNetworks(SORTING_NETWORK_THRESHOLD);
+    /* Ranges of at least this many elements use the ninther rather than the median of three. */
+    private static final int NINTHER_THRESHOLD = 128;
+    /* Arrays smaller than this are sorted by parallelSampleSort() on the current thread. */
+    static final int SAMPLE_SORT_THRESHOLD = 1 << 14;
+    /* The most splitters parallelSampleSort() uses, so bucket numbers fit in a short. */
+    private static final int MAX_SPLITTERS = 1024;
+    /* The number of sample elements taken for each bucket of parallelSampleSort(). */
+    private static final int SAMPLE_OVERSAMPLING = 32;
+    /* The smallest number of elements parallelSampleSort() aims to put in a bucket or chunk. */
+    private static final int MIN_BUCKET_SIZE = 4096;
+    /* The number of values of a digit in radixSort(). */
+    private static final int RADIX = 256;
+    /* The charKey() of the end of a string, less than any character. */
+    private static final int STRING_END_KEY = -1;
+    /* The charKey() of the end of a string when reversed, greater than any character. */
+    private static final int REVERSED_STRING_END_KEY = Character.MAX_VALUE + 1;
+    /* partialSort() uses a bounded heap when k is at most the length divided by this. */
+    private static final int TOP_K_HEAP_RATIO = 64;
+    /* The kernels used by vectorQuickSort(), or null if they can't be loaded. */
+    private static final IntSortKernels VECTOR_KERNELS = loadVectorKernels();
+
+    /**
+     * Sorts the given array using a merge sort that runs on the common ForkJoinPool.
+     * This should modify the array in-place.
+     *
+     * Subranges larger than PARALLEL_THRESHOLD are sorted as separate tasks, and
+     * merges of that many elements are split into independent merges as well, so
+     * every level of the recursion runs in parallel. The sort is stable.
+     *
+     * This method has a time complexity of O(n log n) and uses a single auxiliary
+     * array, so memory complexity is O(n).
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static <T extends Comparable> void parallelMergeSort(T[] input, boolean reversed) {
+        parallelMergeSort(input, reversed, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Sorts the given array using a parallel merge sort, forking subranges and merges
+     * larger than the given threshold. This should modify the array in-place.
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @param threshold Subranges and merges of at most this many elements are
+     *                  handled on the current thread.
+     * @throws IllegalArgumentException if threshold <= 0
+     * @requires input != null
+     */
+    static <T extends Comparable> void parallelMergeSort(T[] input, boolean reversed, int threshold) {
+        parallelMergeSort(input, getComparator(reversed), threshold);
+    }
+
+    /**
+     * Sorts the given array by the given comparator using a parallel merge sort, like
+     * parallelMergeSort(T[], boolean).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @requires input != null && comparator != null
+     */
+    static <T> void parallelMergeSort(T[] input, Comparator<? super T> comparator) {
+        parallelMergeSort(input, comparator, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Sorts the given array by the given comparator using a parallel merge sort, like
+     * parallelMergeSort(T[], boolean, int).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @param threshold Subranges and merges of at most this many elements are
+     *                  handled on the current thread.
+     * @throws IllegalArgumentException if threshold <= 0
+     * @requires input != null && comparator != null
+     */
+    static <T> void parallelMergeSort(T[] input, Comparator<? super T> comparator, int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException();
+        }
+        if (input.length < 2) {
+            return;
+        }
+
+        // The buffer starts as a copy of the input, see pingPongMergeSort().
+        T[] buffer = input.clone();
+        countMoves(input.length);
+        if (input.length <= threshold) {
+            pingPongMergeSort(buffer, input, 0, input.length, comparator);
+        } else {
+            ForkJoinPool.commonPool().invoke(new MergeSortTask<>(
+                    buffer, input, 0, input.length, comparator, threshold));
+        }
     }
 
     /**
-     * Recursive helper method for Merge Sort.
+     * Sorts the range [leftBound, rightBound) of source into the same range of
+     * destination, without allocating.
      *
-     * Sorts the given input array between the provided leftBound and rightBound.
+     * Both arrays must hold the same elements in the range when this is called.
+     * Each half is sorted from destination into source by swapping the roles of the
+     * arrays, and the sorted halves are then merged from source back into destination,
+     * so no elements ever have to be copied back between the arrays.
+     *
+     * @param source Array the halves are sorted into
+     * @param destination Array the sorted range is written to
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param comparator Comparator to sort by
+     */
+    private static <T> void pingPongMergeSort(T[] source, T[] destination,
+            int leftBound, int rightBound, Comparator<? super T> comparator) {
+        if (rightBound - leftBound <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(destination, leftBound, rightBound, comparator);
+            return;
+        }
+
+        int middleBound = (leftBound + rightBound) >>> 1;
+        pingPongMergeSort(destination, source, leftBound, middleBound, comparator);
+        pingPongMergeSort(destination, source, middleBound, rightBound, comparator);
+        if (comparator.compare(source[middleBound - 1], source[middleBound]) <= 0) {
+            // The halves are already in order, so they only need copying.
+            System.arraycopy(source, leftBound, destination, leftBound, rightBound - leftBound);
+            countMoves(rightBound - leftBound);
+            return;
+        }
+        mergeRuns(source, leftBound, middleBound, middleBound, rightBound,
+                destination, leftBound, comparator);
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array in-place using
+     * insertion sort. Used for small ranges, where it is faster than splitting them.
+     * Each element is compared before anything is moved, and equal elements keep their
+     * order, so the sort is stable.
      *
      * @param input Array to sort
      * @param leftBound Index to start sorting from
      * @param rightBound Index to sort until
-     * @param reversed reversed If false, the array should be sorted ascending.
-     *                 Otherwise, it should be sorted descending.
+     * @param comparator Comparator to sort by
+     */
+    static <T> void insertionSort(T[] input, int leftBound, int rightBound,
+            Comparator<? super T> comparator) {
+        for (int i = leftBound + 1; i < rightBound; i++) {
+            T selection = input[i];
+            if (comparator.compare(selection, input[i - 1]) >= 0) {
+                continue;
+            }
+
+            int j = i - 1;
+            do {
+                input[j + 1] = input[j];
+                j--;
+            } while (j >= leftBound && comparator.compare(selection, input[j]) < 0);
+            input[j + 1] = selection;
+            countMoves(i - j);
+        }
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array in-place using
+     * insertion sort without checking for the start of the range in the inner loop.
+     *
+     * The first of the smallest elements is rotated to the start of the range, where it
+     * stops every later element from being moved past it. Rotating rather than swapping
+     * keeps the other elements in order, so the sort is stable.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param comparator Comparator to sort by
      */
-    private static <T extends Comparable> void recursiveMergeSort(
-            T[] input, int leftBound, int rightBound, boolean reversed) {
-        if (rightBound - leftBound == 1) {
+    static <T> void sentinelInsertionSort(T[] input, int leftBound, int rightBound,
+            Comparator<? super T> comparator) {
+        if (rightBound - leftBound < 2) {
             return;
         }
-        recursiveMergeSort(input, leftBound, (leftBound + rightBound)/2, reversed);
-        recursiveMergeSort(input, (leftBound + rightBound)/2, rightBound, reversed);
-        merge(input, leftBound, (leftBound + rightBound)/2, rightBound, reversed);
+
+        int minimum = leftBound;
+        for (int i = leftBound + 1; i < rightBound; i++) {
+            if (comparator.compare(input[i], input[minimum]) < 0) {
+                minimum = i;
+            }
+        }
+        T sentinel = input[minimum];
+        System.arraycopy(input, leftBound, input, leftBound + 1, minimum - leftBound);
+        input[leftBound] = sentinel;
+        countMoves(minimum - leftBound + 1);
+
+        unguardedInsertionSort(input, leftBound + 1, rightBound, comparator);
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array in-place using
+     * insertion sort, given that input[leftBound - 1] is no greater than any element
+     * of the range, so the inner loop never has to check for the start of the range.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from, greater than 0
+     * @param rightBound Index to sort until
+     * @param comparator Comparator to sort by
+     */
+    private static <T> void unguardedInsertionSort(T[] input, int leftBound, int rightBound,
+            Comparator<? super T> comparator) {
+        for (int i = leftBound; i < rightBound; i++) {
+            T selection = input[i];
+            if (comparator.compare(selection, input[i - 1]) >= 0) {
+                continue;
+            }
+
+            int j = i - 1;
+            do {
+                input[j + 1] = input[j];
+                j--;
+            } while (comparator.compare(selection, input[j]) < 0);
+            input[j + 1] = selection;
+            countMoves(i - j);
+        }
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array in-place with a fixed
+     * sorting network, for ranges of at most SORTING_NETWORK_THRESHOLD elements.
+     *
+     * The same comparisons are made whatever the order of the elements, and each
+     * compare-exchange writes both elements back with a conditional select rather than a
+     * branch, so the JIT can compile it without mispredicted jumps. The sort isn't stable.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until, at most SORTING_NETWORK_THRESHOLD past leftBound
+     * @param comparator Comparator to sort by
+     */
+    static <T> void networkSort(T[] input, int leftBound, int rightBound,
+            Comparator<? super T> comparator) {
+        int[] network = SORTING_NETWORKS[rightBound - leftBound];
+        countMoves(network.length);
+        for (int c = 0; c < network.length; c += 2) {
+            int i = leftBound + network[c];
+            int j = leftBound + network[c + 1];
+            T first = input[i];
+            T second = input[j];
+            boolean exchange = comparator.compare(first, second) > 0;
+            input[i] = exchange ? second : first;
+            input[j] = exchange ? first : second;
+        }
+    }
+
+    /**
+     * Returns Batcher's odd-even merge sorting network for each size from 0 to the given
+     * size, as the pairs of indices to compare-exchange in order.
+     *
+     * The network for a power of two is built by sorting both halves and merging them
+     * with odd-even merges. For other sizes the comparators touching indices past the
+     * end are dropped, which is equivalent to padding the input with elements greater
+     * than all others that never move. For 16 elements this gives 63 comparators, close
+     * to the best known of 60.
+     */
+    private static int[][] buildSortingNetworks(int maxSize) {
+        int[][] networks = new int[maxSize + 1][];
+        for (int size = 0; size <= maxSize; size++) {
+            int[] pairs = new int[size * size];
+            int count = 0;
+            for (int p = 1; p < size; p <<= 1) {
+                for (int k = p; k >= 1; k >>= 1) {
+                    for (int j = k % p; j + k < size; j += 2 * k) {
+                        for (int i = 0; i < Math.min(k, size - j - k); i++) {
+                            if ((i + j) / (2 * p) == (i + j + k) / (2 * p)) {
+                                pairs[count++] = i + j;
+                                pairs[count++] = i + j + k;
+                            }
+                        }
+                    }
+                }
+            }
+            networks[size] = Arrays.copyOf(pairs, count);
+        }
+        return networks;
+    }
+
+    /**
+     * Merges the sorted runs [firstLeft, firstRight) and [secondLeft, secondRight)
+     * of source into destination, starting at destinationLeft. Elements of the first
+     * run come before equal elements of the second, so the merge is stable.
+     *
+     * @param source Array holding both runs
+     * @param firstLeft Start of the first run
+     * @param firstRight End of the first run
+     * @param secondLeft Start of the second run
+     * @param secondRight End of the second run
+     * @param destination Array to merge into
+     * @param destinationLeft Index of destination to write the first element to
+     * @param comparator Comparator the runs are sorted by
+     */
+    private static <T> void mergeRuns(T[] source, int firstLeft, int firstRight,
+            int secondLeft, int secondRight, T[] destination, int destinationLeft,
+            Comparator<? super T> comparator) {
+        mergeRuns(source, firstLeft, firstRight, source, secondLeft, secondRight,
+                destination, destinationLeft, comparator);
     }
 
     /**
-     * Merges the two halves of the array between leftBound and rightBound. After
-     * merging the merged array is placed into the origin input array between
-     * the leftBound and rightBound.
+     * Merges the sorted runs [firstLeft, firstRight) of first and
+     * [secondLeft, secondRight) of second into destination, starting at
+     * destinationLeft. Elements of the first run come before equal elements of the
+     * second, so the merge is stable. The destination range must not overlap either run.
+     *
+     * This method has a time complexity of O(n), where n is the total length of the runs.
      *
-     * @param input The array elements to be merged on
-     * @param leftBound The start of the first half to merge on
-     * @param middleBound The start of the second half to merge on
-     * @param rightBound The end of the second half
-     * @param reversed reversed If false, the array should be sorted ascending.
-     *          Otherwise, it should be sorted descending.
+     * @param first Array holding the first run
+     * @param firstLeft Start of the first run
+     * @param firstRight End of the first run
+     * @param second Array holding the second run
+     * @param secondLeft Start of the second run
+     * @param secondRight End of the second run
+     * @param destination Array to merge into
+     * @param destinationLeft Index of destination to write the first element to
+     * @param comparator Comparator the runs are sorted by
      */
-    private static <T extends Comparable> void merge(
-            T[] input, int leftBound, int middleBound, int rightBound, boolean reversed) {
-        int mergedLength = rightBound - leftBound;
-        Object[] merged = new Object[mergedLength];
+    static <T> void mergeRuns(T[] first, int firstLeft, int firstRight, T[] second,
+            int secondLeft, int secondRight, T[] destination, int destinationLeft,
+            Comparator<? super T> comparator) {
+        int firstCursor = firstLeft;
+        int secondCursor = secondLeft;
+        int mergedCursor = destinationLeft;
+
+        while (firstCursor < firstRight && secondCursor < secondRight) {
+            if (comparator.compare(first[firstCursor], second[secondCursor]) <= 0) {
+                destination[mergedCursor++] = first[firstCursor++];
+            } else {
+                destination[mergedCursor++] = second[secondCursor++];
+            }
+        }
 
-        int firstHalfCursor = leftBound;
-        int secondHalfCursor = middleBound;
-        int mergedCursor = 0;
+        System.arraycopy(first, firstCursor, destination, mergedCursor, firstRight - firstCursor);
+        mergedCursor += firstRight - firstCursor;
+        System.arraycopy(second, secondCursor, destination, mergedCursor, secondRight - secondCursor);
+        countMoves((firstRight - firstLeft) + (secondRight - secondLeft));
+    }
 
-        Comparator<T> sortingComparator = getComparator(reversed);
-        while (firstHalfCursor < middleBound && secondHalfCursor < rightBound) {
-            if (sortingComparator.compare(input[firstHalfCursor], input[secondHalfCursor]) <= 0) {
-                merged[mergedCursor] = input[firstHalfCursor];
-                firstHalfCursor++;
+    /**
+     * Returns the first index in the sorted range [leftBound, rightBound) whose element
+     * is not less than key, or with inclusive set, the first whose element is greater.
+     *
+     * @param input Array holding the sorted range
+     * @param leftBound Start of the range
+     * @param rightBound End of the range
+     * @param key Element to search for
+     * @param inclusive If true, elements equal to key are skipped over
+     * @param comparator Comparator the range is sorted by
+     */
+    private static <T> int binarySearchBound(T[] input, int leftBound, int rightBound,
+            T key, boolean inclusive, Comparator<? super T> comparator) {
+        while (leftBound < rightBound) {
+            int middle = (leftBound + rightBound) >>> 1;
+            int comparison = comparator.compare(input[middle], key);
+            if (comparison < 0 || (inclusive && comparison == 0)) {
+                leftBound = middle + 1;
             } else {
-                merged[mergedCursor] = input[secondHalfCursor];
-                secondHalfCursor++;
+                rightBound = middle;
             }
+        }
+        return leftBound;
+    }
 
-            mergedCursor++;
+    /**
+     * Sorts a range of source into destination like pingPongMergeSort(), sorting
+     * each half as a separate task while the range is larger than the threshold.
+     */
+    @SuppressWarnings("serial")
+    private static class MergeSortTask<T> extends RecursiveAction {
+        private final T[] source;
+        private final T[] destination;
+        private final int leftBound;
+        private final int rightBound;
+        private final Comparator<? super T> comparator;
+        private final int threshold;
+
+        MergeSortTask(T[] source, T[] destination, int leftBound, int rightBound,
+                Comparator<? super T> comparator, int threshold) {
+            this.source = source;
+            this.destination = destination;
+            this.leftBound = leftBound;
+            this.rightBound = rightBound;
+            this.comparator = comparator;
+            this.threshold = threshold;
         }
 
-        while (firstHalfCursor < middleBound) {
-            merged[mergedCursor] = input[firstHalfCursor];
-            mergedCursor++;
-            firstHalfCursor++;
+        @Override
+        protected void compute() {
+            if (this.rightBound - this.leftBound <= this.threshold) {
+                pingPongMergeSort(this.source, this.destination, this.leftBound,
+                        this.rightBound, this.comparator);
+                return;
+            }
+
+            int middleBound = (this.leftBound + this.rightBound) >>> 1;
+            invokeAll(new MergeSortTask<>(this.destination, this.source, this.leftBound,
+                            middleBound, this.comparator, this.threshold),
+                    new MergeSortTask<>(this.destination, this.source, middleBound,
+                            this.rightBound, this.comparator, this.threshold));
+            if (this.comparator.compare(this.source[middleBound - 1], this.source[middleBound]) <= 0) {
+                System.arraycopy(this.source, this.leftBound, this.destination, this.leftBound,
+                        this.rightBound - this.leftBound);
+                countMoves(this.rightBound - this.leftBound);
+                return;
+            }
+            new MergeTask<>(this.source, this.leftBound, middleBound, middleBound,
+                    this.rightBound, this.destination, this.leftBound, this.comparator,
+                    this.threshold).compute();
         }
+    }
+
+    /**
+     * Merges two sorted runs like mergeRuns(), splitting the merge into two independent
+     * merges while it is larger than the threshold.
+     *
+     * The middle element of the longer run is located in the shorter run with a binary
+     * search. Everything before the split points in both runs belongs before everything
+     * after them, so the two halves can be merged in parallel.
+     */
+    @SuppressWarnings("serial")
+    private static class MergeTask<T> extends RecursiveAction {
+        private final T[] source;
+        private final int firstLeft;
+        private final int firstRight;
+        private final int secondLeft;
+        private final int secondRight;
+        private final T[] destination;
+        private final int destinationLeft;
+        private final Comparator<? super T> comparator;
+        private final int threshold;
 
-        while (secondHalfCursor < rightBound) {
-            merged[mergedCursor] = input[secondHalfCursor];
-            mergedCursor++;
-            secondHalfCursor++;
+        MergeTask(T[] source, int firstLeft, int firstRight, int secondLeft, int secondRight,
+                T[] destination, int destinationLeft, Comparator<? super T> comparator,
+                int threshold) {
+            this.source = source;
+            this.firstLeft = firstLeft;
+            this.firstRight = firstRight;
+            this.secondLeft = secondLeft;
+            this.secondRight = secondRight;
+            this.destination = destination;
+            this.destinationLeft = destinationLeft;
+            this.comparator = comparator;
+            this.threshold = threshold;
         }
 
-        System.arraycopy(merged, 0, input, leftBound, mergedLength);
+        @Override
+        protected void compute() {
+            int firstLength = this.firstRight - this.firstLeft;
+            int secondLength = this.secondRight - this.secondLeft;
+            if (firstLength + secondLength <= this.threshold || firstLength <= 1 || secondLength <= 1) {
+                mergeRuns(this.source, this.firstLeft, this.firstRight, this.secondLeft,
+                        this.secondRight, this.destination, this.destinationLeft, this.comparator);
+                return;
+            }
+
+            // Ties go to the first run, so its elements equal to the split element stay
+            // on the left of the split, and those of the second run on the right.
+            int firstSplit;
+            int secondSplit;
+            if (firstLength >= secondLength) {
+                firstSplit = (this.firstLeft + this.firstRight) >>> 1;
+                secondSplit = binarySearchBound(this.source, this.secondLeft, this.secondRight,
+                        this.source[firstSplit], false, this.comparator);
+            } else {
+                secondSplit = (this.secondLeft + this.secondRight) >>> 1;
+                firstSplit = binarySearchBound(this.source, this.firstLeft, this.firstRight,
+                        this.source[secondSplit], true, this.comparator);
+            }
+
+            int destinationSplit = this.destinationLeft + (firstSplit - this.firstLeft)
+                    + (secondSplit - this.secondLeft);
+            invokeAll(new MergeTask<>(this.source, this.firstLeft, firstSplit, this.secondLeft,
+                            secondSplit, this.destination, this.destinationLeft, this.comparator,
+                            this.threshold),
+                    new MergeTask<>(this.source, firstSplit, this.firstRight, secondSplit,
+                            this.secondRight, this.destination, destinationSplit, this.comparator,
+                            this.threshold));
+        }
     }
-    
+
     /**
-     * Sorts the given array using the quick sort algorithm.
+     * Sorts the given array using a parallel sample sort on the common ForkJoinPool.
      * This should modify the array in-place.
-     * 
-     * You should use the value at the middle of the input  array(i.e. floor(n/2)) 
-     * as the pivot at each step.
-     * 
+     *
+     * A random sample of the array is sorted, and evenly spaced elements of the
+     * sample are chosen as splitters between buckets. Separate tasks then classify
+     * chunks of the array into the buckets, scatter the elements of each chunk into
+     * the buckets in a single auxiliary array, and sort each bucket. Every element is
+     * moved into its bucket once and back once, rather than once per level of merging.
+     *
+     * Elements equal to a splitter are put in a bucket of their own, which needs no
+     * sorting, so many copies of a few values don't make one bucket much larger than
+     * the others. Arrays smaller than SAMPLE_SORT_THRESHOLD are sorted on the current
+     * thread with quickSort(). The sort is not stable.
+     *
+     * This method has an expected time complexity of O(n log n) and a memory
+     * complexity of O(n).
+     *
      * @param input An array of comparable objects.
      * @param reversed If false, the array should be sorted ascending.
      *                 Otherwise, it should be sorted descending.
      * @requires input != null
      */
-    static <T extends Comparable> void quickSort(T[] input, boolean reversed) {
-        Comparable[] sortedArray = recursiveQuickSort(input, reversed);
-        System.arraycopy(sortedArray, 0, input, 0, input.length);
+    static <T extends Comparable> void parallelSampleSort(T[] input, boolean reversed) {
+        parallelSampleSort(input, getComparator(reversed));
     }
 
     /**
-     * Recursive helper method for Quicksort.
-     *
-     * Sorts the given input array using Quicksort and returns a sorted array.
-     *
-     * @param input An array of comparable objects.
-     * @param reversed If false, the array should be sorted ascending.
-     * @return Sorted array of Comparables.
+     * Sorts the given array by the given comparator using a parallel sample sort, like
+     * parallelSampleSort(T[], boolean).
      *
-     * @requires input != null
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @requires input != null && comparator != null
      */
-    private static <T extends Comparable> Comparable[] recursiveQuickSort(Comparable[] input, boolean reversed) {
-        if (input.length == 1) {
-            return input;
+    static <T> void parallelSampleSort(T[] input, Comparator<? super T> comparator) {
+        int length = input.length;
+        if (length < SAMPLE_SORT_THRESHOLD) {
+            quickSort(input, comparator);
+            return;
         }
 
-        Comparable[] sortedArray = new Comparable[input.length];
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int numSplitters = Math.min(MAX_SPLITTERS,
+                Math.min(8 * parallelism, length / MIN_BUCKET_SIZE)) - 1;
+        T[] splitters = chooseSplitters(input, Math.max(1, numSplitters), comparator);
+        // Bucket 2i holds elements between splitters i - 1 and i, and bucket 2i - 1 holds
+        // elements equal to splitter i - 1.
+        int numBuckets = 2 * splitters.length + 1;
 
-        Comparable[] lesserPartition = new Comparable[0];
-        Comparable[] equalPartition = new Comparable[0];
-        Comparable[] greaterPartition = new Comparable[0];
-        Comparable pivot = input[input.length/2];
+        int numChunks = Math.max(1, Math.min(4 * parallelism, length / MIN_BUCKET_SIZE));
+        int chunkSize = (length + numChunks - 1) / numChunks;
+        short[] buckets = new short[length];
+        int[][] counts = new int[numChunks][numBuckets];
 
-        // Iterate through all elements of input and move elements into the lesser, equal
-        // or greater arrays depending on if the elements are less than, equal to or
-        // greater than the pivot.
-        for (int i = 0; i < input.length; i++) {
-            if (input[i].compareTo(pivot) < 0) {
-                lesserPartition = extendArray(lesserPartition, input[i]);
-            } else if (input[i].compareTo(pivot) == 0) {
-                equalPartition = extendArray(equalPartition, input[i]);
-            } else if (input[i].compareTo(pivot) > 0) {
-                greaterPartition = extendArray(greaterPartition, input[i]);
+        parallelFor(numChunks, chunk -> {
+            int[] chunkCounts = counts[chunk];
+            int end = Math.min(length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                int bucket = classify(input[i], splitters, comparator);
+                buckets[i] = (short) bucket;
+                chunkCounts[bucket]++;
+            }
+        });
+
+        // Turn the counts into the position each chunk writes its next element of each
+        // bucket to, and record where each bucket starts.
+        int[] bucketStarts = new int[numBuckets + 1];
+        int position = 0;
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            bucketStarts[bucket] = position;
+            for (int chunk = 0; chunk < numChunks; chunk++) {
+                int count = counts[chunk][bucket];
+                counts[chunk][bucket] = position;
+                position += count;
+            }
+        }
+        bucketStarts[numBuckets] = length;
+
+        T[] buffer = (T[]) new Object[length];
+        parallelFor(numChunks, chunk -> {
+            int[] offsets = counts[chunk];
+            int end = Math.min(length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                buffer[offsets[buckets[i]]++] = input[i];
+            }
+        });
+        countMoves(length);
+
+        parallelFor(numBuckets, bucket -> {
+            int start = bucketStarts[bucket];
+            int end = bucketStarts[bucket + 1];
+            if (bucket % 2 == 0) {
+                int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, end - start)));
+                introSort(buffer, start, end, depthLimit, true, comparator);
             }
+            System.arraycopy(buffer, start, input, start, end - start);
+            countMoves(end - start);
+        });
+    }
+
+    /**
+     * Returns numSplitters elements of the given array, evenly spaced through a sorted
+     * random sample of SAMPLE_OVERSAMPLING elements per bucket.
+     *
+     * Taking several sample elements per splitter makes the buckets much closer to
+     * equal in size than choosing the splitters themselves at random.
+     *
+     * @param input Array to choose the splitters from
+     * @param numSplitters Number of splitters to choose
+     * @param comparator Comparator to sort by
+     * @return the splitters, in sorted order
+     */
+    private static <T> T[] chooseSplitters(T[] input, int numSplitters,
+            Comparator<? super T> comparator) {
+        int sampleSize = (numSplitters + 1) * SAMPLE_OVERSAMPLING;
+        T[] sample = Arrays.copyOf(input, sampleSize);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = input[random.nextInt(input.length)];
         }
+        quickSort(sample, comparator);
 
-        // Quicksort the array with elements less than the pivot and the array with
-        // elements greater than the pivot.
-        if (lesserPartition.length > 0) {
-            lesserPartition = recursiveQuickSort(lesserPartition, reversed);
+        T[] splitters = Arrays.copyOf(sample, numSplitters);
+        for (int i = 0; i < numSplitters; i++) {
+            splitters[i] = sample[(i + 1) * SAMPLE_OVERSAMPLING];
         }
-        if (greaterPartition.length > 0) {
-            greaterPartition = recursiveQuickSort(greaterPartition, reversed);
+        return splitters;
+    }
+
+    /**
+     * Returns the bucket of parallelSampleSort() the given element belongs to.
+     *
+     * A binary search finds the number of splitters no greater than the element. If
+     * the last of those equals the element, it goes in that splitter's equality bucket.
+     */
+    private static <T> int classify(T element, T[] splitters, Comparator<? super T> comparator) {
+        int splitter = binarySearchBound(splitters, 0, splitters.length, element, true, comparator);
+        if (splitter > 0 && comparator.compare(element, splitters[splitter - 1]) == 0) {
+            return 2 * splitter - 1;
         }
+        return 2 * splitter;
+    }
 
-        // Copy the 3 sorted parts of the list into a sorted array in the order lesser, equal, greater for non-reversed
-        // sort and greater, equal, lesser for reversed sort.
-        if (!reversed) {
-            System.arraycopy(lesserPartition, 0, sortedArray, 0, lesserPartition.length);
-            System.arraycopy(equalPartition, 0, sortedArray, lesserPartition.length, equalPartition.length);
-            System.arraycopy(greaterPartition, 0, sortedArray,
-                    lesserPartition.length + equalPartition.length, greaterPartition.length);
-        } else {
-            System.arraycopy(greaterPartition, 0, sortedArray, 0, greaterPartition.length);
-            System.arraycopy(equalPartition, 0, sortedArray, greaterPartition.length, equalPartition.length);
-            System.arraycopy(lesserPartition, 0, sortedArray,
-                    greaterPartition.length + equalPartition.length, lesserPartition.length);
+    /**
+     * Calls body with every index from 0 to count - 1, as tasks on the common
+     * ForkJoinPool, and waits for every call to finish.
+     *
+     * @param count Number of indices
+     * @param body Code to run for each index
+     */
+    private static void parallelFor(int count, IntConsumer body) {
+        ForkJoinPool.commonPool().invoke(new ParallelForTask(0, count, body));
+    }
+
+    /**
+     * Runs the body of parallelFor() for a range of indices, splitting the range in
+     * half until each task has a single index.
+     */
+    @SuppressWarnings("serial")
+    private static class ParallelForTask extends RecursiveAction {
+        private final int start;
+        private final int end;
+        private final IntConsumer body;
+
+        ParallelForTask(int start, int end, IntConsumer body) {
+            this.start = start;
+            this.end = end;
+            this.body = body;
         }
 
-        return sortedArray;
+        @Override
+        protected void compute() {
+            if (this.end - this.start == 1) {
+                this.body.accept(this.start);
+                return;
+            }
+
+            int middle = (this.start + this.end) >>> 1;
+            invokeAll(new ParallelForTask(this.start, middle, this.body),
+                    new ParallelForTask(middle, this.end, this.body));
+        }
+    }
+
+    /**
+     * Sorts the given array using the quick sort algorithm.
+     * This should modify the array in-place.
+     *
+     * The array is partitioned in-place around the median of three elements, or for
+     * larger ranges the median of three such medians (the ninther), into the elements
+     * less than, equal to and greater than the pivot. Only the smaller of the lesser and
+     * greater partitions is sorted recursively, and the larger is sorted by the same
+     * call, so the recursion is at most O(log n) deep. Small partitions are finished
+     * with insertion sort. If a range is partitioned more than 2 log n times without
+     * being sorted, the pivots are consistently bad, so it is heapsorted instead
+     * (introsort).
+     *
+     * This method has a time complexity of O(n log n) in the worst case and O(n) when
+     * there are only a constant number of distinct elements. Memory complexity is
+     * O(log n) for the recursion.
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static <T extends Comparable> void quickSort(T[] input, boolean reversed) {
+        quickSort(input, getComparator(reversed));
+    }
+
+    /**
+     * Sorts the given array by the given comparator using quick sort, like
+     * quickSort(T[], boolean).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @requires input != null && comparator != null
+     */
+    static <T> void quickSort(T[] input, Comparator<? super T> comparator) {
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, input.length)));
+        introSort(input, 0, input.length, depthLimit, true, comparator);
+    }
+
+    /**
+     * Sorts the given array using the heap sort algorithm.
+     * This should modify the array in-place.
+     *
+     * This method has a time complexity of O(n log n) and a memory complexity of O(1).
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static <T extends Comparable> void heapSort(T[] input, boolean reversed) {
+        heapSort(input, getComparator(reversed));
+    }
+
+    /**
+     * Sorts the given array by the given comparator using heap sort, like
+     * heapSort(T[], boolean).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @requires input != null && comparator != null
+     */
+    static <T> void heapSort(T[] input, Comparator<? super T> comparator) {
+        heapSort(input, 0, input.length, comparator);
     }
 
     /**
-     * Extend the given array of Comparables by creating a new array with length one
-     * greater than the input array. Insert the given value into this new array.
-     * @param input Array to extend
-     * @param insert Value to insert in new space
-     * @return Extended array
+     * Sorts the range [leftBound, rightBound) of the given array with introsort.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param depthLimit Number of partitioning steps left before falling back to heapsort
+     * @param leftmost Whether the range starts the array being sorted. Otherwise the
+     *      element before it is a previous pivot no greater than any element of the
+     *      range, so small ranges can use unguardedInsertionSort()
+     * @param comparator Comparator to sort by
      */
-    private static Comparable[] extendArray(Comparable[] input, Comparable insert) {
-        Comparable[] output = new Comparable[input.length + 1];
-        System.arraycopy(input, 0, output, 0, input.length);
-        output[input.length] = insert;
-        return output;
+    private static <T> void introSort(T[] input, int leftBound, int rightBound, int depthLimit,
+            boolean leftmost, Comparator<? super T> comparator) {
+        while (rightBound - leftBound > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(input, leftBound, rightBound, comparator);
+                return;
+            }
+            depthLimit--;
+
+            T pivot = input[choosePivot(input, leftBound, rightBound, comparator)];
+
+            // Dutch national flag partition, comparing each element to the pivot once.
+            // Afterwards [leftBound, lesserEnd) < pivot, [lesserEnd, greaterStart) == pivot
+            // and [greaterStart, rightBound) > pivot.
+            int lesserEnd = leftBound;
+            int cursor = leftBound;
+            int greaterStart = rightBound;
+            while (cursor < greaterStart) {
+                int comparison = comparator.compare(input[cursor], pivot);
+                if (comparison < 0) {
+                    swap(input, lesserEnd++, cursor++);
+                } else if (comparison > 0) {
+                    swap(input, cursor, --greaterStart);
+                } else {
+                    cursor++;
+                }
+            }
+
+            // Recurse into the smaller partition and loop on the larger one.
+            if (lesserEnd - leftBound < rightBound - greaterStart) {
+                introSort(input, leftBound, lesserEnd, depthLimit, leftmost, comparator);
+                leftBound = greaterStart;
+                leftmost = false;
+            } else {
+                introSort(input, greaterStart, rightBound, depthLimit, false, comparator);
+                rightBound = lesserEnd;
+            }
+        }
+
+        if (leftmost) {
+            insertionSort(input, leftBound, rightBound, comparator);
+        } else {
+            unguardedInsertionSort(input, leftBound, rightBound, comparator);
+        }
+    }
+
+    /**
+     * Returns the index of the pivot for the range [leftBound, rightBound), the median
+     * of its first, middle and last elements, or for large ranges the median of the
+     * medians of three evenly spaced groups of three.
+     *
+     * @param input Array holding the range
+     * @param leftBound Start of the range
+     * @param rightBound End of the range
+     * @param comparator Comparator to sort by
+     */
+    private static <T> int choosePivot(T[] input, int leftBound, int rightBound,
+            Comparator<? super T> comparator) {
+        int last = rightBound - 1;
+        int middle = (leftBound + last) >>> 1;
+        if (rightBound - leftBound < NINTHER_THRESHOLD) {
+            return medianOfThree(input, leftBound, middle, last, comparator);
+        }
+
+        int step = (rightBound - leftBound) / 8;
+        int first = medianOfThree(input, leftBound, leftBound + step, leftBound + 2 * step, comparator);
+        int second = medianOfThree(input, middle - step, middle, middle + step, comparator);
+        int third = medianOfThree(input, last - 2 * step, last - step, last, comparator);
+        return medianOfThree(input, first, second, third, comparator);
+    }
+
+    /**
+     * Returns whichever of the indices i, j and k holds the median of their elements.
+     */
+    private static <T> int medianOfThree(T[] input, int i, int j, int k,
+            Comparator<? super T> comparator) {
+        if (comparator.compare(input[i], input[j]) < 0) {
+            if (comparator.compare(input[j], input[k]) < 0) {
+                return j;
+            }
+            return comparator.compare(input[i], input[k]) < 0 ? k : i;
+        }
+        if (comparator.compare(input[i], input[k]) < 0) {
+            return i;
+        }
+        return comparator.compare(input[j], input[k]) < 0 ? k : j;
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array in-place using heapsort.
+     * The range is turned into a binary max-heap, then the largest element is
+     * repeatedly swapped to the end of the heap.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param comparator Comparator to sort by
+     */
+    private static <T> void heapSort(T[] input, int leftBound, int rightBound,
+            Comparator<? super T> comparator) {
+        int length = rightBound - leftBound;
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            siftDown(input, leftBound, i, length, comparator);
+        }
+        for (int heapSize = length - 1; heapSize > 0; heapSize--) {
+            swap(input, leftBound, leftBound + heapSize);
+            siftDown(input, leftBound, 0, heapSize, comparator);
+        }
+    }
+
+    /**
+     * Moves the element at the given position of a max-heap stored from offset down
+     * until neither of its children is larger.
+     *
+     * @param input Array holding the heap
+     * @param offset Index of the root of the heap
+     * @param position Position in the heap of the element to move
+     * @param heapSize Number of elements in the heap
+     * @param comparator Comparator the heap is ordered by
+     */
+    private static <T> void siftDown(T[] input, int offset, int position, int heapSize,
+            Comparator<? super T> comparator) {
+        T element = input[offset + position];
+        int child;
+        while ((child = 2 * position + 1) < heapSize) {
+            if (child + 1 < heapSize
+                    && comparator.compare(input[offset + child + 1], input[offset + child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(element, input[offset + child]) >= 0) {
+                break;
+            }
+            input[offset + position] = input[offset + child];
+            position = child;
+            countMoves(1);
+        }
+        input[offset + position] = element;
+        countMoves(1);
+    }
+
+    /**
+     * Swaps the elements at indices i and j of the given array.
+     */
+    private static void swap(Object[] input, int i, int j) {
+        Object temp = input[i];
+        input[i] = input[j];
+        input[j] = temp;
+        countMoves(2);
+    }
+
+    /**
+     * Records that the given number of elements were moved, if instrumentation is
+     * enabled. When it isn't, the JIT removes the call, see SortingStats.
+     */
+    private static void countMoves(long moves) {
+        if (SortingStats.ENABLED) {
+            SortingStats.recordMoves(moves);
+        }
+    }
+
+    /**
+     * Sorts the given array using an adaptive merge sort in the style of TimSort.
+     * This should modify the array in-place.
+     *
+     * The array is scanned for natural runs, which are either ascending or strictly
+     * descending. Descending runs are reversed, and runs shorter than a minimum length
+     * are extended with binary insertion sort. The runs are merged as they are found,
+     * keeping the lengths of the runs waiting to be merged balanced, and the merges
+     * gallop through long stretches taken from the same run. The sort is stable.
+     *
+     * This method has a time complexity of O(n log n), and O(n) when the array is
+     * already sorted, sorted in reverse, or made of a few sorted runs. Memory
+     * complexity is O(n).
+     *
+     * @param input An array of comparable objects.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @throws IllegalArgumentException if the elements' compareTo() is inconsistent
+     * @requires input != null
+     */
+    static <T extends Comparable> void timSort(T[] input, boolean reversed) {
+        timSort(input, getComparator(reversed));
+    }
+
+    /**
+     * Sorts the given array by the given comparator using an adaptive merge sort, like
+     * timSort(T[], boolean).
+     *
+     * @param input An array of objects.
+     * @param comparator Comparator to sort by.
+     * @throws IllegalArgumentException if the comparator is inconsistent
+     * @requires input != null && comparator != null
+     */
+    static <T> void timSort(T[] input, Comparator<? super T> comparator) {
+        if (input.length < 2) {
+            return;
+        }
+
+        new RunMerger<>(input, comparator).sort();
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array with binary insertion
+     * sort, given that [leftBound, start) is already sorted. Each element is placed with
+     * a binary search, after any elements equal to it, so the sort is stable.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param start Index of the first element that isn't already sorted
+     * @param comparator Comparator to sort by
+     */
+    static <T> void binaryInsertionSort(T[] input, int leftBound, int rightBound,
+            int start, Comparator<? super T> comparator) {
+        for (int i = start; i < rightBound; i++) {
+            T selection = input[i];
+            int position = binarySearchBound(input, leftBound, i, selection, true, comparator);
+            System.arraycopy(input, position, input, position + 1, i - position);
+            input[position] = selection;
+            countMoves(i - position + 1);
+        }
+    }
+
+    /**
+     * Finds and merges the natural runs of an array for timSort().
+     *
+     * The start and length of each run not yet merged are kept on a stack. Whenever a
+     * run is pushed, runs are merged until every run on the stack is longer than the
+     * two above it combined, and longer than the one directly above it. The lengths
+     * therefore grow at least as fast as the Fibonacci numbers, so the stack stays
+     * O(log n) deep and runs of similar lengths are merged together.
+     */
+    private static class RunMerger<T> {
+        /* Runs shorter than this are extended with binary insertion sort. */
+        private static final int MIN_MERGE = 32;
+        /* Consecutive wins by one run before a merge starts galloping. */
+        private static final int MIN_GALLOP = 7;
+        /* Enough runs for any array, as the run lengths grow like the Fibonacci numbers. */
+        private static final int MAX_RUNS = 49;
+
+        private final T[] input;
+        private final Comparator<? super T> comparator;
+        /* Holds a copy of the shorter of the two runs being merged. */
+        private final T[] buffer;
+        private final int[] runStarts = new int[MAX_RUNS];
+        private final int[] runLengths = new int[MAX_RUNS];
+        private int numRuns = 0;
+        /*
+         * Wins needed to start galloping. It rises when galloping doesn't pay off and
+         * falls when it does, so random data mostly merges one element at a time.
+         */
+        private int minGallop = MIN_GALLOP;
+
+        RunMerger(T[] input, Comparator<? super T> comparator) {
+            this.input = input;
+            this.comparator = comparator;
+            this.buffer = (T[]) new Object[input.length / 2];
+        }
+
+        void sort() {
+            int minRun = minRunLength(this.input.length);
+            int start = 0;
+            while (start < this.input.length) {
+                int runLength = this.findRun(start);
+                if (runLength < minRun) {
+                    int extendedLength = Math.min(minRun, this.input.length - start);
+                    binaryInsertionSort(this.input, start, start + extendedLength,
+                            start + runLength, this.comparator);
+                    runLength = extendedLength;
+                }
+
+                this.runStarts[this.numRuns] = start;
+                this.runLengths[this.numRuns] = runLength;
+                this.numRuns++;
+                this.mergeCollapse();
+                start += runLength;
+            }
+
+            while (this.numRuns > 1) {
+                int n = this.numRuns - 2;
+                if (n > 0 && this.runLengths[n - 1] < this.runLengths[n + 1]) {
+                    n--;
+                }
+                this.mergeAt(n);
+            }
+        }
+
+        /**
+         * Returns a minimum run length between MIN_MERGE / 2 and MIN_MERGE, chosen so
+         * that length / minRun is a power of two or just under one. The final merges are
+         * then between runs of close to equal length.
+         */
+        private static int minRunLength(int length) {
+            int lowBits = 0;
+            while (length >= MIN_MERGE) {
+                lowBits |= length & 1;
+                length >>= 1;
+            }
+            return length + lowBits;
+        }
+
+        /**
+         * Returns the length of the run starting at start, reversing it first if it is
+         * strictly descending. Only strictly descending runs are reversed, so equal
+         * elements never swap places.
+         */
+        private int findRun(int start) {
+            int end = start + 1;
+            if (end == this.input.length) {
+                return 1;
+            }
+
+            if (this.comparator.compare(this.input[end++], this.input[start]) < 0) {
+                while (end < this.input.length
+                        && this.comparator.compare(this.input[end], this.input[end - 1]) < 0) {
+                    end++;
+                }
+                for (int i = start, j = end - 1; i < j; i++, j--) {
+                    swap(this.input, i, j);
+                }
+            } else {
+                while (end < this.input.length
+                        && this.comparator.compare(this.input[end], this.input[end - 1]) >= 0) {
+                    end++;
+                }
+            }
+            return end - start;
+        }
+
+        /**
+         * Merges runs at the top of the stack until the invariants on their lengths
+         * hold again. The runs below the top three are checked as well, as merging can
+         * break the invariant further down the stack.
+         */
+        private void mergeCollapse() {
+            while (this.numRuns > 1) {
+                int n = this.numRuns - 2;
+                int[] lengths = this.runLengths;
+                if ((n > 0 && lengths[n - 1] <= lengths[n] + lengths[n + 1])
+                        || (n > 1 && lengths[n - 2] <= lengths[n - 1] + lengths[n])) {
+                    if (lengths[n - 1] < lengths[n + 1]) {
+                        n--;
+                    }
+                } else if (lengths[n] > lengths[n + 1]) {
+                    break;
+                }
+                this.mergeAt(n);
+            }
+        }
+
+        /**
+         * Merges the runs at positions i and i + 1 of the stack.
+         *
+         * Elements at the start of the first run that are no greater than the first
+         * element of the second run are already in place, as are elements at the end of
+         * the second run no less than the last element of the first. Both are found by
+         * galloping and left out of the merge.
+         */
+        private void mergeAt(int i) {
+            int firstStart = this.runStarts[i];
+            int firstLength = this.runLengths[i];
+            int secondStart = this.runStarts[i + 1];
+            int secondLength = this.runLengths[i + 1];
+
+            this.runLengths[i] = firstLength + secondLength;
+            if (i == this.numRuns - 3) {
+                this.runStarts[i + 1] = this.runStarts[i + 2];
+                this.runLengths[i + 1] = this.runLengths[i + 2];
+            }
+            this.numRuns--;
+
+            int skipped = gallopRight(this.input[secondStart], this.input, firstStart,
+                    firstLength, 0, this.comparator);
+            firstStart += skipped;
+            firstLength -= skipped;
+            if (firstLength == 0) {
+                return;
+            }
+
+            secondLength = gallopLeft(this.input[firstStart + firstLength - 1], this.input,
+                    secondStart, secondLength, secondLength - 1, this.comparator);
+            if (secondLength == 0) {
+                return;
+            }
+
+            if (firstLength <= secondLength) {
+                this.mergeLow(firstStart, firstLength, secondStart, secondLength);
+            } else {
+                this.mergeHigh(firstStart, firstLength, secondStart, secondLength);
+            }
+        }
+
+        /**
+         * Merges two adjacent runs from left to right, copying the first, shorter run
+         * into the buffer. The first element of the second run is known to be less than
+         * the first element of the first run, and the last element of the first run
+         * greater than every element of the second run.
+         */
+        private void mergeLow(int firstStart, int firstLength, int secondStart, int secondLength) {
+            T[] input = this.input;
+            T[] buffer = this.buffer;
+            Comparator<? super T> comparator = this.comparator;
+            System.arraycopy(input, firstStart, buffer, 0, firstLength);
+            countMoves(2 * firstLength + secondLength);
+
+            int firstCursor = 0;
+            int secondCursor = secondStart;
+            int destination = firstStart;
+            input[destination++] = input[secondCursor++];
+            if (--secondLength == 0) {
+                System.arraycopy(buffer, firstCursor, input, destination, firstLength);
+                return;
+            }
+            if (firstLength == 1) {
+                System.arraycopy(input, secondCursor, input, destination, secondLength);
+                input[destination + secondLength] = buffer[firstCursor];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int firstWins = 0;
+                int secondWins = 0;
+
+                // Take one element at a time until one run keeps winning.
+                do {
+                    if (comparator.compare(input[secondCursor], buffer[firstCursor]) < 0) {
+                        input[destination++] = input[secondCursor++];
+                        secondWins++;
+                        firstWins = 0;
+                        if (--secondLength == 0) {
+                            break outer;
+                        }
+                    } else {
+                        input[destination++] = buffer[firstCursor++];
+                        firstWins++;
+                        secondWins = 0;
+                        if (--firstLength == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((firstWins | secondWins) < minGallop);
+
+                // Gallop, copying whole stretches of each run, until that stops paying off.
+                do {
+                    firstWins = gallopRight(input[secondCursor], buffer, firstCursor,
+                            firstLength, 0, comparator);
+                    if (firstWins != 0) {
+                        System.arraycopy(buffer, firstCursor, input, destination, firstWins);
+                        destination += firstWins;
+                        firstCursor += firstWins;
+                        firstLength -= firstWins;
+                        if (firstLength <= 1) {
+                            break outer;
+                        }
+                    }
+                    input[destination++] = input[secondCursor++];
+                    if (--secondLength == 0) {
+                        break outer;
+                    }
+
+                    secondWins = gallopLeft(buffer[firstCursor], input, secondCursor,
+                            secondLength, 0, comparator);
+                    if (secondWins != 0) {
+                        System.arraycopy(input, secondCursor, input, destination, secondWins);
+                        destination += secondWins;
+                        secondCursor += secondWins;
+                        secondLength -= secondWins;
+                        if (secondLength == 0) {
+                            break outer;
+                        }
+                    }
+                    input[destination++] = buffer[firstCursor++];
+                    if (--firstLength == 1) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (firstWins >= MIN_GALLOP || secondWins >= MIN_GALLOP);
+
+                minGallop = Math.max(0, minGallop) + 2;
+            }
+            this.minGallop = Math.max(1, minGallop);
+
+            if (firstLength == 1) {
+                System.arraycopy(input, secondCursor, input, destination, secondLength);
+                input[destination + secondLength] = buffer[firstCursor];
+            } else if (firstLength == 0) {
+                throw new IllegalArgumentException("Comparison method violates its general contract");
+            } else {
+                System.arraycopy(buffer, firstCursor, input, destination, firstLength);
+            }
+        }
+
+        /**
+         * Merges two adjacent runs from right to left, copying the second, shorter run
+         * into the buffer. The same conditions on the runs hold as for mergeLow().
+         */
+        private void mergeHigh(int firstStart, int firstLength, int secondStart, int secondLength) {
+            T[] input = this.input;
+            T[] buffer = this.buffer;
+            Comparator<? super T> comparator = this.comparator;
+            System.arraycopy(input, secondStart, buffer, 0, secondLength);
+            countMoves(firstLength + 2 * secondLength);
+
+            int firstCursor = firstStart + firstLength - 1;
+            int secondCursor = secondLength - 1;
+            int destination = secondStart + secondLength - 1;
+            input[destination--] = input[firstCursor--];
+            if (--firstLength == 0) {
+                System.arraycopy(buffer, 0, input, destination - (secondLength - 1), secondLength);
+                return;
+            }
+            if (secondLength == 1) {
+                destination -= firstLength;
+                firstCursor -= firstLength;
+                System.arraycopy(input, firstCursor + 1, input, destination + 1, firstLength);
+                input[destination] = buffer[secondCursor];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int firstWins = 0;
+                int secondWins = 0;
+
+                do {
+                    if (comparator.compare(buffer[secondCursor], input[firstCursor]) < 0) {
+                        input[destination--] = input[firstCursor--];
+                        firstWins++;
+                        secondWins = 0;
+                        if (--firstLength == 0) {
+                            break outer;
+                        }
+                    } else {
+                        input[destination--] = buffer[secondCursor--];
+                        secondWins++;
+                        firstWins = 0;
+                        if (--secondLength == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((firstWins | secondWins) < minGallop);
+
+                do {
+                    firstWins = firstLength - gallopRight(buffer[secondCursor], input, firstStart,
+                            firstLength, firstLength - 1, comparator);
+                    if (firstWins != 0) {
+                        destination -= firstWins;
+                        firstCursor -= firstWins;
+                        firstLength -= firstWins;
+                        System.arraycopy(input, firstCursor + 1, input, destination + 1, firstWins);
+                        if (firstLength == 0) {
+                            break outer;
+                        }
+                    }
+                    input[destination--] = buffer[secondCursor--];
+                    if (--secondLength == 1) {
+                        break outer;
+                    }
+
+                    secondWins = secondLength - gallopLeft(input[firstCursor], buffer, 0,
+                            secondLength, secondLength - 1, comparator);
+                    if (secondWins != 0) {
+                        destination -= secondWins;
+                        secondCursor -= secondWins;
+                        secondLength -= secondWins;
+                        System.arraycopy(buffer, secondCursor + 1, input, destination + 1, secondWins);
+                        if (secondLength <= 1) {
+                            break outer;
+                        }
+                    }
+                    input[destination--] = input[firstCursor--];
+                    if (--firstLength == 0) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (firstWins >= MIN_GALLOP || secondWins >= MIN_GALLOP);
+
+                minGallop = Math.max(0, minGallop) + 2;
+            }
+            this.minGallop = Math.max(1, minGallop);
+
+            if (secondLength == 1) {
+                destination -= firstLength;
+                firstCursor -= firstLength;
+                System.arraycopy(input, firstCursor + 1, input, destination + 1, firstLength);
+                input[destination] = buffer[secondCursor];
+            } else if (secondLength == 0) {
+                throw new IllegalArgumentException("Comparison method violates its general contract");
+            } else {
+                System.arraycopy(buffer, 0, input, destination - (secondLength - 1), secondLength);
+            }
+        }
+
+        /**
+         * Returns the number of elements of the sorted range [start, start + length)
+         * that are less than key. The search starts at start + hint and checks
+         * exponentially growing distances from it before a binary search, so it takes
+         * O(log k) comparisons where k is the distance from the hint to the answer.
+         */
+        private static <T> int gallopLeft(T key, T[] input, int start, int length, int hint,
+                Comparator<? super T> comparator) {
+            int lastOffset = 0;
+            int offset = 1;
+            if (comparator.compare(key, input[start + hint]) > 0) {
+                // Gallop right until input[start + hint + lastOffset] < key <= input[start + hint + offset].
+                int maxOffset = length - hint;
+                while (offset < maxOffset && comparator.compare(key, input[start + hint + offset]) > 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                offset = Math.min(offset, maxOffset);
+                lastOffset += hint;
+                offset += hint;
+            } else {
+                // Gallop left until input[start + hint - offset] < key <= input[start + hint - lastOffset].
+                int maxOffset = hint + 1;
+                while (offset < maxOffset && comparator.compare(key, input[start + hint - offset]) <= 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                offset = Math.min(offset, maxOffset);
+                int temp = lastOffset;
+                lastOffset = hint - offset;
+                offset = hint - temp;
+            }
+
+            // The answer is in (lastOffset, offset].
+            lastOffset++;
+            while (lastOffset < offset) {
+                int middle = lastOffset + ((offset - lastOffset) >>> 1);
+                if (comparator.compare(key, input[start + middle]) > 0) {
+                    lastOffset = middle + 1;
+                } else {
+                    offset = middle;
+                }
+            }
+            return offset;
+        }
+
+        /**
+         * Returns the number of elements of the sorted range [start, start + length)
+         * that are less than or equal to key, searching from the hint like gallopLeft().
+         */
+        private static <T> int gallopRight(T key, T[] input, int start, int length, int hint,
+                Comparator<? super T> comparator) {
+            int lastOffset = 0;
+            int offset = 1;
+            if (comparator.compare(key, input[start + hint]) < 0) {
+                // Gallop left until input[start + hint - offset] <= key < input[start + hint - lastOffset].
+                int maxOffset = hint + 1;
+                while (offset < maxOffset && comparator.compare(key, input[start + hint - offset]) < 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                offset = Math.min(offset, maxOffset);
+                int temp = lastOffset;
+                lastOffset = hint - offset;
+                offset = hint - temp;
+            } else {
+                // Gallop right until input[start + hint + lastOffset] <= key < input[start + hint + offset].
+                int maxOffset = length - hint;
+                while (offset < maxOffset && comparator.compare(key, input[start + hint + offset]) >= 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                offset = Math.min(offset, maxOffset);
+                lastOffset += hint;
+                offset += hint;
+            }
+
+            lastOffset++;
+            while (lastOffset < offset) {
+                int middle = lastOffset + ((offset - lastOffset) >>> 1);
+                if (comparator.compare(key, input[start + middle]) < 0) {
+                    offset = middle;
+                } else {
+                    lastOffset = middle + 1;
+                }
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Sorts the given array of ints using a dual-pivot quicksort.
+     * This should modify the array in-place.
+     *
+     * Elements are compared with the primitive operators rather than a Comparator,
+     * so nothing is boxed. A reversed sort is an ascending sort followed by reversing
+     * the array in O(n) time.
+     *
+     * This method has an expected time complexity of O(n log n) and a memory
+     * complexity of O(log n) for the recursion.
+     *
+     * @param input An array of ints.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void quickSort(int[] input, boolean reversed) {
+        dualPivotQuickSort(input, 0, input.length - 1);
+        if (reversed) {
+            reverse(input);
+        }
+    }
+
+    /**
+     * Sorts the given array of longs using a dual-pivot quicksort.
+     * This should modify the array in-place.
+     *
+     * This method has the same complexity as quickSort(int[], boolean).
+     *
+     * @param input An array of longs.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void quickSort(long[] input, boolean reversed) {
+        dualPivotQuickSort(input, 0, input.length - 1);
+        if (reversed) {
+            reverse(input);
+        }
+    }
+
+    /**
+     * Sorts the given array of doubles using a dual-pivot quicksort.
+     * This should modify the array in-place.
+     *
+     * Elements are ordered like Double.compare(), so -0.0 comes before 0.0 and NaN
+     * comes after every other value. NaNs are moved to the end before sorting and
+     * negative zeros are moved in front of positive zeros afterwards, as the primitive
+     * comparison operators treat them differently.
+     *
+     * This method has the same complexity as quickSort(int[], boolean).
+     *
+     * @param input An array of doubles.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void quickSort(double[] input, boolean reversed) {
+        int lastNumber = input.length - 1;
+        for (int i = lastNumber; i >= 0; i--) {
+            double element = input[i];
+            if (Double.isNaN(element)) {
+                input[i] = input[lastNumber];
+                input[lastNumber--] = element;
+            }
+        }
+
+        dualPivotQuickSort(input, 0, lastNumber);
+
+        // The zeros are now together but -0.0 and 0.0 are in any order.
+        int zero = 0;
+        int high = lastNumber + 1;
+        while (zero < high) {
+            int middle = (zero + high) >>> 1;
+            if (input[middle] < 0.0) {
+                zero = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int negativeZeros = 0;
+        for (int i = zero; i <= lastNumber && input[i] == 0.0; i++) {
+            if (Double.doubleToRawLongBits(input[i]) < 0) {
+                negativeZeros++;
+            }
+        }
+        for (int i = zero; i < zero + negativeZeros; i++) {
+            input[i] = -0.0;
+        }
+        for (int i = zero + negativeZeros; i <= lastNumber && input[i] == 0.0; i++) {
+            input[i] = 0.0;
+        }
+
+        if (reversed) {
+            reverse(input);
+        }
+    }
+
+    /**
+     * Sorts the given array of ints using a least significant digit radix sort.
+     * This should modify the array in-place.
+     *
+     * The ints are distributed by each of their four bytes in turn, from the least
+     * significant, which keeps them sorted by the bytes already seen. The sign bit is
+     * flipped in the most significant byte so negative ints come first, and every
+     * digit is complemented for a reversed sort. The counts for all four bytes are
+     * taken in one pass, and a byte is skipped if every element has the same value
+     * for it. No element is ever compared with another.
+     *
+     * This method has a time complexity of O(n) and a memory complexity of O(n).
+     *
+     * @param input An array of ints.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void radixSort(int[] input, boolean reversed) {
+        int length = input.length;
+        if (length < 2) {
+            return;
+        }
+
+        int flip = reversed ? 0xFF : 0;
+        int[][] counts = new int[Integer.BYTES][RADIX + 1];
+        for (int element : input) {
+            for (int digit = 0; digit < Integer.BYTES; digit++) {
+                counts[digit][intDigit(element, digit, flip) + 1]++;
+            }
+        }
+
+        int[] source = input;
+        int[] destination = new int[length];
+        for (int digit = 0; digit < Integer.BYTES; digit++) {
+            int[] offsets = counts[digit];
+            if (offsets[intDigit(source[0], digit, flip) + 1] == length) {
+                continue;
+            }
+
+            for (int i = 1; i <= RADIX; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            for (int element : source) {
+                destination[offsets[intDigit(element, digit, flip)]++] = element;
+            }
+
+            int[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+
+        if (source != input) {
+            System.arraycopy(source, 0, input, 0, length);
+        }
+    }
+
+    /**
+     * Sorts the given array of longs using a least significant digit radix sort.
+     * This should modify the array in-place.
+     *
+     * This works like radixSort(int[], boolean) over the eight bytes of each long,
+     * with the same time and memory complexity.
+     *
+     * @param input An array of longs.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void radixSort(long[] input, boolean reversed) {
+        int length = input.length;
+        if (length < 2) {
+            return;
+        }
+
+        int flip = reversed ? 0xFF : 0;
+        int[][] counts = new int[Long.BYTES][RADIX + 1];
+        for (long element : input) {
+            for (int digit = 0; digit < Long.BYTES; digit++) {
+                counts[digit][longDigit(element, digit, flip) + 1]++;
+            }
+        }
+
+        long[] source = input;
+        long[] destination = new long[length];
+        for (int digit = 0; digit < Long.BYTES; digit++) {
+            int[] offsets = counts[digit];
+            if (offsets[longDigit(source[0], digit, flip) + 1] == length) {
+                continue;
+            }
+
+            for (int i = 1; i <= RADIX; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            for (long element : source) {
+                destination[offsets[longDigit(element, digit, flip)]++] = element;
+            }
+
+            long[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+
+        if (source != input) {
+            System.arraycopy(source, 0, input, 0, length);
+        }
+    }
+
+    /**
+     * Sorts the given array of doubles using a least significant digit radix sort.
+     * This should modify the array in-place.
+     *
+     * Each double is converted to a long that orders the same way as the doubles under
+     * Double.compare(). The bits of a positive double already order like a long, and
+     * those of a negative double order backwards, so every bit but the sign is flipped
+     * for negative doubles. The longs are then radix sorted and converted back.
+     *
+     * This method has a time complexity of O(n) and a memory complexity of O(n).
+     *
+     * @param input An array of doubles.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void radixSort(double[] input, boolean reversed) {
+        long[] keys = new long[input.length];
+        for (int i = 0; i < input.length; i++) {
+            long bits = Double.doubleToLongBits(input[i]);
+            keys[i] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+
+        radixSort(keys, reversed);
+
+        for (int i = 0; i < input.length; i++) {
+            long key = keys[i];
+            input[i] = Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Sorts the given array by an int key extracted from each element.
+     * This should modify the array in-place.
+     *
+     * The key of each element is extracted exactly once into a primitive array, and
+     * the keys are radix sorted together with the original index of each element.
+     * The elements are then moved to their sorted positions, so no Comparable adapter
+     * has to be allocated per element and no key is computed more than once. Elements
+     * with equal keys keep their original order.
+     *
+     * This method has a time complexity of O(n) plus n calls to key, and a memory
+     * complexity of O(n).
+     *
+     * @param input An array of objects.
+     * @param key Extracts the key to sort each element by.
+     * @param reversed If false, the array should be sorted by ascending key.
+     *                 Otherwise, it should be sorted by descending key.
+     * @requires input != null && key != null
+     */
+    static <T> void sortByIntKey(T[] input, ToIntFunction<? super T> key, boolean reversed) {
+        long[] keys = new long[input.length];
+        for (int i = 0; i < input.length; i++) {
+            // Offset so the keys are non-negative and the upper four bytes are skipped.
+            keys[i] = (long) key.applyAsInt(input[i]) - Integer.MIN_VALUE;
+        }
+        sortByKeys(input, keys, reversed);
+    }
+
+    /**
+     * Sorts the given array by a long key extracted from each element, like
+     * sortByIntKey(T[], ToIntFunction, boolean).
+     *
+     * @param input An array of objects.
+     * @param key Extracts the key to sort each element by.
+     * @param reversed If false, the array should be sorted by ascending key.
+     *                 Otherwise, it should be sorted by descending key.
+     * @requires input != null && key != null
+     */
+    static <T> void sortByLongKey(T[] input, ToLongFunction<? super T> key, boolean reversed) {
+        long[] keys = new long[input.length];
+        for (int i = 0; i < input.length; i++) {
+            keys[i] = key.applyAsLong(input[i]);
+        }
+        sortByKeys(input, keys, reversed);
+    }
+
+    /**
+     * Sorts the given array by the given keys, where keys[i] is the key of input[i].
+     *
+     * @param input Array to sort
+     * @param keys The key of each element, which is overwritten
+     * @param reversed If true, sorts by descending key
+     */
+    private static <T> void sortByKeys(T[] input, long[] keys, boolean reversed) {
+        int length = input.length;
+        if (length < 2) {
+            return;
+        }
+
+        int[] indices = identityPermutation(length);
+
+        // The same passes as radixSort(long[], boolean), moving each index with its key.
+        int flip = reversed ? 0xFF : 0;
+        int[][] counts = new int[Long.BYTES][RADIX + 1];
+        for (long element : keys) {
+            for (int digit = 0; digit < Long.BYTES; digit++) {
+                counts[digit][longDigit(element, digit, flip) + 1]++;
+            }
+        }
+
+        long[] sourceKeys = keys;
+        long[] destinationKeys = new long[length];
+        int[] sourceIndices = indices;
+        int[] destinationIndices = new int[length];
+        for (int digit = 0; digit < Long.BYTES; digit++) {
+            int[] offsets = counts[digit];
+            if (offsets[longDigit(sourceKeys[0], digit, flip) + 1] == length) {
+                continue;
+            }
+
+            for (int i = 1; i <= RADIX; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            for (int i = 0; i < length; i++) {
+                int position = offsets[longDigit(sourceKeys[i], digit, flip)]++;
+                destinationKeys[position] = sourceKeys[i];
+                destinationIndices[position] = sourceIndices[i];
+            }
+
+            long[] tempKeys = sourceKeys;
+            sourceKeys = destinationKeys;
+            destinationKeys = tempKeys;
+            int[] tempIndices = sourceIndices;
+            sourceIndices = destinationIndices;
+            destinationIndices = tempIndices;
+        }
+
+        applyPermutation(input, sourceIndices);
+    }
+
+    /**
+     * Returns the permutation that sorts the given keys: the index of the smallest key,
+     * then the index of the next smallest and so on. The keys are not modified.
+     *
+     * Only the indices are sorted, so sorting rows stored as parallel arrays needs no
+     * object per row. Pass the permutation to applyPermutation() to reorder the key
+     * array and each of the other columns. Indices of equal keys keep their ascending
+     * order, so the sort is stable, including when reversed.
+     *
+     * The indices are sorted with the same merge sort as mergeSort(), comparing the
+     * keys they refer to.
+     *
+     * This method has a time complexity of O(n log n) and a memory complexity of O(n).
+     *
+     * @param keys An array of comparable objects.
+     * @param reversed If false, the permutation should sort the keys ascending.
+     *                 Otherwise, it should sort them descending.
+     * @return the index of the key that belongs at each position of the sorted order
+     * @requires keys != null
+     */
+    static <T extends Comparable> int[] argsort(T[] keys, boolean reversed) {
+        return argsort(keys, getComparator(reversed));
+    }
+
+    /**
+     * Returns the permutation that sorts the given keys by the given comparator, like
+     * argsort(T[], boolean).
+     *
+     * @param keys An array of objects.
+     * @param comparator Comparator to sort by.
+     * @return the index of the key that belongs at each position of the sorted order
+     * @requires keys != null && comparator != null
+     */
+    static <T> int[] argsort(T[] keys, Comparator<? super T> comparator) {
+        int[] indices = identityPermutation(keys.length);
+        if (keys.length > 1) {
+            argsortMergeSort(keys, indices.clone(), indices, 0, keys.length, comparator);
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the permutation that sorts the given keys, like argsort(T[], boolean),
+     * using a merge sort that runs on the common ForkJoinPool like parallelMergeSort().
+     *
+     * This method has a time complexity of O(n log n) and a memory complexity of O(n).
+     *
+     * @param keys An array of comparable objects.
+     * @param reversed If false, the permutation should sort the keys ascending.
+     *                 Otherwise, it should sort them descending.
+     * @return the index of the key that belongs at each position of the sorted order
+     * @requires keys != null
+     */
+    static <T extends Comparable> int[] parallelArgsort(T[] keys, boolean reversed) {
+        return parallelArgsort(keys, getComparator(reversed), PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns the permutation that sorts the given keys by the given comparator, like
+     * parallelArgsort(T[], boolean).
+     *
+     * @param keys An array of objects.
+     * @param comparator Comparator to sort by.
+     * @return the index of the key that belongs at each position of the sorted order
+     * @requires keys != null && comparator != null
+     */
+    static <T> int[] parallelArgsort(T[] keys, Comparator<? super T> comparator) {
+        return parallelArgsort(keys, comparator, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns the permutation that sorts the given keys by the given comparator, like
+     * parallelArgsort(T[], boolean), forking subranges and merges larger than the
+     * given threshold.
+     *
+     * @param keys An array of objects.
+     * @param comparator Comparator to sort by.
+     * @param threshold Subranges and merges of at most this many elements are
+     *                  handled on the current thread.
+     * @return the index of the key that belongs at each position of the sorted order
+     * @throws IllegalArgumentException if threshold <= 0
+     * @requires keys != null && comparator != null
+     */
+    static <T> int[] parallelArgsort(T[] keys, Comparator<? super T> comparator, int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException();
+        }
+        int[] indices = identityPermutation(keys.length);
+        if (keys.length > 1) {
+            ForkJoinPool.commonPool().invoke(new ArgsortTask<>(keys, indices.clone(), indices, 0,
+                    keys.length, comparator, threshold));
+        }
+        return indices;
+    }
+
+    /**
+     * Reorders the given array so that column[i] becomes the element previously at
+     * column[permutation[i]], as returned by argsort(). The permutation is not modified,
+     * so it can be applied to several columns, including concurrently.
+     *
+     * Each cycle of the permutation is followed from its smallest index, moving every
+     * element once and holding only the first element of the cycle aside. A bit set
+     * records the indices already placed.
+     *
+     * This method has a time complexity of O(n) and a memory complexity of O(n) bits.
+     * Like the comparator-based sorts, it reports its moves to SortingStats.
+     *
+     * @param column Array to reorder
+     * @param permutation The index of the element that belongs at each position
+     * @throws IllegalArgumentException if the lengths differ or an index appears twice,
+     *                                  in which case the column is partly reordered
+     * @throws IndexOutOfBoundsException if an index is outside the column
+     * @requires column != null && permutation != null
+     */
+    static <T> void applyPermutation(T[] column, int[] permutation) {
+        if (column.length != permutation.length) {
+            throw new IllegalArgumentException();
+        }
+        BitSet placed = new BitSet(column.length);
+        for (int start = placed.nextClearBit(0); start < column.length; start = placed.nextClearBit(start + 1)) {
+            T first = column[start];
+            int i = start;
+            for (int next = nextInCycle(permutation, placed, i, start); next != start;
+                    next = nextInCycle(permutation, placed, i, start)) {
+                column[i] = column[next];
+                i = next;
+            }
+            column[i] = first;
+        }
+        countMoves(column.length);
+    }
+
+    /**
+     * Reorders the given array of ints, like applyPermutation(T[], int[]). Like the
+     * primitive sorts, it doesn't count its moves, see SortingStats.
+     *
+     * @param column Array to reorder
+     * @param permutation The index of the element that belongs at each position
+     * @throws IllegalArgumentException if the lengths differ or an index appears twice
+     * @throws IndexOutOfBoundsException if an index is outside the column
+     * @requires column != null && permutation != null
+     */
+    static void applyPermutation(int[] column, int[] permutation) {
+        if (column.length != permutation.length) {
+            throw new IllegalArgumentException();
+        }
+        BitSet placed = new BitSet(column.length);
+        for (int start = placed.nextClearBit(0); start < column.length; start = placed.nextClearBit(start + 1)) {
+            int first = column[start];
+            int i = start;
+            for (int next = nextInCycle(permutation, placed, i, start); next != start;
+                    next = nextInCycle(permutation, placed, i, start)) {
+                column[i] = column[next];
+                i = next;
+            }
+            column[i] = first;
+        }
+    }
+
+    /**
+     * Reorders the given array of longs, like applyPermutation(T[], int[]). Like the
+     * primitive sorts, it doesn't count its moves, see SortingStats.
+     *
+     * @param column Array to reorder
+     * @param permutation The index of the element that belongs at each position
+     * @throws IllegalArgumentException if the lengths differ or an index appears twice
+     * @throws IndexOutOfBoundsException if an index is outside the column
+     * @requires column != null && permutation != null
+     */
+    static void applyPermutation(long[] column, int[] permutation) {
+        if (column.length != permutation.length) {
+            throw new IllegalArgumentException();
+        }
+        BitSet placed = new BitSet(column.length);
+        for (int start = placed.nextClearBit(0); start < column.length; start = placed.nextClearBit(start + 1)) {
+            long first = column[start];
+            int i = start;
+            for (int next = nextInCycle(permutation, placed, i, start); next != start;
+                    next = nextInCycle(permutation, placed, i, start)) {
+                column[i] = column[next];
+                i = next;
+            }
+            column[i] = first;
+        }
+    }
+
+    /**
+     * Reorders the given array of doubles, like applyPermutation(T[], int[]). Like the
+     * primitive sorts, it doesn't count its moves, see SortingStats.
+     *
+     * @param column Array to reorder
+     * @param permutation The index of the element that belongs at each position
+     * @throws IllegalArgumentException if the lengths differ or an index appears twice
+     * @throws IndexOutOfBoundsException if an index is outside the column
+     * @requires column != null && permutation != null
+     */
+    static void applyPermutation(double[] column, int[] permutation) {
+        if (column.length != permutation.length) {
+            throw new IllegalArgumentException();
+        }
+        BitSet placed = new BitSet(column.length);
+        for (int start = placed.nextClearBit(0); start < column.length; start = placed.nextClearBit(start + 1)) {
+            double first = column[start];
+            int i = start;
+            for (int next = nextInCycle(permutation, placed, i, start); next != start;
+                    next = nextInCycle(permutation, placed, i, start)) {
+                column[i] = column[next];
+                i = next;
+            }
+            column[i] = first;
+        }
+    }
+
+    /**
+     * Marks index i of a cycle as placed and returns the index whose element belongs
+     * at i, which is start once the cycle is complete.
+     *
+     * @throws IllegalArgumentException if the next index was already placed by another cycle
+     * @throws IndexOutOfBoundsException if the next index is outside the permutation
+     */
+    private static int nextInCycle(int[] permutation, BitSet placed, int i, int start) {
+        placed.set(i);
+        int next = permutation[i];
+        if (next < 0 || next >= permutation.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (next != start && placed.get(next)) {
+            throw new IllegalArgumentException();
+        }
+        return next;
+    }
+
+    /**
+     * Returns an array holding 0, 1, ..., length - 1.
+     */
+    private static int[] identityPermutation(int length) {
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Sorts the indices in the range [leftBound, rightBound) of source into the same
+     * range of destination by the keys they refer to, like pingPongMergeSort().
+     *
+     * @param keys The keys the indices refer to
+     * @param source Array the halves are sorted into
+     * @param destination Array the sorted range is written to
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param comparator Comparator to sort the keys by
+     */
+    private static <T> void argsortMergeSort(T[] keys, int[] source, int[] destination,
+            int leftBound, int rightBound, Comparator<? super T> comparator) {
+        if (rightBound - leftBound <= INSERTION_SORT_THRESHOLD) {
+            argsortInsertionSort(keys, destination, leftBound, rightBound, comparator);
+            return;
+        }
+
+        int middleBound = (leftBound + rightBound) >>> 1;
+        argsortMergeSort(keys, destination, source, leftBound, middleBound, comparator);
+        argsortMergeSort(keys, destination, source, middleBound, rightBound, comparator);
+        if (comparator.compare(keys[source[middleBound - 1]], keys[source[middleBound]]) <= 0) {
+            System.arraycopy(source, leftBound, destination, leftBound, rightBound - leftBound);
+            return;
+        }
+        mergeIndexRuns(keys, source, leftBound, middleBound, middleBound, rightBound,
+                destination, leftBound, comparator);
+    }
+
+    /**
+     * Sorts the indices in the range [leftBound, rightBound) by the keys they refer to
+     * with a stable insertion sort.
+     */
+    private static <T> void argsortInsertionSort(T[] keys, int[] indices, int leftBound,
+            int rightBound, Comparator<? super T> comparator) {
+        for (int i = leftBound + 1; i < rightBound; i++) {
+            int selection = indices[i];
+            T key = keys[selection];
+            int j = i - 1;
+            while (j >= leftBound && comparator.compare(key, keys[indices[j]]) < 0) {
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            indices[j + 1] = selection;
+        }
+    }
+
+    /**
+     * Merges two runs of indices sorted by the keys they refer to, like mergeRuns().
+     * Indices from the first run come before those of the second with equal keys.
+     */
+    private static <T> void mergeIndexRuns(T[] keys, int[] source, int firstLeft, int firstRight,
+            int secondLeft, int secondRight, int[] destination, int destinationLeft,
+            Comparator<? super T> comparator) {
+        int firstCursor = firstLeft;
+        int secondCursor = secondLeft;
+        int mergedCursor = destinationLeft;
+
+        while (firstCursor < firstRight && secondCursor < secondRight) {
+            if (comparator.compare(keys[source[firstCursor]], keys[source[secondCursor]]) <= 0) {
+                destination[mergedCursor++] = source[firstCursor++];
+            } else {
+                destination[mergedCursor++] = source[secondCursor++];
+            }
+        }
+
+        System.arraycopy(source, firstCursor, destination, mergedCursor, firstRight - firstCursor);
+        mergedCursor += firstRight - firstCursor;
+        System.arraycopy(source, secondCursor, destination, mergedCursor, secondRight - secondCursor);
+    }
+
+    /**
+     * Returns the first position in the range [leftBound, rightBound) of indices, sorted
+     * by the keys they refer to, whose key is not less than the given key, or with
+     * inclusive set, the first whose key is greater. Like binarySearchBound().
+     */
+    private static <T> int indexSearchBound(T[] keys, int[] indices, int leftBound,
+            int rightBound, T key, boolean inclusive, Comparator<? super T> comparator) {
+        while (leftBound < rightBound) {
+            int middle = (leftBound + rightBound) >>> 1;
+            int comparison = comparator.compare(keys[indices[middle]], key);
+            if (comparison < 0 || (inclusive && comparison == 0)) {
+                leftBound = middle + 1;
+            } else {
+                rightBound = middle;
+            }
+        }
+        return leftBound;
+    }
+
+    /**
+     * Sorts a range of indices from source into destination like argsortMergeSort(),
+     * sorting each half and splitting each merge as separate tasks while the range is
+     * larger than the threshold, like MergeSortTask and MergeTask.
+     */
+    @SuppressWarnings("serial")
+    private static class ArgsortTask<T> extends RecursiveAction {
+        private final T[] keys;
+        private final int[] source;
+        private final int[] destination;
+        private final int leftBound;
+        private final int rightBound;
+        private final Comparator<? super T> comparator;
+        private final int threshold;
+
+        ArgsortTask(T[] keys, int[] source, int[] destination, int leftBound, int rightBound,
+                Comparator<? super T> comparator, int threshold) {
+            this.keys = keys;
+            this.source = source;
+            this.destination = destination;
+            this.leftBound = leftBound;
+            this.rightBound = rightBound;
+            this.comparator = comparator;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.rightBound - this.leftBound <= this.threshold) {
+                argsortMergeSort(this.keys, this.source, this.destination, this.leftBound,
+                        this.rightBound, this.comparator);
+                return;
+            }
+
+            int middleBound = (this.leftBound + this.rightBound) >>> 1;
+            invokeAll(new ArgsortTask<>(this.keys, this.destination, this.source, this.leftBound,
+                            middleBound, this.comparator, this.threshold),
+                    new ArgsortTask<>(this.keys, this.destination, this.source, middleBound,
+                            this.rightBound, this.comparator, this.threshold));
+            if (this.comparator.compare(this.keys[this.source[middleBound - 1]],
+                    this.keys[this.source[middleBound]]) <= 0) {
+                System.arraycopy(this.source, this.leftBound, this.destination, this.leftBound,
+                        this.rightBound - this.leftBound);
+                return;
+            }
+            new ArgsortMergeTask<>(this.keys, this.source, this.leftBound, middleBound, middleBound,
+                    this.rightBound, this.destination, this.leftBound, this.comparator,
+                    this.threshold).compute();
+        }
+    }
+
+    /**
+     * Merges two runs of indices like mergeIndexRuns(), splitting the merge into two
+     * independent merges while it is larger than the threshold, like MergeTask.
+     */
+    @SuppressWarnings("serial")
+    private static class ArgsortMergeTask<T> extends RecursiveAction {
+        private final T[] keys;
+        private final int[] source;
+        private final int firstLeft;
+        private final int firstRight;
+        private final int secondLeft;
+        private final int secondRight;
+        private final int[] destination;
+        private final int destinationLeft;
+        private final Comparator<? super T> comparator;
+        private final int threshold;
+
+        ArgsortMergeTask(T[] keys, int[] source, int firstLeft, int firstRight, int secondLeft,
+                int secondRight, int[] destination, int destinationLeft,
+                Comparator<? super T> comparator, int threshold) {
+            this.keys = keys;
+            this.source = source;
+            this.firstLeft = firstLeft;
+            this.firstRight = firstRight;
+            this.secondLeft = secondLeft;
+            this.secondRight = secondRight;
+            this.destination = destination;
+            this.destinationLeft = destinationLeft;
+            this.comparator = comparator;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int firstLength = this.firstRight - this.firstLeft;
+            int secondLength = this.secondRight - this.secondLeft;
+            if (firstLength + secondLength <= this.threshold || firstLength <= 1 || secondLength <= 1) {
+                mergeIndexRuns(this.keys, this.source, this.firstLeft, this.firstRight,
+                        this.secondLeft, this.secondRight, this.destination, this.destinationLeft,
+                        this.comparator);
+                return;
+            }
+
+            // Ties go to the first run, as in MergeTask.
+            int firstSplit;
+            int secondSplit;
+            if (firstLength >= secondLength) {
+                firstSplit = (this.firstLeft + this.firstRight) >>> 1;
+                secondSplit = indexSearchBound(this.keys, this.source, this.secondLeft,
+                        this.secondRight, this.keys[this.source[firstSplit]], false, this.comparator);
+            } else {
+                secondSplit = (this.secondLeft + this.secondRight) >>> 1;
+                firstSplit = indexSearchBound(this.keys, this.source, this.firstLeft,
+                        this.firstRight, this.keys[this.source[secondSplit]], true, this.comparator);
+            }
+
+            int destinationSplit = this.destinationLeft + (firstSplit - this.firstLeft)
+                    + (secondSplit - this.secondLeft);
+            invokeAll(new ArgsortMergeTask<>(this.keys, this.source, this.firstLeft, firstSplit,
+                            this.secondLeft, secondSplit, this.destination, this.destinationLeft,
+                            this.comparator, this.threshold),
+                    new ArgsortMergeTask<>(this.keys, this.source, firstSplit, this.firstRight,
+                            secondSplit, this.secondRight, this.destination, destinationSplit,
+                            this.comparator, this.threshold));
+        }
+    }
+
+    /**
+     * Returns the given byte of an int as a radixSort() digit, with the sign bit
+     * flipped in the most significant byte and every bit flipped by flip.
+     */
+    private static int intDigit(int element, int digit, int flip) {
+        int value = (element >>> (8 * digit)) & 0xFF;
+        if (digit == Integer.BYTES - 1) {
+            value ^= 0x80;
+        }
+        return value ^ flip;
+    }
+
+    /**
+     * Returns the given byte of a long as a radixSort() digit, like intDigit().
+     */
+    private static int longDigit(long element, int digit, int flip) {
+        int value = (int) (element >>> (8 * digit)) & 0xFF;
+        if (digit == Long.BYTES - 1) {
+            value ^= 0x80;
+        }
+        return value ^ flip;
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound] of the given array in ascending order
+     * with a dual-pivot quicksort.
+     *
+     * The second and fourth of five evenly spaced elements are used as pivots, and the
+     * range is partitioned into the elements less than the first pivot, those between
+     * the pivots and those greater than the second pivot. When the pivots are equal,
+     * every element of the middle part equals them, so it is already sorted.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index of the last element to sort
+     */
+    private static void dualPivotQuickSort(int[] input, int leftBound, int rightBound) {
+        int length = rightBound - leftBound + 1;
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            for (int i = leftBound + 1; i <= rightBound; i++) {
+                int selection = input[i];
+                int j = i - 1;
+                while (j >= leftBound && selection < input[j]) {
+                    input[j + 1] = input[j];
+                    j--;
+                }
+                input[j + 1] = selection;
+            }
+            return;
+        }
+
+        int seventh = length / 7;
+        int e3 = (leftBound + rightBound) >>> 1;
+        int e2 = e3 - seventh;
+        int e1 = e2 - seventh;
+        int e4 = e3 + seventh;
+        int e5 = e4 + seventh;
+        // Sort the five samples with an optimal sorting network.
+        compareExchange(input, e1, e2);
+        compareExchange(input, e4, e5);
+        compareExchange(input, e3, e5);
+        compareExchange(input, e3, e4);
+        compareExchange(input, e1, e4);
+        compareExchange(input, e1, e3);
+        compareExchange(input, e2, e5);
+        compareExchange(input, e2, e4);
+        compareExchange(input, e2, e3);
+
+        int firstPivot = input[e2];
+        int secondPivot = input[e4];
+        input[e2] = input[leftBound];
+        input[e4] = input[rightBound];
+
+        // [leftBound + 1, less) < firstPivot, [less, cursor) between the pivots,
+        // (great, rightBound - 1] > secondPivot and [cursor, great] not yet partitioned.
+        int less = leftBound + 1;
+        int great = rightBound - 1;
+        for (int cursor = less; cursor <= great; cursor++) {
+            int element = input[cursor];
+            if (element < firstPivot) {
+                input[cursor] = input[less];
+                input[less++] = element;
+            } else if (element > secondPivot) {
+                while (input[great] > secondPivot && cursor < great) {
+                    great--;
+                }
+                input[cursor] = input[great];
+                input[great--] = element;
+                element = input[cursor];
+                if (element < firstPivot) {
+                    input[cursor] = input[less];
+                    input[less++] = element;
+                }
+            }
+        }
+
+        input[leftBound] = input[less - 1];
+        input[less - 1] = firstPivot;
+        input[rightBound] = input[great + 1];
+        input[great + 1] = secondPivot;
+
+        dualPivotQuickSort(input, leftBound, less - 2);
+        dualPivotQuickSort(input, great + 2, rightBound);
+        if (firstPivot < secondPivot) {
+            dualPivotQuickSort(input, less, great);
+        }
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound] of the given array in ascending order,
+     * like dualPivotQuickSort(int[], int, int).
+     */
+    private static void dualPivotQuickSort(long[] input, int leftBound, int rightBound) {
+        int length = rightBound - leftBound + 1;
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            for (int i = leftBound + 1; i <= rightBound; i++) {
+                long selection = input[i];
+                int j = i - 1;
+                while (j >= leftBound && selection < input[j]) {
+                    input[j + 1] = input[j];
+                    j--;
+                }
+                input[j + 1] = selection;
+            }
+            return;
+        }
+
+        int seventh = length / 7;
+        int e3 = (leftBound + rightBound) >>> 1;
+        int e2 = e3 - seventh;
+        int e1 = e2 - seventh;
+        int e4 = e3 + seventh;
+        int e5 = e4 + seventh;
+        // Sort the five samples with an optimal sorting network.
+        compareExchange(input, e1, e2);
+        compareExchange(input, e4, e5);
+        compareExchange(input, e3, e5);
+        compareExchange(input, e3, e4);
+        compareExchange(input, e1, e4);
+        compareExchange(input, e1, e3);
+        compareExchange(input, e2, e5);
+        compareExchange(input, e2, e4);
+        compareExchange(input, e2, e3);
+
+        long firstPivot = input[e2];
+        long secondPivot = input[e4];
+        input[e2] = input[leftBound];
+        input[e4] = input[rightBound];
+
+        // [leftBound + 1, less) < firstPivot, [less, cursor) between the pivots,
+        // (great, rightBound - 1] > secondPivot and [cursor, great] not yet partitioned.
+        int less = leftBound + 1;
+        int great = rightBound - 1;
+        for (int cursor = less; cursor <= great; cursor++) {
+            long element = input[cursor];
+            if (element < firstPivot) {
+                input[cursor] = input[less];
+                input[less++] = element;
+            } else if (element > secondPivot) {
+                while (input[great] > secondPivot && cursor < great) {
+                    great--;
+                }
+                input[cursor] = input[great];
+                input[great--] = element;
+                element = input[cursor];
+                if (element < firstPivot) {
+                    input[cursor] = input[less];
+                    input[less++] = element;
+                }
+            }
+        }
+
+        input[leftBound] = input[less - 1];
+        input[less - 1] = firstPivot;
+        input[rightBound] = input[great + 1];
+        input[great + 1] = secondPivot;
+
+        dualPivotQuickSort(input, leftBound, less - 2);
+        dualPivotQuickSort(input, great + 2, rightBound);
+        if (firstPivot < secondPivot) {
+            dualPivotQuickSort(input, less, great);
+        }
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound] of the given array in ascending order,
+     * like dualPivotQuickSort(int[], int, int).
+     */
+    private static void dualPivotQuickSort(double[] input, int leftBound, int rightBound) {
+        int length = rightBound - leftBound + 1;
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            for (int i = leftBound + 1; i <= rightBound; i++) {
+                double selection = input[i];
+                int j = i - 1;
+                while (j >= leftBound && selection < input[j]) {
+                    input[j + 1] = input[j];
+                    j--;
+                }
+                input[j + 1] = selection;
+            }
+            return;
+        }
+
+        int seventh = length / 7;
+        int e3 = (leftBound + rightBound) >>> 1;
+        int e2 = e3 - seventh;
+        int e1 = e2 - seventh;
+        int e4 = e3 + seventh;
+        int e5 = e4 + seventh;
+        // Sort the five samples with an optimal sorting network.
+        compareExchange(input, e1, e2);
+        compareExchange(input, e4, e5);
+        compareExchange(input, e3, e5);
+        compareExchange(input, e3, e4);
+        compareExchange(input, e1, e4);
+        compareExchange(input, e1, e3);
+        compareExchange(input, e2, e5);
+        compareExchange(input, e2, e4);
+        compareExchange(input, e2, e3);
+
+        double firstPivot = input[e2];
+        double secondPivot = input[e4];
+        input[e2] = input[leftBound];
+        input[e4] = input[rightBound];
+
+        // [leftBound + 1, less) < firstPivot, [less, cursor) between the pivots,
+        // (great, rightBound - 1] > secondPivot and [cursor, great] not yet partitioned.
+        int less = leftBound + 1;
+        int great = rightBound - 1;
+        for (int cursor = less; cursor <= great; cursor++) {
+            double element = input[cursor];
+            if (element < firstPivot) {
+                input[cursor] = input[less];
+                input[less++] = element;
+            } else if (element > secondPivot) {
+                while (input[great] > secondPivot && cursor < great) {
+                    great--;
+                }
+                input[cursor] = input[great];
+                input[great--] = element;
+                element = input[cursor];
+                if (element < firstPivot) {
+                    input[cursor] = input[less];
+                    input[less++] = element;
+                }
+            }
+        }
+
+        input[leftBound] = input[less - 1];
+        input[less - 1] = firstPivot;
+        input[rightBound] = input[great + 1];
+        input[great + 1] = secondPivot;
+
+        dualPivotQuickSort(input, leftBound, less - 2);
+        dualPivotQuickSort(input, great + 2, rightBound);
+        if (firstPivot < secondPivot) {
+            dualPivotQuickSort(input, less, great);
+        }
+    }
+
+    /**
+     * Swaps the elements at indices i and j of the given array if they are out of order.
+     */
+    private static void compareExchange(int[] input, int i, int j) {
+        if (input[j] < input[i]) {
+            int temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
+        }
+    }
+
+    /**
+     * Swaps the elements at indices i and j of the given array if they are out of order.
+     */
+    private static void compareExchange(long[] input, int i, int j) {
+        if (input[j] < input[i]) {
+            long temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
+        }
+    }
+
+    /**
+     * Swaps the elements at indices i and j of the given array if they are out of order.
+     */
+    private static void compareExchange(double[] input, int i, int j) {
+        if (input[j] < input[i]) {
+            double temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
+        }
+    }
+
+    /**
+     * Reverses the order of the elements of the given array.
+     */
+    private static void reverse(int[] input) {
+        for (int i = 0, j = input.length - 1; i < j; i++, j--) {
+            int temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
+        }
+    }
+
+    /**
+     * Reverses the order of the elements of the given array.
+     */
+    private static void reverse(long[] input) {
+        for (int i = 0, j = input.length - 1; i < j; i++, j--) {
+            long temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
+        }
+    }
+
+    /**
+     * Reverses the order of the elements of the given array.
+     */
+    private static void reverse(double[] input) {
+        for (int i = 0, j = input.length - 1; i < j; i++, j--) {
+            double temp = input[i];
+            input[i] = input[j];
+            input[j] = temp;
+        }
+    }
+
+    /**
+     * Sorts the given array of ints using a quicksort built on SIMD kernels, if the
+     * kernels in simd/ and the jdk.incubator.vector module they need are available.
+     * Otherwise, this is the same as quickSort(int[], boolean).
+     * This should modify the array in-place.
+     *
+     * Each step partitions the range around the ninther of nine elements chosen at
+     * random into the elements less than the pivot and the rest, comparing a whole
+     * vector of elements with the pivot at a time. The partition keeps the order of
+     * each side, which would preserve any pattern that made fixed sample positions
+     * choose a poor pivot, such as the repeated runs of a sawtooth. If no element is less than the
+     * pivot, the elements equal to it are split off instead, so runs of equal elements
+     * are finished in one step. Ranges of up to IntSortKernels.blockSize() elements are
+     * sorted with a bitonic sorting network in vector registers. After
+     * 2 log2(n) levels of partitioning, ranges are finished with the scalar dual-pivot
+     * quicksort.
+     *
+     * Random input and input with many duplicates sort faster than with
+     * quickSort(int[], boolean), but input that is already in order doesn't, as every
+     * element is still partitioned O(log n) times.
+     *
+     * This method has an expected time complexity of O(n log n) and a memory
+     * complexity of O(n) for the partitioning buffer.
+     *
+     * @param input An array of ints.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null
+     */
+    static void vectorQuickSort(int[] input, boolean reversed) {
+        IntSortKernels kernels = VECTOR_KERNELS;
+        if (kernels == null) {
+            quickSort(input, reversed);
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, input.length)));
+        int[] buffer = new int[Math.max(input.length, kernels.blockSize())];
+        vectorQuickSort(input, 0, input.length, buffer, kernels, depthLimit);
+        if (reversed) {
+            reverse(input);
+        }
+    }
+
+    /**
+     * Returns whether vectorQuickSort() runs on the SIMD kernels rather than falling
+     * back to quickSort(int[], boolean).
+     */
+    static boolean hasVectorKernels() {
+        return VECTOR_KERNELS != null;
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given array in ascending order
+     * with the given kernels. The smaller side of each partition is sorted recursively
+     * and the larger one by the loop, so the recursion is at most log2(n) deep.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param buffer Scratch space of at least the length of the range and the block size
+     * @param kernels The kernels to partition and sort blocks with
+     * @param depthLimit Levels of partitioning left before using dualPivotQuickSort()
+     */
+    private static void vectorQuickSort(int[] input, int leftBound, int rightBound, int[] buffer,
+            IntSortKernels kernels, int depthLimit) {
+        while (rightBound - leftBound > kernels.blockSize()) {
+            if (depthLimit == 0) {
+                dualPivotQuickSort(input, leftBound, rightBound - 1);
+                return;
+            }
+            depthLimit--;
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pivot = medianOfThree(randomMedianOfThree(input, leftBound, rightBound, random),
+                    randomMedianOfThree(input, leftBound, rightBound, random),
+                    randomMedianOfThree(input, leftBound, rightBound, random));
+            int split = kernels.partition(input, leftBound, rightBound, pivot, false, buffer);
+            if (split == leftBound) {
+                // The pivot is the smallest element, so its copies are in their final place.
+                leftBound = kernels.partition(input, leftBound, rightBound, pivot, true, buffer);
+            } else if (split - leftBound < rightBound - split) {
+                vectorQuickSort(input, leftBound, split, buffer, kernels, depthLimit);
+                leftBound = split;
+            } else {
+                vectorQuickSort(input, split, rightBound, buffer, kernels, depthLimit);
+                rightBound = split;
+            }
+        }
+        kernels.sortBlock(input, leftBound, rightBound, buffer);
+    }
+
+    /**
+     * Returns the median of three elements chosen at random from the range
+     * [leftBound, rightBound) of the given array.
+     */
+    private static int randomMedianOfThree(int[] input, int leftBound, int rightBound,
+            ThreadLocalRandom random) {
+        return medianOfThree(input[random.nextInt(leftBound, rightBound)],
+                input[random.nextInt(leftBound, rightBound)], input[random.nextInt(leftBound, rightBound)]);
+    }
+
+    /**
+     * Returns the SIMD kernels in simd/, or null if they aren't on the classpath, the
+     * jdk.incubator.vector module isn't loaded or the platform has no suitable vectors.
+     */
+    private static IntSortKernels loadVectorKernels() {
+        try {
+            return (IntSortKernels) Class.forName("VectorIntSortKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sorts the given array of strings using multikey quicksort, also known as
+     * three-way radix quicksort. This should modify the array in-place.
+     *
+     * Each step partitions the range around the character at the current depth d of a
+     * pivot string, into the strings whose d-th character is less than, equal to and
+     * greater than the pivot's. Only the equal partition moves on to the next character,
+     * so a shared prefix is examined once per partitioning step rather than once per
+     * comparison as with String.compareTo(). Strings that end at depth d are ordered
+     * before all longer strings. Small ranges are finished with an insertion sort that
+     * compares from depth d onwards.
+     *
+     * Characters are compared as UTF-16 code units, so the order is the same as
+     * String.compareTo(). The sort isn't stable.
+     *
+     * This method has an expected time complexity of O(n log n + D), where D is the
+     * total length of the prefixes needed to tell the strings apart. Memory complexity
+     * is O(log n + L) for the recursion, where L is the length of the longest string.
+     *
+     * @param input An array of strings.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null and no element of input is null
+     */
+    static void multikeyQuickSort(String[] input, boolean reversed) {
+        multikeyQuickSort(input, 0, input.length, 0, reversed);
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given strings, whose first depth
+     * characters are all equal, with multikey quicksort.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param depth Index of the first character that may differ
+     * @param reversed If true, sorts descending
+     */
+    private static void multikeyQuickSort(String[] input, int leftBound, int rightBound, int depth,
+            boolean reversed) {
+        while (rightBound - leftBound > INSERTION_SORT_THRESHOLD) {
+            int middle = (leftBound + rightBound) >>> 1;
+            int pivot = medianOfThree(charKey(input[leftBound], depth, reversed),
+                    charKey(input[middle], depth, reversed),
+                    charKey(input[rightBound - 1], depth, reversed));
+
+            // The same partition as introSort(), on the character at depth.
+            int lesserEnd = leftBound;
+            int cursor = leftBound;
+            int greaterStart = rightBound;
+            while (cursor < greaterStart) {
+                int key = charKey(input[cursor], depth, reversed);
+                if (key < pivot) {
+                    swap(input, lesserEnd++, cursor++);
+                } else if (key > pivot) {
+                    swap(input, cursor, --greaterStart);
+                } else {
+                    cursor++;
+                }
+            }
+
+            multikeyQuickSort(input, leftBound, lesserEnd, depth, reversed);
+            multikeyQuickSort(input, greaterStart, rightBound, depth, reversed);
+
+            // Strings equal to the pivot up to its end are equal, so they are sorted.
+            if (pivot == STRING_END_KEY || pivot == REVERSED_STRING_END_KEY) {
+                return;
+            }
+            leftBound = lesserEnd;
+            rightBound = greaterStart;
+            depth++;
+        }
+
+        stringInsertionSort(input, leftBound, rightBound, depth, reversed);
+    }
+
+    /**
+     * Returns the median of three ints.
+     */
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Sorts the given array of strings using an MSD (most significant digit first)
+     * radix sort. This should modify the array in-place.
+     *
+     * The strings are distributed into buckets by their first character, and each
+     * bucket is then sorted by the next character. Strings that have ended go first, or
+     * last when reversed. Each step finds the smallest and largest character present
+     * and only counts that span, so a character shared by the whole range, such as a
+     * common prefix, is skipped without moving anything. When the span is wider than
+     * RADIX, the strings are first bucketed by the top bits of the character, and each
+     * bucket is split again on the same character. Ranges of up to
+     * INSERTION_SORT_THRESHOLD strings are insertion sorted from the current character
+     * onwards, as counting is slow for so few strings.
+     *
+     * Characters are compared as UTF-16 code units, so the order is the same as
+     * String.compareTo(). Equal strings keep their original order, so the sort is stable.
+     *
+     * This method has a time complexity of O(n + D) character operations, where D is
+     * the total length of the prefixes needed to tell the strings apart, plus O(RADIX)
+     * per range that is split. Memory complexity is O(n + L) where L is the length of
+     * the longest string.
+     *
+     * @param input An array of strings.
+     * @param reversed If false, the array should be sorted ascending.
+     *                 Otherwise, it should be sorted descending.
+     * @requires input != null and no element of input is null
+     */
+    static void msdRadixSort(String[] input, boolean reversed) {
+        if (input.length < 2) {
+            return;
+        }
+        msdRadixSort(input, new String[input.length], new int[input.length], 0, input.length, 0,
+                reversed);
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given strings, whose first depth
+     * characters are all equal, with MSD radix sort.
+     *
+     * @param input Array to sort
+     * @param buffer Array at least as long as input to distribute into
+     * @param keys Array as long as input to hold the charKey() of each string
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param depth Index of the first character that may differ
+     * @param reversed If true, sorts descending
+     */
+    private static void msdRadixSort(String[] input, String[] buffer, int[] keys, int leftBound,
+            int rightBound, int depth, boolean reversed) {
+        while (rightBound - leftBound > INSERTION_SORT_THRESHOLD) {
+            int minimum = Integer.MAX_VALUE;
+            int maximum = Integer.MIN_VALUE;
+            for (int i = leftBound; i < rightBound; i++) {
+                int key = charKey(input[i], depth, reversed);
+                keys[i] = key;
+                minimum = Math.min(minimum, key);
+                maximum = Math.max(maximum, key);
+            }
+
+            if (minimum == maximum) {
+                // Every string has the same character, so move on without moving them.
+                if (minimum == STRING_END_KEY || minimum == REVERSED_STRING_END_KEY) {
+                    return;
+                }
+                depth++;
+                continue;
+            }
+
+            // Bucket by the whole character if the span fits in RADIX buckets, otherwise
+            // by its top bits, leaving at least RADIX / 2 buckets.
+            int shift = 0;
+            while ((maximum - minimum) >>> shift >= RADIX) {
+                shift++;
+            }
+            int numBuckets = ((maximum - minimum) >>> shift) + 1;
+
+            int[] offsets = new int[numBuckets + 1];
+            for (int i = leftBound; i < rightBound; i++) {
+                offsets[((keys[i] - minimum) >>> shift) + 1]++;
+            }
+            for (int i = 1; i <= numBuckets; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] bucketStarts = offsets.clone();
+            for (int i = leftBound; i < rightBound; i++) {
+                buffer[offsets[(keys[i] - minimum) >>> shift]++] = input[i];
+            }
+            System.arraycopy(buffer, 0, input, leftBound, rightBound - leftBound);
+
+            for (int bucket = 0; bucket < numBuckets; bucket++) {
+                int start = leftBound + bucketStarts[bucket];
+                int stop = leftBound + bucketStarts[bucket + 1];
+                if (stop - start < 2) {
+                    continue;
+                }
+
+                if (shift > 0) {
+                    // The strings only share the top bits of the character so far.
+                    msdRadixSort(input, buffer, keys, start, stop, depth, reversed);
+                } else {
+                    int key = minimum + bucket;
+                    if (key != STRING_END_KEY && key != REVERSED_STRING_END_KEY) {
+                        msdRadixSort(input, buffer, keys, start, stop, depth + 1, reversed);
+                    }
+                }
+            }
+            return;
+        }
+
+        stringInsertionSort(input, leftBound, rightBound, depth, reversed);
+    }
+
+    /**
+     * Returns the character at the given index of a string as a key for
+     * multikeyQuickSort() and msdRadixSort(). Past the end of the string the key is less than any character,
+     * or greater than any character when reversed, and characters are flipped when
+     * reversed, so that ascending order of the keys is the required order.
+     */
+    private static int charKey(String element, int index, boolean reversed) {
+        if (index >= element.length()) {
+            return reversed ? REVERSED_STRING_END_KEY : STRING_END_KEY;
+        }
+        char character = element.charAt(index);
+        return reversed ? Character.MAX_VALUE - character : character;
+    }
+
+    /**
+     * Sorts the range [leftBound, rightBound) of the given strings, whose first depth
+     * characters are all equal, using insertion sort comparing from depth onwards.
+     *
+     * @param input Array to sort
+     * @param leftBound Index to start sorting from
+     * @param rightBound Index to sort until
+     * @param depth Index of the first character that may differ
+     * @param reversed If true, sorts descending
+     */
+    private static void stringInsertionSort(String[] input, int leftBound, int rightBound, int depth,
+            boolean reversed) {
+        for (int i = leftBound + 1; i < rightBound; i++) {
+            String selection = input[i];
+            int j = i - 1;
+            while (j >= leftBound && compareFrom(selection, input[j], depth, reversed) < 0) {
+                input[j + 1] = input[j];
+                j--;
+            }
+            input[j + 1] = selection;
+        }
+    }
+
+    /**
+     * Compares two strings from the given index onwards, like String.compareTo(), or in
+     * reverse if reversed is true.
+     */
+    private static int compareFrom(String first, String second, int index, boolean reversed) {
+        int length = Math.min(first.length(), second.length());
+        int comparison = first.length() - second.length();
+        for (int i = index; i < length; i++) {
+            char a = first.charAt(i);
+            char b = second.charAt(i);
+            if (a != b) {
+                comparison = a - b;
+                break;
+            }
+        }
+        return reversed ? -comparison : comparison;
+    }
+
+    /**
+     * Moves the k smallest elements of the given array to its start in sorted order.
+     * This should modify the array in-place.
+     *
+     * Afterwards input[0, k) holds the same elements as the first k of a stable sort
+     * of the array, in the same order, and input[k, n) holds the remaining elements in
+     * their original relative order.
+     *
+     * When k is small compared to n, the k smallest elements are picked out in one pass
+     * with a bounded heap, so most elements are rejected after a single comparison with
+     * the largest element kept so far. Otherwise the k-th smallest element is found in
+     * a copy of the array with select(), the array is partitioned stably around it and
+     * only the first k elements are sorted.
+     *
+     * This method has a time complexity of O(n + k log k), or O(n log k) in the worst
+     * case for small k. Memory complexity is O(n), or O(k) for small k.
+     *
+     * @param input An array of comparable objects.
+     * @param k The number of elements to sort.
+     * @param reversed If false, the k smallest elements are sorted ascending.
+     *                 Otherwise, the k largest elements are sorted descending.
+     * @throws IllegalArgumentException if k < 0 or k > input.length
+     * @requires input != null
+     */
+    static <T extends Comparable> void partialSort(T[] input, int k, boolean reversed)
+            throws IllegalArgumentException {
+        partialSort(input, k, getComparator(reversed));
+    }
+
+    /**
+     * Moves the k elements that come first by the given comparator to the start of the
+     * array in sorted order, like partialSort(T[], int, boolean).
+     *
+     * @param input An array of objects.
+     * @param k The number of elements to sort.
+     * @param comparator Comparator to sort by.
+     * @throws IllegalArgumentException if k < 0 or k > input.length
+     * @requires input != null && comparator != null
+     */
+    static <T> void partialSort(T[] input, int k, Comparator<? super T> comparator)
+            throws IllegalArgumentException {
+        int length = input.length;
+        if (k < 0 || k > length) {
+            throw new IllegalArgumentException();
+        }
+        if (k == 0) {
+            return;
+        }
+
+        if (k <= length / TOP_K_HEAP_RATIO) {
+            heapPartialSort(input, k, comparator);
+            return;
+        }
+
+        T[] buffer = input.clone();
+        T kth = select(buffer, k - 1, comparator);
+
+        // Every element less than kth belongs in the first k, and the earliest of the
+        // elements equal to kth fill up the rest.
+        int lesser = 0;
+        for (T element : input) {
+            if (comparator.compare(element, kth) < 0) {
+                lesser++;
+            }
+        }
+
+        int equalsLeft = k - lesser;
+        int front = 0;
+        int back = k;
+        for (T element : input) {
+            int comparison = comparator.compare(element, kth);
+            if (comparison < 0 || (comparison == 0 && equalsLeft-- > 0)) {
+                buffer[front++] = element;
+            } else {
+                buffer[back++] = element;
+            }
+        }
+
+        T[] smallest = Arrays.copyOf(buffer, k);
+        timSort(smallest, comparator);
+        System.arraycopy(smallest, 0, input, 0, k);
+        System.arraycopy(buffer, k, input, k, length - k);
+        // The copy into the buffer, the partition, and the copies back.
+        countMoves(3L * length + k);
+    }
+
+    /**
+     * Does partialSort() for small k by keeping the k smallest elements seen so far in
+     * a bounded heap, then moving the rest of the array up past them.
+     *
+     * @param input Array to partially sort
+     * @param k Number of elements to sort, 0 < k <= input.length
+     * @param comparator Comparator to sort by
+     */
+    private static <T> void heapPartialSort(T[] input, int k, Comparator<? super T> comparator) {
+        BoundedHeap<T> heap = new BoundedHeap<>(k, comparator);
+        for (int i = 0; i < input.length; i++) {
+            heap.offer(input[i], i);
+        }
+
+        Object[] smallest = new Object[k];
+        long[] positions = new long[k];
+        heap.drainSorted(smallest, positions);
+
+        // Shift the unselected elements to the end of the array, from the back so that
+        // none is overwritten before it is moved.
+        Arrays.sort(positions);
+        int next = k - 1;
+        int write = input.length - 1;
+        for (int i = input.length - 1; i >= 0; i--) {
+            if (next >= 0 && positions[next] == i) {
+                next--;
+            } else {
+                input[write--] = input[i];
+            }
+        }
+
+        System.arraycopy(smallest, 0, input, 0, k);
+        countMoves(input.length);
+    }
+
+    /**
+     * Returns the k-th smallest element of the given array, counting from 0.
+     * This should modify the array in-place.
+     *
+     * Afterwards input[k] holds the returned element, every element before it is less
+     * than or equal to it and every element after it is greater than or equal to it.
+     *
+     * The array is partitioned like quickSort(), but only the partition holding index k
+     * is kept. If that takes more than 2 log n partitioning steps, the remaining steps
+     * use the median of medians of groups of five as the pivot, which always leaves at
+     * most 7/10 of the range, so the worst case stays linear (introselect).
+     *
+     * This method has a time complexity of O(n) and a memory complexity of O(log n).
+     *
+     * @param input An array of comparable objects.
+     * @param k The index of the element to find in the sorted order.
+     * @return the k-th smallest element
+     * @throws IndexOutOfBoundsException if k < 0 or k >= input.length
+     * @requires input != null
+     */
+    static <T extends Comparable> T select(T[] input, int k) throws IndexOutOfBoundsException {
+        Comparator<? super T> comparator = getComparator(false);
+        return select(input, k, comparator);
+    }
+
+    /**
+     * Returns the k-th element of the given array in the order of the given comparator,
+     * like select(T[], int).
+     *
+     * @param input An array of objects.
+     * @param k The index of the element to find in the sorted order.
+     * @param comparator Comparator to order the elements by.
+     * @return the k-th element in the comparator's order
+     * @throws IndexOutOfBoundsException if k < 0 or k >= input.length
+     * @requires input != null && comparator != null
+     */
+    static <T> T select(T[] input, int k, Comparator<? super T> comparator)
+            throws IndexOutOfBoundsException {
+        if (k < 0 || k >= input.length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(input.length));
+        introSelect(input, 0, input.length, k, depthLimit, comparator);
+        return input[k];
+    }
+
+    /**
+     * Partitions the range [leftBound, rightBound) of the given array so that index k
+     * holds the element that would be there if the range was sorted.
+     *
+     * @param input Array holding the range
+     * @param leftBound Start of the range
+     * @param rightBound End of the range
+     * @param k Index to place, leftBound <= k < rightBound
+     * @param depthLimit Number of partitioning steps left before using median of medians
+     * @param comparator Comparator to order by
+     */
+    private static <T> void introSelect(T[] input, int leftBound, int rightBound, int k,
+            int depthLimit, Comparator<? super T> comparator) {
+        while (rightBound - leftBound > INSERTION_SORT_THRESHOLD) {
+            T pivot;
+            if (depthLimit > 0) {
+                depthLimit--;
+                pivot = input[choosePivot(input, leftBound, rightBound, comparator)];
+            } else {
+                pivot = input[medianOfMedians(input, leftBound, rightBound, comparator)];
+            }
+
+            // The same partition as introSort().
+            int lesserEnd = leftBound;
+            int cursor = leftBound;
+            int greaterStart = rightBound;
+            while (cursor < greaterStart) {
+                int comparison = comparator.compare(input[cursor], pivot);
+                if (comparison < 0) {
+                    swap(input, lesserEnd++, cursor++);
+                } else if (comparison > 0) {
+                    swap(input, cursor, --greaterStart);
+                } else {
+                    cursor++;
+                }
+            }
+
+            if (k < lesserEnd) {
+                rightBound = lesserEnd;
+            } else if (k >= greaterStart) {
+                leftBound = greaterStart;
+            } else {
+                return;
+            }
+        }
+
+        insertionSort(input, leftBound, rightBound, comparator);
+    }
+
+    /**
+     * Returns the index of an element of the range [leftBound, rightBound) that is
+     * greater than at least 3/10 and less than at least 3/10 of the range. The median of
+     * each group of five elements is moved to the start of the range, and the median of
+     * those medians is selected recursively.
+     *
+     * @param input Array holding the range
+     * @param leftBound Start of the range
+     * @param rightBound End of the range, more than INSERTION_SORT_THRESHOLD past leftBound
+     * @param comparator Comparator to order by
+     */
+    private static <T> int medianOfMedians(T[] input, int leftBound, int rightBound,
+            Comparator<? super T> comparator) {
+        int medians = leftBound;
+        for (int group = leftBound; group + 5 <= rightBound; group += 5) {
+            insertionSort(input, group, group + 5, comparator);
+            swap(input, medians++, group + 2);
+        }
+
+        int middle = (leftBound + medians) >>> 1;
+        introSelect(input, leftBound, medians, middle, 0, comparator);
+        return middle;
+    }
+
+    /**
+     * Returns the k smallest elements produced by the given iterable in sorted order.
+     *
+     * The elements are streamed through a bounded max-heap of the k smallest elements
+     * seen so far, so only O(k) of them are held at once and the source may be larger
+     * than memory. Elements that compare equal are returned in the order they were
+     * produced.
+     *
+     * This method has a time complexity of O(n log k), and close to O(n + k log k) when
+     * the elements arrive in random order. Memory complexity is O(k).
+     *
+     * @param input The elements to choose from.
+     * @param k The maximum number of elements to return.
+     * @param reversed If false, returns the k smallest elements in ascending order.
+     *                 Otherwise, returns the k largest elements in descending order.
+     * @return the first min(k, n) elements of the sorted input
+     * @throws IllegalArgumentException if k < 0
+     * @requires input != null
+     */
+    static <T extends Comparable> List<T> topK(Iterable<? extends T> input, int k, boolean reversed)
+            throws IllegalArgumentException {
+        Comparator<? super T> comparator = getComparator(reversed);
+        return topK(input, k, comparator);
+    }
+
+    /**
+     * Returns the k elements produced by the given iterable that come first by the given
+     * comparator, in sorted order, like topK(Iterable, int, boolean).
+     *
+     * @param input The elements to choose from.
+     * @param k The maximum number of elements to return.
+     * @param comparator Comparator to order the elements by.
+     * @return the first min(k, n) elements of the sorted input
+     * @throws IllegalArgumentException if k < 0
+     * @requires input != null && comparator != null
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> topK(Iterable<? extends T> input, int k, Comparator<? super T> comparator)
+            throws IllegalArgumentException {
+        if (k < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        BoundedHeap<T> heap = new BoundedHeap<>(k, comparator);
+        long position = 0;
+        for (T element : input) {
+            heap.offer(element, position++);
+        }
+
+        Object[] smallest = new Object[heap.size()];
+        heap.drainSorted(smallest, new long[smallest.length]);
+        return Arrays.asList((T[]) smallest);
+    }
+
+    /**
+     * A binary max-heap holding at most a fixed number of the smallest elements offered
+     * to it. Each element is kept with the position it was offered at, and elements that
+     * compare equal are ordered by position, so of several equal elements the earliest
+     * ones are kept.
+     */
+    private static class BoundedHeap<T> {
+        private final Comparator<? super T> comparator;
+        private final T[] elements;
+        private final long[] positions;
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        BoundedHeap(int capacity, Comparator<? super T> comparator) {
+            this.comparator = comparator;
+            this.elements = (T[]) new Object[capacity];
+            this.positions = new long[capacity];
+            this.size = 0;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        /**
+         * Adds the given element if the heap isn't full or it is smaller than the largest
+         * element kept, which is then dropped. Positions must be offered in increasing
+         * order.
+         */
+        void offer(T element, long position) {
+            if (this.size < this.elements.length) {
+                this.siftUp(this.size++, element, position);
+            } else if (this.size > 0 && this.comparator.compare(element, this.elements[0]) < 0) {
+                this.siftDown(0, element, position, this.size);
+            }
+        }
+
+        /**
+         * Empties the heap into the given arrays, in ascending order of element and then
+         * position.
+         */
+        void drainSorted(Object[] sortedElements, long[] sortedPositions) {
+            while (this.size > 0) {
+                int last = --this.size;
+                sortedElements[last] = this.elements[0];
+                sortedPositions[last] = this.positions[0];
+                countMoves(1);
+                this.siftDown(0, this.elements[last], this.positions[last], last);
+                this.elements[last] = null;
+            }
+        }
+
+        /**
+         * Returns whether element a, offered at positionA, comes after element b, offered
+         * at positionB.
+         */
+        private boolean after(T a, long positionA, T b, long positionB) {
+            int comparison = this.comparator.compare(a, b);
+            return comparison > 0 || (comparison == 0 && positionA > positionB);
+        }
+
+        private void siftUp(int i, T element, long position) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!this.after(element, position, this.elements[parent], this.positions[parent])) {
+                    break;
+                }
+                this.elements[i] = this.elements[parent];
+                this.positions[i] = this.positions[parent];
+                i = parent;
+                countMoves(1);
+            }
+            this.elements[i] = element;
+            this.positions[i] = position;
+            countMoves(1);
+        }
+
+        private void siftDown(int i, T element, long position, int heapSize) {
+            int child;
+            while ((child = 2 * i + 1) < heapSize) {
+                if (child + 1 < heapSize && this.after(this.elements[child + 1],
+                        this.positions[child + 1], this.elements[child], this.positions[child])) {
+                    child++;
+                }
+                if (!this.after(this.elements[child], this.positions[child], element, position)) {
+                    break;
+                }
+                this.elements[i] = this.elements[child];
+                this.positions[i] = this.positions[child];
+                i = child;
+                countMoves(1);
+            }
+            this.elements[i] = element;
+            this.positions[i] = position;
+            countMoves(1);
+        }
     }
 
     /**
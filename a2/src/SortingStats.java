@@ -0,0 +1,175 @@
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * The work done by a single call to a sort, for tuning the cutoffs of the sorts in
+ * SortingAlgorithms.
+ *
+ * measure() runs a sort and records the number of comparisons it made, the number of
+ * elements it moved, the bytes allocated while it ran and the time it took.
+ * Comparisons are counted by wrapping the comparator passed to the sort, so they cost
+ * nothing unless a sort is measured.
+ *
+ * Moves are writes of an element into the array being sorted or a buffer, and are only
+ * counted when the JVM is started with -Dsorting.instrument=true. The comparator-based
+ * sorts of SortingAlgorithms report them through recordMoves(), guarded by ENABLED.
+ * As ENABLED is a static final constant, the JIT removes those checks along with the
+ * code computing their arguments when instrumentation is off. The primitive and radix
+ * sorts don't count their moves.
+ *
+ * Allocation is read from the per-thread counters of the JVM, summed over every live
+ * thread so that the worker threads of the parallel sorts are included. Bytes allocated
+ * by threads that exit during the sort are missed, so it is an estimate.
+ */
+public class SortingStats {
+    /* Whether the sorts count their moves. Read once so the JIT can fold the checks away. */
+    static final boolean ENABLED = Boolean.getBoolean("sorting.instrument");
+    /* The number of moves recorded by every sort so far. */
+    private static final LongAdder MOVES = new LongAdder();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int size;
+    private final long comparisons;
+    private final long moves;
+    private final long allocatedBytes;
+    private final long elapsedNanos;
+
+    private SortingStats(int size, long comparisons, long moves, long allocatedBytes,
+            long elapsedNanos) {
+        this.size = size;
+        this.comparisons = comparisons;
+        this.moves = moves;
+        this.allocatedBytes = allocatedBytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Records that a sort moved the given number of elements. Callers must check ENABLED
+     * first, so that the call is removed when instrumentation is off.
+     *
+     * @param moves the number of element writes
+     */
+    static void recordMoves(long moves) {
+        MOVES.add(moves);
+    }
+
+    /**
+     * Returns a counter of every move recorded by the sorts of SortingAlgorithms, or null
+     * if instrumentation is disabled, for passing to measure(int, LongSupplier,
+     * LongSupplier, Runnable).
+     *
+     * @return the move counter, or null
+     */
+    public static LongSupplier moveCounter() {
+        return ENABLED ? MOVES::sum : null;
+    }
+
+    /**
+     * Sorts the given array with the given sort, passing it a comparator that counts
+     * its calls, and returns the work it did. Moves are counted if instrumentation is
+     * enabled.
+     *
+     * @param input the array to sort
+     * @param comparator the order to sort by
+     * @param sort sorts the array it is given by the comparator it is given
+     * @return the work done by the sort
+     */
+    public static <T> SortingStats measure(T[] input, Comparator<? super T> comparator,
+            BiConsumer<T[], Comparator<? super T>> sort) {
+        LongAdder comparisons = new LongAdder();
+        Comparator<T> counting = (a, b) -> {
+            comparisons.increment();
+            return comparator.compare(a, b);
+        };
+        return measure(input.length, comparisons::sum, moveCounter(), () -> sort.accept(input, counting));
+    }
+
+    /**
+     * Runs the given sort and returns the work it did, for sorts that count their
+     * comparisons or moves some other way.
+     *
+     * @param size the number of elements being sorted
+     * @param comparisons a running count of comparisons, or null if they aren't counted
+     * @param moves a running count of moves, or null if they aren't counted
+     * @param sort the sort to run
+     * @return the work done by the sort, with -1 for anything not counted
+     */
+    public static SortingStats measure(int size, LongSupplier comparisons, LongSupplier moves,
+            Runnable sort) {
+        long comparisonsBefore = comparisons == null ? 0 : comparisons.getAsLong();
+        long movesBefore = moves == null ? 0 : moves.getAsLong();
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        sort.run();
+
+        long elapsed = System.nanoTime() - start;
+        long bytes = Math.max(0, allocatedBytes() - bytesBefore);
+        return new SortingStats(size,
+                comparisons == null ? -1 : comparisons.getAsLong() - comparisonsBefore,
+                moves == null ? -1 : moves.getAsLong() - movesBefore, bytes, elapsed);
+    }
+
+    /**
+     * Returns the total bytes allocated by every live thread.
+     */
+    private static long allocatedBytes() {
+        long total = 0;
+        for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of comparisons made, or -1 if they weren't counted.
+     */
+    public long getComparisons() {
+        return this.comparisons;
+    }
+
+    /**
+     * Returns the number of elements moved, or -1 if moves weren't counted.
+     */
+    public long getMoves() {
+        return this.moves;
+    }
+
+    public long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns the comparisons made divided by n log2 n, which stays roughly constant
+     * across sizes for an O(n log n) sort. Returns NaN if comparisons weren't counted
+     * or there are fewer than two elements.
+     */
+    public double getComparisonsPerNLogN() {
+        if (this.comparisons < 0 || this.size < 2) {
+            return Double.NaN;
+        }
+        return this.comparisons / (this.size * (Math.log(this.size) / Math.log(2)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d comparisons=%d comparisonsPerNLogN=%.3f moves=%d "
+                + "allocatedBytes=%d elapsedMillis=%.3f", this.size, this.comparisons,
+                this.getComparisonsPerNLogN(), this.moves, this.allocatedBytes,
+                this.elapsedNanos / 1e6);
+    }
+}
@@ -0,0 +1,164 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ExternalMergeSortTest {
+    /* Stores each Long as an 8 byte record. */
+    private static final RecordCodec<Long> LONG_CODEC = new RecordCodec<Long>() {
+        @Override
+        public int recordSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    /* Orders records by their upper 32 bits only, leaving the lower bits to check stability. */
+    private static final Comparator<Long> BY_KEY = Comparator.comparingLong(value -> value >> 32);
+
+    /* Enough memory for 2 merge windows plus the output, so runs are merged in several passes. */
+    private static final long SMALL_BUDGET = 3 * 16 * (Long.BYTES + 32);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path input;
+    private Path output;
+    private Path runs;
+
+    @Before
+    public void setUp() throws IOException {
+        input = folder.getRoot().toPath().resolve("input.bin");
+        output = folder.getRoot().toPath().resolve("output.bin");
+        runs = folder.newFolder("runs").toPath();
+    }
+
+    private static void write(Path file, long[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Long.BYTES);
+        for (long value : values) {
+            buffer.putLong(value);
+        }
+        Files.write(file, buffer.array());
+    }
+
+    private static long[] read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        long[] values = new long[buffer.remaining() / Long.BYTES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getLong();
+        }
+        return values;
+    }
+
+    private void assertSortsExternalMergeSort(long[] values, long budget) throws IOException {
+        write(input, values);
+        new ExternalMergeSort<>(LONG_CODEC, Comparator.<Long>naturalOrder(), budget, runs).sort(input, output);
+
+        long[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, read(output));
+        assertEquals(0, Files.list(runs).count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBudgetExternalMergeSort() {
+        new ExternalMergeSort<>(LONG_CODEC, BY_KEY, 100, runs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void partialRecordExternalMergeSort() throws IOException {
+        Files.write(input, new byte[Long.BYTES + 3]);
+        new ExternalMergeSort<>(LONG_CODEC, BY_KEY, SMALL_BUDGET, runs).sort(input, output);
+    }
+
+    @Test
+    public void emptyExternalMergeSort() throws IOException {
+        assertSortsExternalMergeSort(new long[0], SMALL_BUDGET);
+        assertEquals(0, Files.size(output));
+    }
+
+    @Test
+    public void singleRunExternalMergeSort() throws IOException {
+        long[] values = new Random(1).longs(1000).toArray();
+        assertSortsExternalMergeSort(values, 1 << 20);
+    }
+
+    @Test
+    public void manyRunsExternalMergeSort() throws IOException {
+        Random random = new Random(2);
+        for (int size : new int[] {1, 2, 47, 48, 49, 1000, 20000}) {
+            assertSortsExternalMergeSort(random.longs(size).toArray(), SMALL_BUDGET);
+        }
+    }
+
+    @Test
+    public void singlePassExternalMergeSort() throws IOException {
+        long[] values = new Random(3).longs(50000).toArray();
+        assertSortsExternalMergeSort(values, 64 * 1024);
+    }
+
+    @Test
+    public void stableExternalMergeSort() throws IOException {
+        // Few distinct keys in the upper bits, and the original position in the lower bits.
+        Random random = new Random(4);
+        long[] values = new long[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((long) random.nextInt(10) << 32) | i;
+        }
+        write(input, values);
+
+        new ExternalMergeSort<>(LONG_CODEC, BY_KEY, SMALL_BUDGET, runs).sort(input, output);
+
+        long[] sorted = read(output);
+        assertEquals(values.length, sorted.length);
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(sorted[i - 1] >> 32 < sorted[i] >> 32
+                    || (sorted[i - 1] >> 32 == sorted[i] >> 32 && sorted[i - 1] < sorted[i]));
+        }
+    }
+
+    @Test
+    public void reversedExternalMergeSort() throws IOException {
+        long[] values = new Random(5).longs(3000).toArray();
+        write(input, values);
+
+        new ExternalMergeSort<>(LONG_CODEC, Comparator.<Long>reverseOrder(), SMALL_BUDGET, runs)
+                .sort(input, output);
+
+        long[] sorted = read(output);
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(sorted[i - 1] >= sorted[i]);
+        }
+    }
+
+    @Test
+    public void inPlaceExternalMergeSort() throws IOException {
+        long[] values = new Random(6).longs(2000).toArray();
+        write(input, values);
+
+        new ExternalMergeSort<>(LONG_CODEC, Comparator.<Long>naturalOrder(), SMALL_BUDGET, runs)
+                .sort(input, input);
+
+        Arrays.sort(values);
+        assertArrayEquals(values, read(input));
+    }
+}
@@ -0,0 +1,125 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IncrementalSorterTest {
+    /* Orders longs by their upper 32 bits only, leaving the lower bits to check stability. */
+    private static final Comparator<Long> BY_KEY = Comparator.comparingLong(value -> value >> 32);
+
+    private IncrementalSorter<Long> sorter;
+
+    @Before
+    public void setUp() {
+        this.sorter = new IncrementalSorter<>(BY_KEY);
+    }
+
+    private static List<Long> toList(Iterable<Long> iterable) {
+        List<Long> list = new ArrayList<>();
+        for (Long value : iterable) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Test
+    public void emptyIncrementalSorter() {
+        assertTrue(this.sorter.isEmpty());
+        assertEquals(0, this.sorter.size());
+        assertFalse(this.sorter.iterator().hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void nextOnExhaustedIncrementalSorter() {
+        this.sorter.add(1L);
+        Iterator<Long> iterator = this.sorter.iterator();
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullComparatorIncrementalSorter() {
+        new IncrementalSorter<Long>(null);
+    }
+
+    @Test
+    public void sortedAtEveryStepIncrementalSorter() {
+        // Few distinct keys, with the index of each element in the lower bits, so the
+        // expected order is the stable sort of everything added so far.
+        Random random = new Random(3506);
+        List<Long> added = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long value = ((long) random.nextInt(50) << 32) | i;
+            this.sorter.add(value);
+            added.add(value);
+
+            if (i < 100 || i % 997 == 0) {
+                List<Long> expected = new ArrayList<>(added);
+                expected.sort(BY_KEY);
+                assertEquals(expected, toList(this.sorter));
+                assertEquals(added.size(), this.sorter.size());
+            }
+        }
+    }
+
+    @Test
+    public void runsIncrementalSorter() {
+        // 32 elements per run: 100 runs' worth is 64 + 32 + 4, leaving 3 levels.
+        for (long i = 0; i < 3200; i++) {
+            this.sorter.add(i << 32);
+        }
+        assertEquals(3, this.sorter.runCount());
+        this.sorter.add(0L);
+        assertEquals(3, this.sorter.runCount());
+        assertEquals(Long.valueOf(0), this.sorter.iterator().next());
+    }
+
+    @Test
+    public void addAllAndClearIncrementalSorter() {
+        List<Long> values = new ArrayList<>();
+        for (long i = 100; i > 0; i--) {
+            values.add(i << 32);
+        }
+        this.sorter.addAll(values);
+        assertEquals(100, this.sorter.size());
+        assertEquals(Long.valueOf(1L << 32), this.sorter.iterator().next());
+
+        this.sorter.clear();
+        assertTrue(this.sorter.isEmpty());
+        assertEquals(0, this.sorter.runCount());
+        assertFalse(this.sorter.iterator().hasNext());
+        this.sorter.add(7L);
+        assertEquals(Long.valueOf(7), this.sorter.iterator().next());
+    }
+
+    @Test
+    public void concurrentIteratorsIncrementalSorter() {
+        for (long i = 40; i > 0; i--) {
+            this.sorter.add(i << 32);
+        }
+        // Creating a second iterator sorts the buffer again, which must not disturb the first.
+        Iterator<Long> first = this.sorter.iterator();
+        first.next();
+        Iterator<Long> second = this.sorter.iterator();
+        assertEquals(Long.valueOf(1L << 32), second.next());
+        assertEquals(Long.valueOf(2L << 32), first.next());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void failFastIncrementalSorter() {
+        this.sorter.add(1L);
+        this.sorter.add(2L);
+        Iterator<Long> iterator = this.sorter.iterator();
+        iterator.next();
+        this.sorter.add(3L);
+        iterator.next();
+    }
+}
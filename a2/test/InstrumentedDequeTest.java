@@ -0,0 +1,119 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class InstrumentedDequeTest {
+    private long time;
+    private InstrumentedDeque<Integer> deque;
+
+    @Before
+    public void setUp() {
+        time = 0;
+        deque = new InstrumentedDeque<>(new SimpleArrayDeque<>(3), () -> time, 1);
+    }
+
+    @Test
+    public void countsInstrumentedDeque() {
+        deque.pushLeft(1);
+        deque.pushRight(2);
+        deque.pushRight(3);
+        assertEquals(Integer.valueOf(3), deque.popRight());
+        assertEquals(Integer.valueOf(1), deque.popLeft());
+
+        InstrumentedDeque.Snapshot snapshot = deque.snapshot();
+        assertEquals(1, snapshot.getPushesLeft());
+        assertEquals(2, snapshot.getPushesRight());
+        assertEquals(1, snapshot.getPopsLeft());
+        assertEquals(1, snapshot.getPopsRight());
+        assertEquals(0, snapshot.getRejectedPushes());
+        assertEquals(1, snapshot.getSize());
+        assertEquals(3, snapshot.getMaxSize());
+    }
+
+    @Test
+    public void rejectedPushesInstrumentedDeque() {
+        for (int i = 0; i < 3; i++) {
+            deque.pushRight(i);
+        }
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                deque.pushLeft(i);
+                fail();
+            } catch (RuntimeException e) {
+                // Expected, the deque is full.
+            }
+        }
+
+        InstrumentedDeque.Snapshot snapshot = deque.snapshot();
+        assertEquals(2, snapshot.getRejectedPushes());
+        assertEquals(0, snapshot.getPushesLeft());
+        assertEquals(3, snapshot.getPushesRight());
+        assertEquals(3, snapshot.getMaxSize());
+    }
+
+    @Test
+    public void emptyPopInstrumentedDeque() {
+        try {
+            deque.popLeft();
+            fail();
+        } catch (NoSuchElementException e) {
+            // Expected, the deque is empty.
+        }
+
+        assertEquals(0, deque.snapshot().getPopsLeft());
+    }
+
+    @Test
+    public void averageSizeInstrumentedDeque() {
+        assertEquals(0, deque.snapshot().getAverageSize(), 0);
+
+        // Size 0 for 10ns, size 2 for 10ns, then size 1 for 20ns.
+        time = 10;
+        deque.pushRight(1);
+        deque.pushRight(2);
+        time = 20;
+        deque.popLeft();
+        time = 40;
+
+        assertEquals((2 * 10 + 1 * 20) / 40.0, deque.snapshot().getAverageSize(), 1e-9);
+    }
+
+    @Test
+    public void sampledClockInstrumentedDeque() {
+        int[] reads = {0};
+        InstrumentedDeque<Integer> sampled = new InstrumentedDeque<>(new SimpleLinkedDeque<>(), () -> {
+            reads[0]++;
+            return time;
+        }, 4);
+        assertEquals(1, reads[0]);
+
+        // Sizes 0, 1, 2 and 3 before the four pushes, averaged over the 40ns between readings.
+        for (int i = 0; i < 4; i++) {
+            time += 10;
+            sampled.pushRight(i);
+        }
+        assertEquals(2, reads[0]);
+
+        time = 60;
+        assertEquals((1.5 * 40 + 4 * 20) / 60, sampled.snapshot().getAverageSize(), 1e-9);
+        assertEquals(4, sampled.snapshot().getMaxSize());
+    }
+
+    @Test
+    public void wrapsFilledDequeInstrumentedDeque() {
+        SimpleLinkedDeque<Integer> data = new SimpleLinkedDeque<>();
+        data.pushRight(1);
+        data.pushRight(2);
+        InstrumentedDeque<Integer> wrapped = new InstrumentedDeque<>(data, () -> time, 1);
+
+        assertEquals(2, wrapped.snapshot().getMaxSize());
+        assertEquals(2, wrapped.snapshot().getAverageSize(), 0);
+        assertEquals(Integer.valueOf(2), wrapped.get(1));
+        wrapped.set(1, 5);
+        assertEquals(Integer.valueOf(5), wrapped.peekRight());
+    }
+}
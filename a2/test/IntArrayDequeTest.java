@@ -0,0 +1,117 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static org.junit.Assert.*;
+
+public class IntArrayDequeTest {
+    private IntArrayDeque deque;
+
+    @Before
+    public void setUp() {
+        deque = new IntArrayDeque(5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidConstructorNegIntArrayDeque() {
+        new IntArrayDeque(-2);
+    }
+
+    @Test
+    public void pushPopIntArrayDeque() {
+        deque.pushLeft(2);
+        deque.pushLeft(1);
+        deque.pushRight(3);
+        assertEquals(3, deque.size());
+        assertEquals(1, deque.peekLeft());
+        assertEquals(3, deque.peekRight());
+        assertEquals(1, deque.popLeft());
+        assertEquals(3, deque.popRight());
+        assertEquals(2, deque.popRight());
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void pushRightIntArrayDequeFull() {
+        for (int i = 0; i < 6; i++) {
+            deque.pushRight(i);
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void popLeftIntArrayDequeEmpty() {
+        deque.popLeft();
+    }
+
+    @Test
+    public void singleCapacityIntArrayDeque() {
+        IntArrayDeque single = new IntArrayDeque(1);
+        single.pushLeft(7);
+        assertEquals(7, single.peekRight());
+        assertEquals(7, single.popRight());
+        single.pushRight(8);
+        assertEquals(8, single.peekLeft());
+    }
+
+    @Test
+    public void pushAllRightWrapsIntArrayDeque() {
+        deque.pushRight(1);
+        deque.pushRight(2);
+        deque.pushAllRight(new int[]{3, 4, 5});
+        assertTrue(deque.isFull());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, deque.toArray());
+        assertEquals(5, deque.popRight());
+        assertEquals(1, deque.popLeft());
+    }
+
+    @Test
+    public void pushAllLeftIntArrayDeque() {
+        deque.pushRight(10);
+        deque.pushAllLeft(new int[]{1, 2, 3});
+        assertArrayEquals(new int[]{3, 2, 1, 10}, deque.toArray());
+    }
+
+    @Test
+    public void pushAllRightIntArrayDequeNotEnoughSpace() {
+        deque.pushRight(1);
+        try {
+            deque.pushAllRight(new int[]{2, 3, 4, 5, 6});
+            fail();
+        } catch (RuntimeException e) {}
+
+        assertArrayEquals(new int[]{1}, deque.toArray());
+    }
+
+    @Test
+    public void iteratorsFullIntArrayDeque() {
+        for (int i = 0; i < 5; i++) {
+            deque.pushLeft(i);
+        }
+
+        PrimitiveIterator.OfInt iter = deque.iterator();
+        for (int i = 4; i >= 0; i--) {
+            assertEquals(i, iter.nextInt());
+        }
+        assertFalse(iter.hasNext());
+
+        PrimitiveIterator.OfInt reverse = deque.reverseIterator();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, reverse.nextInt());
+        }
+        assertFalse(reverse.hasNext());
+    }
+
+    @Test
+    public void reversibleIntDeque() {
+        ReversibleIntDeque reversible = new ReversibleIntDeque(deque);
+        reversible.pushAllRight(new int[]{1, 2, 3});
+        reversible.reverse();
+        assertArrayEquals(new int[]{3, 2, 1}, reversible.toArray());
+        assertEquals(3, reversible.popLeft());
+        reversible.pushAllRight(new int[]{4, 5});
+        assertArrayEquals(new int[]{2, 1, 4, 5}, reversible.toArray());
+        assertEquals(5, reversible.reverseIterator().nextInt());
+    }
+}
@@ -0,0 +1,117 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static org.junit.Assert.*;
+
+public class LongArrayDequeTest {
+    private LongArrayDeque deque;
+
+    @Before
+    public void setUp() {
+        deque = new LongArrayDeque(5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidConstructorNegLongArrayDeque() {
+        new LongArrayDeque(-2);
+    }
+
+    @Test
+    public void pushPopLongArrayDeque() {
+        deque.pushLeft(2);
+        deque.pushLeft(1);
+        deque.pushRight(3);
+        assertEquals(3, deque.size());
+        assertEquals(1, deque.peekLeft());
+        assertEquals(3, deque.peekRight());
+        assertEquals(1, deque.popLeft());
+        assertEquals(3, deque.popRight());
+        assertEquals(2, deque.popRight());
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void pushRightLongArrayDequeFull() {
+        for (int i = 0; i < 6; i++) {
+            deque.pushRight(i);
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void popLeftLongArrayDequeEmpty() {
+        deque.popLeft();
+    }
+
+    @Test
+    public void singleCapacityLongArrayDeque() {
+        LongArrayDeque single = new LongArrayDeque(1);
+        single.pushLeft(7);
+        assertEquals(7, single.peekRight());
+        assertEquals(7, single.popRight());
+        single.pushRight(8);
+        assertEquals(8, single.peekLeft());
+    }
+
+    @Test
+    public void pushAllRightWrapsLongArrayDeque() {
+        deque.pushRight(1);
+        deque.pushRight(2);
+        deque.pushAllRight(new long[]{3, 4, 5});
+        assertTrue(deque.isFull());
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5}, deque.toArray());
+        assertEquals(5, deque.popRight());
+        assertEquals(1, deque.popLeft());
+    }
+
+    @Test
+    public void pushAllLeftLongArrayDeque() {
+        deque.pushRight(10);
+        deque.pushAllLeft(new long[]{1, 2, 3});
+        assertArrayEquals(new long[]{3, 2, 1, 10}, deque.toArray());
+    }
+
+    @Test
+    public void pushAllRightLongArrayDequeNotEnoughSpace() {
+        deque.pushRight(1);
+        try {
+            deque.pushAllRight(new long[]{2, 3, 4, 5, 6});
+            fail();
+        } catch (RuntimeException e) {}
+
+        assertArrayEquals(new long[]{1}, deque.toArray());
+    }
+
+    @Test
+    public void iteratorsFullLongArrayDeque() {
+        for (int i = 0; i < 5; i++) {
+            deque.pushLeft(i);
+        }
+
+        PrimitiveIterator.OfLong iter = deque.iterator();
+        for (int i = 4; i >= 0; i--) {
+            assertEquals(i, iter.nextLong());
+        }
+        assertFalse(iter.hasNext());
+
+        PrimitiveIterator.OfLong reverse = deque.reverseIterator();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, reverse.nextLong());
+        }
+        assertFalse(reverse.hasNext());
+    }
+
+    @Test
+    public void reversibleIntDeque() {
+        ReversibleLongDeque reversible = new ReversibleLongDeque(deque);
+        reversible.pushAllRight(new long[]{1, 2, 3});
+        reversible.reverse();
+        assertArrayEquals(new long[]{3, 2, 1}, reversible.toArray());
+        assertEquals(3, reversible.popLeft());
+        reversible.pushAllRight(new long[]{4, 5});
+        assertArrayEquals(new long[]{2, 1, 4, 5}, reversible.toArray());
+        assertEquals(5, reversible.reverseIterator().nextLong());
+    }
+}
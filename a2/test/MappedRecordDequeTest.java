@@ -0,0 +1,122 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class MappedRecordDequeTest {
+    /* Stores each Long as an 8 byte record. */
+    private static final RecordCodec<Long> LONG_CODEC = new RecordCodec<Long>() {
+        @Override
+        public int recordSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("deque.bin");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidConstructorNegMappedDeque() throws IOException {
+        new MappedRecordDeque<>(file, -2, LONG_CODEC);
+    }
+
+    @Test
+    public void pushPopMappedDeque() throws IOException {
+        try (MappedRecordDeque<Long> deque = new MappedRecordDeque<>(file, 3, LONG_CODEC)) {
+            deque.pushLeft(2L);
+            deque.pushLeft(1L);
+            deque.pushRight(3L);
+            assertTrue(deque.isFull());
+            assertEquals(Long.valueOf(1), deque.peekLeft());
+            assertEquals(Long.valueOf(3), deque.peekRight());
+            assertEquals(Long.valueOf(2), deque.get(1));
+            assertEquals(Long.valueOf(3), deque.popRight());
+            assertEquals(Long.valueOf(1), deque.popLeft());
+            assertEquals(Long.valueOf(2), deque.popLeft());
+            assertTrue(deque.isEmpty());
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void pushRightMappedDequeFull() throws IOException {
+        try (MappedRecordDeque<Long> deque = new MappedRecordDeque<>(file, 1, LONG_CODEC)) {
+            deque.pushRight(1L);
+            deque.pushRight(2L);
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void popLeftMappedDequeEmpty() throws IOException {
+        try (MappedRecordDeque<Long> deque = new MappedRecordDeque<>(file, 1, LONG_CODEC)) {
+            deque.popLeft();
+        }
+    }
+
+    @Test
+    public void iteratorsMappedDequeWrapped() throws IOException {
+        try (MappedRecordDeque<Long> deque = new MappedRecordDeque<>(file, 5, LONG_CODEC)) {
+            for (long i = 0; i < 5; i++) {
+                deque.pushLeft(i);
+            }
+
+            Iterator<Long> iter = deque.iterator();
+            for (long i = 4; i >= 0; i--) {
+                assertEquals(Long.valueOf(i), iter.next());
+            }
+            assertFalse(iter.hasNext());
+
+            Iterator<Long> reverse = deque.reverseIterator();
+            for (long i = 0; i < 5; i++) {
+                assertEquals(Long.valueOf(i), reverse.next());
+            }
+            assertFalse(reverse.hasNext());
+        }
+    }
+
+    @Test
+    public void reopenMappedDeque() throws IOException {
+        try (MappedRecordDeque<Long> deque = new MappedRecordDeque<>(file, 4, LONG_CODEC)) {
+            deque.pushRight(10L);
+            deque.pushRight(20L);
+            deque.pushLeft(5L);
+            deque.popRight();
+        }
+
+        try (MappedRecordDeque<Long> deque = new MappedRecordDeque<>(file, 4, LONG_CODEC)) {
+            assertEquals(2, deque.size());
+            assertEquals(Long.valueOf(5), deque.popLeft());
+            assertEquals(Long.valueOf(10), deque.popLeft());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reopenMappedDequeDifferentCapacity() throws IOException {
+        new MappedRecordDeque<>(file, 4, LONG_CODEC).close();
+        new MappedRecordDeque<>(file, 8, LONG_CODEC);
+    }
+}
@@ -0,0 +1,133 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class MpscRingQueueTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidConstructorMpscQueue() {
+        new MpscRingQueue<Integer>(0);
+    }
+
+    @Test
+    public void capacityRoundedMpscQueue() {
+        assertEquals(8, new MpscRingQueue<Integer>(5).capacity());
+        assertEquals(2, new MpscRingQueue<Integer>(1).capacity());
+    }
+
+    @Test
+    public void offerPollMpscQueue() {
+        MpscRingQueue<Integer> queue = new MpscRingQueue<>(2);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        assertEquals(2, queue.size());
+
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertTrue(queue.offer(3));
+        assertEquals(Integer.valueOf(2), queue.popLeft());
+        assertEquals(Integer.valueOf(3), queue.popLeft());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void pushRightMpscQueueFull() {
+        MpscRingQueue<Integer> queue = new MpscRingQueue<>(2);
+        queue.pushRight(1);
+        queue.pushRight(2);
+        queue.pushRight(3);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void popLeftMpscQueueEmpty() {
+        new MpscRingQueue<Integer>(4).popLeft();
+    }
+
+    @Test
+    public void drainMpscQueue() {
+        MpscRingQueue<Integer> queue = new MpscRingQueue<>(8);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(i);
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, queue.drain(drained::add, 4));
+        assertEquals(2, queue.drain(drained::add, 10));
+        assertEquals(0, queue.drain(drained::add, 10));
+        for (int i = 0; i < 6; i++) {
+            assertEquals(Integer.valueOf(i), drained.get(i));
+        }
+    }
+
+    @Test
+    public void drainThrowingConsumerMpscQueue() {
+        MpscRingQueue<Integer> queue = new MpscRingQueue<>(4);
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+
+        List<Integer> drained = new ArrayList<>();
+        try {
+            queue.drain(element -> {
+                if (element == 2) {
+                    throw new IllegalStateException();
+                }
+                drained.add(element);
+            }, 10);
+            fail();
+        } catch (IllegalStateException e) {
+            // The element the consumer threw on is removed along with those before it.
+        }
+
+        assertEquals(1, queue.size());
+        assertEquals(Integer.valueOf(3), queue.poll());
+        assertTrue(queue.offer(4));
+        assertEquals(Integer.valueOf(4), queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(List.of(1), drained);
+    }
+
+    @Test
+    public void multipleProducersMpscQueue() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 100_000;
+        MpscRingQueue<long[]> queue = new MpscRingQueue<>(64);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!queue.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        // Elements from each producer must arrive in the order they were offered.
+        long[] next = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[(int) element[0]]++, element[1]);
+            received++;
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -134,4 +134,49 @@ public class ReversibleDequeTest {
 
         assertArrayEquals(arr, actual);
     }
+
+    @Test
+    public void getSetReversibleDeque() {
+        ReversibleDeque<Integer> deque = new ReversibleDeque<>(linkedDeque);
+        assertEquals(Integer.valueOf(7), deque.get(0));
+        deque.reverse();
+        assertEquals(Integer.valueOf(10), deque.get(0));
+        assertEquals(Integer.valueOf(7), deque.set(1, 70));
+        assertEquals(Integer.valueOf(70), deque.peekRight());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getReversibleDequeOutOfBounds() {
+        ReversibleDeque<Integer> deque = new ReversibleDeque<>(arrayDeque);
+        deque.reverse();
+        deque.get(2);
+    }
+
+    @Test
+    public void reversedArrayDequeView() {
+        SimpleArrayDeque<Integer> data = new SimpleArrayDeque<>(4);
+        ReversibleDeque<Integer> deque = new ReversibleDeque<>(data);
+        deque.pushRight(1);
+        deque.pushRight(2);
+        deque.reverse();
+        deque.pushRight(0);
+        deque.pushLeft(3);
+
+        assertTrue(deque.isFull());
+        assertEquals(Integer.valueOf(3), deque.get(0));
+        assertEquals(Integer.valueOf(1), deque.set(2, 10));
+        assertEquals(Integer.valueOf(10), data.get(1));
+
+        Iterator<Integer> snapshot = deque.snapshotIterator();
+        Integer[] expected = new Integer[]{3, 2, 10, 0};
+        for (Integer num : expected) {
+            assertEquals(num, snapshot.next());
+        }
+
+        assertEquals(Integer.valueOf(3), deque.popLeft());
+        assertEquals(Integer.valueOf(0), deque.popRight());
+        deque.reverse();
+        assertEquals(Integer.valueOf(10), deque.peekLeft());
+        assertEquals(Integer.valueOf(2), deque.peekRight());
+    }
 }
@@ -1,6 +1,7 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Random;
@@ -129,4 +130,67 @@ public class SimpleArrayDequeTest {
 
         assertArrayEquals(arr2, arr);
     }
+
+    @Test
+    public void getSetArrayDequeWrapped() {
+        SimpleArrayDeque<Integer> deque = new SimpleArrayDeque<>(4);
+        deque.pushLeft(2);
+        deque.pushLeft(1);
+        deque.pushRight(3);
+        deque.pushRight(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i + 1), deque.get(i));
+        }
+
+        assertEquals(Integer.valueOf(4), deque.set(3, 40));
+        assertEquals(Integer.valueOf(40), deque.peekRight());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getArrayDequeOutOfBounds() {
+        arrayDeque.get(2);
+    }
+
+    @Test
+    public void iteratorArrayDequeFullAndSingle() {
+        SimpleArrayDeque<Integer> full = new SimpleArrayDeque<>(3);
+        full.pushRight(1);
+        full.pushRight(2);
+        full.pushLeft(0);
+        Iterator<Integer> iter = full.iterator();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Integer.valueOf(i), iter.next());
+        }
+        assertFalse(iter.hasNext());
+
+        SimpleArrayDeque<Integer> single = new SimpleArrayDeque<>(3);
+        single.pushRight(1);
+        assertTrue(single.reverseIterator().hasNext());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorArrayDequeModified() {
+        Iterator<Integer> iter = arrayDeque.iterator();
+        iter.next();
+        arrayDeque.pushRight(6);
+        iter.next();
+    }
+
+    @Test
+    public void snapshotIteratorArrayDequeWrapped() {
+        SimpleArrayDeque<Integer> deque = new SimpleArrayDeque<>(4);
+        deque.pushLeft(2);
+        deque.pushLeft(1);
+        deque.pushRight(3);
+        Iterator<Integer> iter = deque.snapshotIterator();
+        deque.popLeft();
+        deque.pushRight(4);
+        deque.pushRight(5);
+
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(Integer.valueOf(i), iter.next());
+        }
+        assertFalse(iter.hasNext());
+    }
 }
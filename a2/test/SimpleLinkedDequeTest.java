@@ -1,6 +1,7 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Random;
@@ -186,5 +187,42 @@ public class SimpleLinkedDequeTest {
         assertArrayEquals(arr, actual);
     }
 
+    @Test
+    public void getSetLinkedDeque() {
+        SimpleLinkedDeque<Integer> deque = new SimpleLinkedDeque<>();
+        for (int i = 0; i < 7; i++) {
+            deque.pushRight(i);
+        }
+
+        for (int i = 0; i < 7; i++) {
+            assertEquals(Integer.valueOf(i), deque.get(i));
+        }
+
+        assertEquals(Integer.valueOf(1), deque.set(1, 10));
+        assertEquals(Integer.valueOf(5), deque.set(5, 50));
+        assertEquals(Integer.valueOf(10), deque.get(1));
+        assertEquals(Integer.valueOf(50), deque.get(5));
+    }
 
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getLinkedDequeOutOfBounds() {
+        linkedDeque.get(-1);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void reverseIteratorLinkedDequeModified() {
+        Iterator<Integer> iter = linkedDeque.reverseIterator();
+        linkedDeque.popRight();
+        iter.next();
+    }
+
+    @Test
+    public void snapshotIteratorLinkedDeque() {
+        Iterator<Integer> iter = linkedDeque.snapshotIterator();
+        linkedDeque.popLeft();
+        linkedDeque.pushLeft(1);
+        assertEquals(Integer.valueOf(7), iter.next());
+        assertEquals(Integer.valueOf(10), iter.next());
+        assertFalse(iter.hasNext());
+    }
 }
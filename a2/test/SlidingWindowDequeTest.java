@@ -0,0 +1,80 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SlidingWindowDequeTest {
+    private SlidingWindowDeque<Integer> window;
+    private Random rand;
+
+    @Before
+    public void setUp() {
+        window = new SlidingWindowDeque<>(4);
+        rand = new Random();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidConstructorSlidingWindow() {
+        new SlidingWindowDeque<Integer>(0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void minSlidingWindowEmpty() {
+        window.min();
+    }
+
+    @Test
+    public void queueSlidingWindow() {
+        window.pushRight(3);
+        window.pushRight(1);
+        window.pushRight(4);
+        window.pushRight(1);
+        assertEquals(Integer.valueOf(1), window.min());
+        assertEquals(Integer.valueOf(4), window.max());
+        assertEquals(9.0, window.sum(), 0);
+
+        window.popLeft();
+        window.popLeft();
+        assertEquals(Integer.valueOf(1), window.min());
+        window.popLeft();
+        assertEquals(Integer.valueOf(1), window.max());
+        assertEquals(1.0, window.average(), 0);
+    }
+
+    @Test
+    public void popRightSlidingWindow() {
+        window.pushRight(5);
+        window.pushRight(2);
+        window.pushLeft(7);
+        assertEquals(Integer.valueOf(7), window.max());
+        assertEquals(Integer.valueOf(2), window.popRight());
+        assertEquals(Integer.valueOf(5), window.min());
+        assertEquals(12.0, window.sum(), 0);
+    }
+
+    @Test
+    public void randomSlidingWindow() {
+        SlidingWindowDeque<Integer> deque = new SlidingWindowDeque<>(16);
+        for (int i = 0; i < 1000; i++) {
+            if (deque.isFull()) {
+                deque.popLeft();
+            }
+            deque.pushRight(rand.nextInt(50));
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            int sum = 0;
+            for (int j = 0; j < deque.size(); j++) {
+                min = Math.min(min, deque.get(j));
+                max = Math.max(max, deque.get(j));
+                sum += deque.get(j);
+            }
+            assertEquals(Integer.valueOf(min), deque.min());
+            assertEquals(Integer.valueOf(max), deque.max());
+            assertEquals(sum, deque.sum(), 0);
+        }
+    }
+}
@@ -2,7 +2,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.Assert;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.fail;
@@ -104,6 +110,36 @@ public class SortingAlgorithmsTest {
         assertArrayEquals(toSort, sortedAscending);
     }
 
+    @Test
+    public void testMergeSortEmpty() {
+        Integer[] empty = new Integer[0];
+        SortingAlgorithms.mergeSort(empty, false);
+        assertArrayEquals(new Integer[0], empty);
+    }
+
+    @Test
+    public void testMergeSortDistributionsReverse() {
+        Random random = new Random(3506);
+        for (Integer[] input : distributions(random, 10_000)) {
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected, Collections.reverseOrder());
+            SortingAlgorithms.mergeSort(input, true);
+            assertArrayEquals(expected, input);
+        }
+    }
+
+    @Test
+    public void testMergeSortStable() {
+        Random random = new Random(3506);
+        Pair[] input = new Pair[5000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = new Pair(random.nextInt(20), i);
+        }
+
+        SortingAlgorithms.mergeSort(input, false);
+        assertStable(input);
+    }
+
     /* -------------------------------- QUICK SORT -------------------------- */
 
     @Test
@@ -131,6 +167,730 @@ public class SortingAlgorithmsTest {
         assertArrayEquals(toSort, sortedAscending);
     }
 
+    @Test
+    public void testQuickSortEmpty() {
+        Integer[] empty = new Integer[0];
+        SortingAlgorithms.quickSort(empty, false);
+        assertArrayEquals(new Integer[0], empty);
+    }
+
+    @Test
+    public void testQuickSortDistributions() {
+        Random random = new Random(3506);
+        for (Integer[] input : distributions(random, 10_000)) {
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected);
+            SortingAlgorithms.quickSort(input, false);
+            assertArrayEquals(expected, input);
+        }
+    }
+
+    @Test
+    public void testQuickSortDistributionsReverse() {
+        Random random = new Random(3506);
+        for (Integer[] input : distributions(random, 10_000)) {
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected, Collections.reverseOrder());
+            SortingAlgorithms.quickSort(input, true);
+            assertArrayEquals(expected, input);
+        }
+    }
+
+    /* -------------------------------- HEAP SORT --------------------------- */
+
+    @Test
+    public void testHeapSortUnsorted() {
+        SortingAlgorithms.heapSort(unsorted, false);
+        assertArrayEquals(unsorted, sorted);
+    }
+
+    @Test
+    public void testHeapSortDistributionsReverse() {
+        Random random = new Random(3506);
+        for (Integer[] input : distributions(random, 1000)) {
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected, Collections.reverseOrder());
+            SortingAlgorithms.heapSort(input, true);
+            assertArrayEquals(expected, input);
+        }
+    }
+
+    /* -------------------------------- TIM SORT ---------------------------- */
+
+    @Test
+    public void testTimSortUnsorted() {
+        SortingAlgorithms.timSort(unsorted, false);
+        assertArrayEquals(unsorted, sorted);
+    }
+
+    @Test
+    public void testTimSortEmpty() {
+        Integer[] empty = new Integer[0];
+        SortingAlgorithms.timSort(empty, false);
+        assertArrayEquals(new Integer[0], empty);
+    }
+
+    @Test
+    public void testTimSortDistributions() {
+        Random random = new Random(3506);
+        for (int size : new int[]{1, 2, 31, 33, 1000, 100_000}) {
+            for (Integer[] input : distributions(random, size)) {
+                Integer[] expected = Arrays.copyOf(input, input.length);
+                Arrays.sort(expected);
+                SortingAlgorithms.timSort(input, false);
+                assertArrayEquals(expected, input);
+            }
+        }
+    }
+
+    @Test
+    public void testTimSortDistributionsReverse() {
+        Random random = new Random(3506);
+        for (Integer[] input : distributions(random, 10_000)) {
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected, Collections.reverseOrder());
+            SortingAlgorithms.timSort(input, true);
+            assertArrayEquals(expected, input);
+        }
+    }
+
+    @Test
+    public void testTimSortRuns() {
+        // Sorted runs of random lengths, alternating between ascending and descending,
+        // which makes the merges gallop.
+        Random random = new Random(3506);
+        Integer[] input = new Integer[200_000];
+        int i = 0;
+        while (i < input.length) {
+            int runLength = Math.min(input.length - i, 1 + random.nextInt(5000));
+            int value = random.nextInt(1000);
+            boolean descending = random.nextBoolean();
+            for (int j = 0; j < runLength; j++) {
+                input[i + j] = descending ? value - j : value + j;
+            }
+            i += runLength;
+        }
+        Integer[] expected = Arrays.copyOf(input, input.length);
+        Arrays.sort(expected);
+
+        SortingAlgorithms.timSort(input, false);
+        assertArrayEquals(expected, input);
+    }
+
+    @Test
+    public void testTimSortStable() {
+        Random random = new Random(3506);
+        Pair[] input = new Pair[20_000];
+        for (int i = 0; i < input.length; i++) {
+            // Long stretches of equal and ascending keys so that galloping is used.
+            input[i] = new Pair(random.nextInt(10) < 8 ? i / 500 : random.nextInt(40), i);
+        }
+
+        SortingAlgorithms.timSort(input, false);
+        assertStable(input);
+    }
+
+    @Test
+    public void testTimSortPresortedIsLinear() {
+        // A sorted array with a short unsorted tail appended.
+        Pair[] input = new Pair[10_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = new Pair(i < 9_990 ? i : 10_000 - i, i);
+        }
+
+        Pair.comparisons = 0;
+        SortingAlgorithms.timSort(input, false);
+        assertStable(input);
+        Assert.assertTrue(Pair.comparisons < 2 * input.length);
+    }
+
+    /* ---------------------------- PRIMITIVE SORTS ------------------------- */
+
+    @Test
+    public void testPrimitiveIntSorts() {
+        Random random = new Random(3506);
+        for (int size : new int[]{0, 1, 2, 40, 1000, 100_000}) {
+            int[] input = random.ints(size).toArray();
+            if (size > 2) {
+                input[0] = Integer.MIN_VALUE;
+                input[1] = Integer.MAX_VALUE;
+                input[2] = 0;
+            }
+            int[] few = random.ints(size, -3, 3).toArray();
+
+            for (int[] original : new int[][]{input, few}) {
+                int[] expected = original.clone();
+                Arrays.sort(expected);
+                int[] descending = reversedCopy(expected);
+
+                int[] toSort = original.clone();
+                SortingAlgorithms.quickSort(toSort, false);
+                Assert.assertArrayEquals(expected, toSort);
+                toSort = original.clone();
+                SortingAlgorithms.quickSort(toSort, true);
+                Assert.assertArrayEquals(descending, toSort);
+                toSort = original.clone();
+                SortingAlgorithms.radixSort(toSort, false);
+                Assert.assertArrayEquals(expected, toSort);
+                toSort = original.clone();
+                SortingAlgorithms.radixSort(toSort, true);
+                Assert.assertArrayEquals(descending, toSort);
+            }
+        }
+    }
+
+    @Test
+    public void testVectorQuickSort() {
+        // Runs on the SIMD kernels only with --add-modules jdk.incubator.vector and simd/
+        // on the classpath, and on quickSort(int[], boolean) otherwise.
+        Random random = new Random(3506);
+        for (int size : new int[]{0, 1, 2, 3, 7, 8, 9, 15, 16, 17, 33, 1000, 100_000}) {
+            int[] input = random.ints(size).toArray();
+            if (size > 2) {
+                input[0] = Integer.MIN_VALUE;
+                input[1] = Integer.MAX_VALUE;
+                input[2] = Integer.MAX_VALUE;
+            }
+            int[] few = random.ints(size, -3, 3).toArray();
+            int[] ascending = IntStream.range(0, size).toArray();
+            int[] descending = IntStream.range(0, size).map(i -> size - i).toArray();
+            int[] equal = new int[size];
+
+            for (int[] original : new int[][]{input, few, ascending, descending, equal}) {
+                int[] expected = original.clone();
+                Arrays.sort(expected);
+
+                int[] toSort = original.clone();
+                SortingAlgorithms.vectorQuickSort(toSort, false);
+                Assert.assertArrayEquals(expected, toSort);
+                toSort = original.clone();
+                SortingAlgorithms.vectorQuickSort(toSort, true);
+                Assert.assertArrayEquals(reversedCopy(expected), toSort);
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitiveLongSorts() {
+        Random random = new Random(3506);
+        for (int size : new int[]{0, 1, 40, 1000, 100_000}) {
+            long[] input = random.longs(size).toArray();
+            if (size > 2) {
+                input[0] = Long.MIN_VALUE;
+                input[1] = Long.MAX_VALUE;
+            }
+            long[] expected = input.clone();
+            Arrays.sort(expected);
+            long[] descending = expected.clone();
+            for (int i = 0; i < size; i++) {
+                descending[i] = expected[size - 1 - i];
+            }
+
+            long[] toSort = input.clone();
+            SortingAlgorithms.quickSort(toSort, false);
+            Assert.assertArrayEquals(expected, toSort);
+            toSort = input.clone();
+            SortingAlgorithms.quickSort(toSort, true);
+            Assert.assertArrayEquals(descending, toSort);
+            toSort = input.clone();
+            SortingAlgorithms.radixSort(toSort, false);
+            Assert.assertArrayEquals(expected, toSort);
+            toSort = input.clone();
+            SortingAlgorithms.radixSort(toSort, true);
+            Assert.assertArrayEquals(descending, toSort);
+        }
+    }
+
+    @Test
+    public void testPrimitiveDoubleSorts() {
+        Random random = new Random(3506);
+        double[] special = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE};
+        for (int size : new int[]{7, 40, 1000, 100_000}) {
+            double[] input = random.doubles(size, -10, 10).toArray();
+            for (int i = 0; i < size; i++) {
+                if (random.nextInt(4) == 0) {
+                    input[i] = special[random.nextInt(special.length)];
+                }
+            }
+            double[] expected = input.clone();
+            Arrays.sort(expected);
+            double[] descending = expected.clone();
+            for (int i = 0; i < size; i++) {
+                descending[i] = expected[size - 1 - i];
+            }
+
+            // assertArrayEquals on doubles treats -0.0 and 0.0 as equal, so compare bits.
+            double[] toSort = input.clone();
+            SortingAlgorithms.quickSort(toSort, false);
+            assertSameDoubles(expected, toSort);
+            toSort = input.clone();
+            SortingAlgorithms.quickSort(toSort, true);
+            assertSameDoubles(descending, toSort);
+            toSort = input.clone();
+            SortingAlgorithms.radixSort(toSort, false);
+            assertSameDoubles(expected, toSort);
+            toSort = input.clone();
+            SortingAlgorithms.radixSort(toSort, true);
+            assertSameDoubles(descending, toSort);
+        }
+    }
+
+    /* -------------------------- PARALLEL SAMPLE SORT ---------------------- */
+
+    @Test
+    public void testParallelSampleSortUnsorted() {
+        SortingAlgorithms.parallelSampleSort(unsorted, false);
+        assertArrayEquals(unsorted, sorted);
+    }
+
+    @Test
+    public void testParallelSampleSortDistributions() {
+        Random random = new Random(3506);
+        for (int size : new int[]{SortingAlgorithms.SAMPLE_SORT_THRESHOLD, 200_000}) {
+            for (Integer[] input : distributions(random, size)) {
+                Integer[] expected = Arrays.copyOf(input, input.length);
+                Arrays.sort(expected);
+                SortingAlgorithms.parallelSampleSort(input, false);
+                assertArrayEquals(expected, input);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelSampleSortDistributionsReverse() {
+        Random random = new Random(3506);
+        for (Integer[] input : distributions(random, 100_000)) {
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected, Collections.reverseOrder());
+            SortingAlgorithms.parallelSampleSort(input, true);
+            assertArrayEquals(expected, input);
+        }
+    }
+
+    /* ------------------------- SMALL RANGE KERNELS ------------------------ */
+
+    @Test
+    public void testSortingNetworksSortEveryZeroOneInput() {
+        // By the 0-1 principle, a network that sorts every input of 0s and 1s sorts
+        // every input of that size.
+        for (int size = 0; size <= SortingAlgorithms.SORTING_NETWORK_THRESHOLD; size++) {
+            Integer[] input = new Integer[size];
+            for (int bits = 0; bits < 1 << size; bits++) {
+                for (int i = 0; i < size; i++) {
+                    input[i] = (bits >> i) & 1;
+                }
+                SortingAlgorithms.networkSort(input, 0, size, Comparator.naturalOrder());
+                assertSortedBy(Comparator.naturalOrder(), input);
+            }
+        }
+    }
+
+    @Test
+    public void testSmallRangeKernels() {
+        Random random = new Random(3506);
+        Comparator<Pair> byKey = Comparator.naturalOrder();
+        for (int size = 0; size <= 40; size++) {
+            for (int trial = 0; trial < 50; trial++) {
+                // Sort a range in the middle of the array, which must leave the rest alone.
+                Pair[] input = new Pair[size + 6];
+                for (int i = 0; i < input.length; i++) {
+                    input[i] = new Pair(random.nextInt(trial % 2 == 0 ? 5 : 1000), i);
+                }
+                Pair[] expected = Arrays.copyOf(input, input.length);
+                Arrays.sort(expected, 3, size + 3);
+
+                Pair[] toSort = Arrays.copyOf(input, input.length);
+                SortingAlgorithms.insertionSort(toSort, 3, size + 3, byKey);
+                assertArrayEquals(expected, toSort);
+
+                toSort = Arrays.copyOf(input, input.length);
+                SortingAlgorithms.sentinelInsertionSort(toSort, 3, size + 3, byKey);
+                assertArrayEquals(expected, toSort);
+
+                toSort = Arrays.copyOf(input, input.length);
+                SortingAlgorithms.binaryInsertionSort(toSort, 3, size + 3, 3, byKey);
+                assertArrayEquals(expected, toSort);
+
+                if (size <= SortingAlgorithms.SORTING_NETWORK_THRESHOLD) {
+                    toSort = Arrays.copyOf(input, input.length);
+                    SortingAlgorithms.networkSort(toSort, 3, size + 3, byKey);
+                    assertSortedBy(byKey, Arrays.copyOfRange(toSort, 3, size + 3));
+                    Assert.assertSame(input[0], toSort[0]);
+                    Assert.assertSame(input[size + 5], toSort[size + 5]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInsertionSortPresortedComparisons() {
+        Pair[] input = new Pair[1000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = new Pair(i, i);
+        }
+
+        Pair.comparisons = 0;
+        SortingAlgorithms.insertionSort(input, false);
+        Assert.assertEquals(input.length - 1, Pair.comparisons);
+    }
+
+    /* ----------------------- PARTIAL SORT AND SELECTION ------------------- */
+
+    @Test
+    public void testPartialSortStable() {
+        Random random = new Random(3506);
+        for (int size : new int[]{1, 100, 10_000}) {
+            Pair[] input = new Pair[size];
+            for (int i = 0; i < size; i++) {
+                input[i] = new Pair(random.nextInt(50), i);
+            }
+            Pair[] expected = Arrays.copyOf(input, size);
+            Arrays.sort(expected);
+
+            // Small k uses the bounded heap, larger k selects and partitions.
+            for (int k : new int[]{0, 1, Math.min(5, size), size / 64, size / 2, size}) {
+                Pair[] toSort = Arrays.copyOf(input, size);
+                SortingAlgorithms.partialSort(toSort, k, false);
+                assertArrayEquals(Arrays.copyOf(expected, k), Arrays.copyOf(toSort, k));
+
+                // The rest keep their original order.
+                for (int i = k + 1; i < size; i++) {
+                    Assert.assertTrue(toSort[i - 1].order < toSort[i].order);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPartialSortReversed() {
+        Random random = new Random(3506);
+        for (Integer[] input : distributions(random, 5000)) {
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected, Collections.reverseOrder());
+
+            for (int k : new int[]{10, 2500}) {
+                Integer[] toSort = Arrays.copyOf(input, input.length);
+                SortingAlgorithms.partialSort(toSort, k, true);
+                assertArrayEquals(Arrays.copyOf(expected, k), Arrays.copyOf(toSort, k));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartialSortInvalidK() {
+        SortingAlgorithms.partialSort(unsorted, unsorted.length + 1, false);
+    }
+
+    @Test
+    public void testSelect() {
+        Random random = new Random(3506);
+        for (int size : new int[]{1, 40, 100_000}) {
+            for (Integer[] input : distributions(random, size)) {
+                Integer[] expected = Arrays.copyOf(input, size);
+                Arrays.sort(expected);
+
+                for (int k : new int[]{0, size / 3, size - 1}) {
+                    Assert.assertEquals(expected[k], SortingAlgorithms.select(input, k));
+                    for (int i = 0; i < k; i++) {
+                        Assert.assertTrue(input[i] <= expected[k]);
+                    }
+                    for (int i = k + 1; i < size; i++) {
+                        Assert.assertTrue(input[i] >= expected[k]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSelectIsLinear() {
+        Random random = new Random(3506);
+        Pair[] input = new Pair[100_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = new Pair(random.nextInt(), i);
+        }
+
+        Pair.comparisons = 0;
+        SortingAlgorithms.select(input, input.length / 2, Comparator.naturalOrder());
+        Assert.assertTrue(Pair.comparisons < 6 * input.length);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSelectInvalidK() {
+        SortingAlgorithms.select(unsorted, unsorted.length);
+    }
+
+    @Test
+    public void testTopK() {
+        Random random = new Random(3506);
+        List<Pair> input = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            input.add(new Pair(random.nextInt(100), i));
+        }
+        Pair[] expected = input.toArray(new Pair[0]);
+        Arrays.sort(expected);
+
+        for (int k : new int[]{0, 1, 50, 10_000, 20_000}) {
+            List<Pair> top = SortingAlgorithms.topK(input, k, Comparator.naturalOrder());
+            assertArrayEquals(Arrays.copyOf(expected, Math.min(k, expected.length)),
+                    top.toArray(new Pair[0]));
+        }
+
+        List<Integer> largest = SortingAlgorithms.topK(Arrays.asList(3, 9, 1, 7, 9), 3, true);
+        Assert.assertEquals(Arrays.asList(9, 9, 7), largest);
+    }
+
+    /* ---------------------------- STRING SORTS ---------------------------- */
+
+    @Test
+    public void testStringSorts() {
+        Random random = new Random(3506);
+        for (int size : new int[]{0, 1, 2, 30, 1000, 20_000}) {
+            for (String[] input : stringDistributions(random, size)) {
+                String[] expected = Arrays.copyOf(input, size);
+                Arrays.sort(expected);
+                String[] descending = Arrays.copyOf(input, size);
+                Arrays.sort(descending, Collections.reverseOrder());
+
+                String[] toSort = Arrays.copyOf(input, size);
+                SortingAlgorithms.multikeyQuickSort(toSort, false);
+                assertArrayEquals(expected, toSort);
+                toSort = Arrays.copyOf(input, size);
+                SortingAlgorithms.multikeyQuickSort(toSort, true);
+                assertArrayEquals(descending, toSort);
+
+                toSort = Arrays.copyOf(input, size);
+                SortingAlgorithms.msdRadixSort(toSort, false);
+                assertArrayEquals(expected, toSort);
+                toSort = Arrays.copyOf(input, size);
+                SortingAlgorithms.msdRadixSort(toSort, true);
+                assertArrayEquals(descending, toSort);
+            }
+        }
+    }
+
+    @Test
+    public void testMsdRadixSortStable() {
+        Random random = new Random(3506);
+        String[] input = new String[5000];
+        for (int i = 0; i < input.length; i++) {
+            // Distinct objects with few distinct values.
+            input[i] = new String("id/" + random.nextInt(40));
+        }
+        String[] expected = Arrays.copyOf(input, input.length);
+        Arrays.sort(expected);
+
+        SortingAlgorithms.msdRadixSort(input, false);
+        for (int i = 0; i < input.length; i++) {
+            Assert.assertSame(expected[i], input[i]);
+        }
+    }
+
+    /* ------------------------ COMPARATORS AND KEYS ------------------------ */
+
+    @Test
+    public void testComparatorSorts() {
+        Random random = new Random(3506);
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        String[] input = new String[2000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = Integer.toString(random.nextInt(), 36);
+        }
+        String[] expected = Arrays.copyOf(input, input.length);
+        Arrays.sort(expected, byLength);
+
+        // The stable sorts have to match Arrays.sort exactly.
+        String[] toSort = Arrays.copyOf(input, input.length);
+        SortingAlgorithms.mergeSort(toSort, byLength);
+        assertArrayEquals(expected, toSort);
+        toSort = Arrays.copyOf(input, input.length);
+        SortingAlgorithms.timSort(toSort, byLength);
+        assertArrayEquals(expected, toSort);
+        toSort = Arrays.copyOf(input, input.length);
+        SortingAlgorithms.parallelMergeSort(toSort, byLength, 100);
+        assertArrayEquals(expected, toSort);
+        toSort = Arrays.copyOf(input, input.length);
+        SortingAlgorithms.insertionSort(toSort, byLength);
+        assertArrayEquals(expected, toSort);
+
+        toSort = Arrays.copyOf(input, input.length);
+        SortingAlgorithms.quickSort(toSort, byLength);
+        assertSortedBy(byLength, toSort);
+        toSort = Arrays.copyOf(input, input.length);
+        SortingAlgorithms.heapSort(toSort, byLength);
+        assertSortedBy(byLength, toSort);
+        toSort = Arrays.copyOf(input, input.length);
+        SortingAlgorithms.selectionSort(toSort, byLength);
+        assertSortedBy(byLength, toSort);
+    }
+
+    @Test
+    public void testSortByIntKey() {
+        Random random = new Random(3506);
+        Pair[] input = new Pair[10_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = new Pair(random.nextInt(200) - 100, i);
+        }
+
+        SortingAlgorithms.sortByIntKey(input, pair -> pair.key, false);
+        assertStable(input);
+
+        SortingAlgorithms.sortByIntKey(input, pair -> -pair.key, true);
+        assertStable(input);
+    }
+
+    @Test
+    public void testSortByLongKeyReversed() {
+        Random random = new Random(3506);
+        Long[] input = new Long[10_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextLong();
+        }
+        input[0] = Long.MIN_VALUE;
+        input[1] = Long.MAX_VALUE;
+        Long[] expected = Arrays.copyOf(input, input.length);
+        Arrays.sort(expected, Collections.reverseOrder());
+
+        SortingAlgorithms.sortByLongKey(input, Long::longValue, true);
+        assertArrayEquals(expected, input);
+    }
+
+    /* ------------------------------- ARGSORT ------------------------------ */
+
+    @Test
+    public void testArgsort() {
+        Random random = new Random(3506);
+        for (int size : new int[]{0, 1, 40, 1000, 100_000}) {
+            Integer[] keys = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = random.nextInt(20);
+            }
+            for (boolean reversed : new boolean[]{false, true}) {
+                // Arrays.sort() on objects is stable, so this is the only correct answer.
+                Comparator<Integer> order = reversed ? Comparator.reverseOrder() : Comparator.naturalOrder();
+                Integer[] boxed = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+                Arrays.sort(boxed, (a, b) -> order.compare(keys[a], keys[b]));
+                int[] expected = Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+
+                Integer[] original = keys.clone();
+                Assert.assertArrayEquals(expected, SortingAlgorithms.argsort(keys, reversed));
+                Assert.assertArrayEquals(expected, SortingAlgorithms.parallelArgsort(keys, reversed));
+                Assert.assertArrayEquals(expected, SortingAlgorithms.parallelArgsort(keys, order, 64));
+                Assert.assertArrayEquals(original, keys);
+            }
+        }
+    }
+
+    @Test
+    public void testApplyPermutation() {
+        Random random = new Random(3506);
+        int size = 10_000;
+        Integer[] keys = new Integer[size];
+        int[] ints = new int[size];
+        long[] longs = new long[size];
+        double[] doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt(100);
+            ints[i] = i;
+            longs[i] = 2L * i;
+            doubles[i] = i / 2.0;
+        }
+
+        int[] permutation = SortingAlgorithms.argsort(keys, false);
+        int[] original = permutation.clone();
+        Integer[] expectedKeys = keys.clone();
+        Arrays.sort(expectedKeys);
+        SortingAlgorithms.applyPermutation(keys, permutation);
+        SortingAlgorithms.applyPermutation(ints, permutation);
+        SortingAlgorithms.applyPermutation(longs, permutation);
+        SortingAlgorithms.applyPermutation(doubles, permutation);
+
+        Assert.assertArrayEquals(original, permutation);
+        Assert.assertArrayEquals(expectedKeys, keys);
+        Assert.assertArrayEquals(permutation, ints);
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(2L * permutation[i], longs[i]);
+            Assert.assertEquals(permutation[i] / 2.0, doubles[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testApplyPermutationCycles() {
+        String[] column = {"a", "b", "c", "d", "e"};
+        // A 3-cycle, a 2-cycle and nothing fixed.
+        SortingAlgorithms.applyPermutation(column, new int[]{2, 0, 1, 4, 3});
+        assertArrayEquals(new String[]{"c", "a", "b", "e", "d"}, column);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyPermutationLength() {
+        SortingAlgorithms.applyPermutation(new int[3], new int[]{0, 1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyPermutationRepeatedIndex() {
+        SortingAlgorithms.applyPermutation(new int[3], new int[]{1, 1, 0});
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testApplyPermutationIndexOutOfBounds() {
+        SortingAlgorithms.applyPermutation(new long[2], new int[]{0, 2});
+    }
+
+    /* --------------------------- PARALLEL MERGE SORT ---------------------- */
+
+    @Test
+    public void testParallelMergeSortUnsorted() {
+        SortingAlgorithms.parallelMergeSort(unsorted, false);
+        assertArrayEquals(unsorted, sorted);
+    }
+
+    @Test
+    public void testParallelMergeSortUnsortedReverse() {
+        SortingAlgorithms.parallelMergeSort(unsorted, true);
+        Integer[] expected = Arrays.copyOf(sorted, sorted.length);
+        Collections.reverse(Arrays.asList(expected));
+        assertArrayEquals(expected, unsorted);
+    }
+
+    @Test
+    public void testParallelMergeSortEmpty() {
+        Integer[] empty = new Integer[0];
+        SortingAlgorithms.parallelMergeSort(empty, false);
+        assertArrayEquals(new Integer[0], empty);
+    }
+
+    @Test
+    public void testParallelMergeSortLarge() {
+        Random random = new Random(3506);
+        for (int threshold : new int[]{1, 7, 64, SortingAlgorithms.PARALLEL_THRESHOLD}) {
+            Integer[] input = randomArray(random, 50_000, 1000);
+            Integer[] expected = Arrays.copyOf(input, input.length);
+            Arrays.sort(expected);
+
+            SortingAlgorithms.parallelMergeSort(input, false, threshold);
+            assertArrayEquals(expected, input);
+        }
+    }
+
+    @Test
+    public void testParallelMergeSortStable() {
+        Random random = new Random(3506);
+        Pair[] input = new Pair[20_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = new Pair(random.nextInt(50), i);
+        }
+
+        SortingAlgorithms.parallelMergeSort(input, false, 100);
+        assertStable(input);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelMergeSortInvalidThreshold() {
+        SortingAlgorithms.parallelMergeSort(unsorted, false, 0);
+    }
+
     @Test public void insertionSortGivenNotReversed() {
         Integer[] input = {9, 2, 2, 8, 5, 7, 3, 4, 5, 1, 102};
         Integer[] sortedInput = {1, 2, 2, 3, 4, 5, 5, 7, 8, 9, 102};
@@ -179,4 +939,106 @@ public class SortingAlgorithmsTest {
     public void quickSortGivenReversed() {
 
     }
+
+    /**
+     * Returns arrays of the given size that are random, have few distinct values,
+     * are ascending, descending, all equal, or rise then fall (organ pipe).
+     */
+    private static Integer[][] distributions(Random random, int size) {
+        Integer[][] arrays = new Integer[6][size];
+        for (int i = 0; i < size; i++) {
+            arrays[0][i] = random.nextInt();
+            arrays[1][i] = random.nextInt(4);
+            arrays[2][i] = i;
+            arrays[3][i] = size - i;
+            arrays[4][i] = 7;
+            arrays[5][i] = Math.min(i, size - i);
+        }
+        return arrays;
+    }
+
+    /**
+     * Checks that the pairs are sorted by key, and that pairs with equal keys are
+     * still in their original order.
+     */
+    private static void assertStable(Pair[] pairs) {
+        for (int i = 1; i < pairs.length; i++) {
+            Assert.assertTrue(pairs[i - 1].key < pairs[i].key
+                    || (pairs[i - 1].key == pairs[i].key && pairs[i - 1].order < pairs[i].order));
+        }
+    }
+
+    private static <T> void assertSortedBy(Comparator<? super T> comparator, T[] array) {
+        for (int i = 1; i < array.length; i++) {
+            Assert.assertTrue(comparator.compare(array[i - 1], array[i]) <= 0);
+        }
+    }
+
+    private static int[] reversedCopy(int[] array) {
+        int[] reversed = new int[array.length];
+        for (int i = 0; i < array.length; i++) {
+            reversed[i] = array[array.length - 1 - i];
+        }
+        return reversed;
+    }
+
+    private static void assertSameDoubles(double[] expected, double[] actual) {
+        Assert.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(actual[i]));
+        }
+    }
+
+    /**
+     * Returns arrays of the given number of strings that are random, URLs with a long
+     * shared prefix, prefixes of each other including the empty string, few distinct
+     * values, and random strings of characters beyond ASCII.
+     */
+    private static String[][] stringDistributions(Random random, int size) {
+        String[][] arrays = new String[5][size];
+        char[] wide = {'a', 'z', '\u00e9', '\u0100', '\u4e2d', '\uffff', '\u0000'};
+        for (int i = 0; i < size; i++) {
+            arrays[0][i] = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+            arrays[1][i] = "https://example.com/api/v2/users/" + random.nextInt(size + 1) + "/profile";
+            arrays[2][i] = "abcabcabc".substring(0, random.nextInt(10));
+            arrays[3][i] = "key" + random.nextInt(3);
+
+            char[] characters = new char[random.nextInt(6)];
+            for (int j = 0; j < characters.length; j++) {
+                characters[j] = wide[random.nextInt(wide.length)];
+            }
+            arrays[4][i] = new String(characters);
+        }
+        return arrays;
+    }
+
+    private static Integer[] randomArray(Random random, int size, int bound) {
+        Integer[] array = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = random.nextInt(bound);
+        }
+        return array;
+    }
+
+    /**
+     * An element compared only by its key, so that the order of equal keys shows
+     * whether a sort is stable.
+     */
+    private static class Pair implements Comparable<Pair> {
+        private final int key;
+        private final int order;
+        /* The number of calls to compareTo() on any pair. */
+        private static long comparisons;
+
+        private Pair(int key, int order) {
+            this.key = key;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Pair other) {
+            comparisons++;
+            return Integer.compare(this.key, other.key);
+        }
+    }
 }
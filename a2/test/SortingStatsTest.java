@@ -0,0 +1,73 @@
+import org.junit.Test;
+
+import java.util.Comparator;
+
+import static org.junit.Assert.*;
+
+public class SortingStatsTest {
+    @Test
+    public void countsComparisonsSortingStats() {
+        Integer[] input = new Integer[1000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = i;
+        }
+
+        // Insertion sort compares each element once with its predecessor on sorted input.
+        SortingStats stats = SortingStats.measure(input, Comparator.<Integer>naturalOrder(),
+                SortingAlgorithms::insertionSort);
+        assertEquals(1000, stats.getSize());
+        assertEquals(999, stats.getComparisons());
+        assertEquals(999 / (1000 * Math.log(1000) / Math.log(2)), stats.getComparisonsPerNLogN(), 1e-9);
+    }
+
+    @Test
+    public void sortsWithGivenComparatorSortingStats() {
+        Integer[] input = {3, 1, 4, 1, 5, 9, 2, 6};
+        SortingStats stats = SortingStats.measure(input, Comparator.<Integer>reverseOrder(),
+                SortingAlgorithms::mergeSort);
+
+        assertArrayEquals(new Integer[] {9, 6, 5, 4, 3, 2, 1, 1}, input);
+        assertTrue(stats.getComparisons() > 0);
+        assertTrue(stats.getElapsedNanos() >= 0);
+    }
+
+    @Test
+    public void movesSortingStats() {
+        Integer[] input = {2, 1};
+        SortingStats stats = SortingStats.measure(input, Comparator.<Integer>naturalOrder(),
+                SortingAlgorithms::selectionSort);
+
+        // Moves are only counted with -Dsorting.instrument=true.
+        if (SortingStats.ENABLED) {
+            assertNotNull(SortingStats.moveCounter());
+            assertEquals(2, stats.getMoves());
+        } else {
+            assertNull(SortingStats.moveCounter());
+            assertEquals(-1, stats.getMoves());
+        }
+    }
+
+    @Test
+    public void customCountersSortingStats() {
+        long[] counters = {10, 20};
+        SortingStats stats = SortingStats.measure(5, () -> counters[0], () -> counters[1], () -> {
+            counters[0] += 7;
+            counters[1] += 3;
+        });
+
+        assertEquals(7, stats.getComparisons());
+        assertEquals(3, stats.getMoves());
+
+        stats = SortingStats.measure(5, null, null, () -> { });
+        assertEquals(-1, stats.getComparisons());
+        assertTrue(Double.isNaN(stats.getComparisonsPerNLogN()));
+    }
+
+    @Test
+    public void allocationSortingStats() {
+        Object[][] sink = new Object[1][];
+        SortingStats stats = SortingStats.measure(0, null, null, () -> sink[0] = new Object[1 << 20]);
+
+        assertTrue(stats.getAllocatedBytes() >= 4L << 20);
+    }
+}